@@ -0,0 +1,223 @@
+package com.carroll.office.benchmark;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 性能测试用的合成数据：固定随机种子，同样的参数每次生成相同的内容
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class BenchmarkData {
+
+    /**
+     * 列数：编号、名称、分类、金额、数量、日期、备注
+     */
+    public static final int COLUMNS = 7;
+    public static final String[] COLUMN_TITLES = {"编号", "名称", "分类", "金额", "数量", "日期", "备注"};
+    public static final Integer[] COLUMN_WIDTHS = {6, 12, 6, 8, 6, 10, 20};
+
+    private static final String[] CATEGORIES = {"办公", "差旅", "采购", "培训", "其他"};
+    private static final long BASE_TIME = 1735660800000L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成指定行数的工作薄字节：第一行为列标题，数值、日期写为对应类型的单元格
+     *
+     * @param rows   数据行数
+     * @param format "xlsx" 或 "xls"，xls 最多65535行数据
+     */
+    public static byte[] workbook(int rows, String format) throws IOException {
+        Workbook wb = "xls".equals(format) ? new HSSFWorkbook() : new SXSSFWorkbook(100);
+        try {
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+            Sheet sheet = wb.createSheet("data");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < COLUMNS; i++) {
+                header.createCell(i).setCellValue(COLUMN_TITLES[i]);
+            }
+            Random random = new Random(rows);
+            int dataRows = "xls".equals(format) ? Math.min(rows, 65535) : rows;
+            for (int r = 1; r <= dataRows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellValue("item-" + r);
+                row.createCell(2).setCellValue(CATEGORIES[r % CATEGORIES.length]);
+                row.createCell(3).setCellValue(random.nextInt(1000000) / 100.0);
+                row.createCell(4).setCellValue(random.nextInt(1000));
+                Cell date = row.createCell(5);
+                date.setCellValue(new Date(BASE_TIME + r * 60000L));
+                date.setCellStyle(dateStyle);
+                row.createCell(6).setCellValue(r % 10 == 0 ? "备注 " + Long.toHexString(random.nextLong()) : "");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            return out.toByteArray();
+        } finally {
+            if (wb instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) wb).dispose();
+            }
+            wb.close();
+        }
+    }
+
+    /**
+     * 导出用的行数据，与 {@link #workbook(int, String)} 的列一致
+     */
+    public static List<Object[]> rows(int rows) {
+        Random random = new Random(rows);
+        List<Object[]> list = new ArrayList<Object[]>(rows);
+        for (int r = 1; r <= rows; r++) {
+            list.add(new Object[]{r, "item-" + r, CATEGORIES[r % CATEGORIES.length], random.nextInt(1000000) / 100.0,
+                    random.nextInt(1000), new Date(BASE_TIME + r * 60000L), r % 10 == 0 ? "备注 " + Long.toHexString(random.nextLong()) : ""});
+        }
+        return list;
+    }
+
+    /**
+     * addCols 使用的实体
+     */
+    public static List<Item> items(int rows) {
+        Random random = new Random(rows);
+        List<Item> list = new ArrayList<Item>(rows);
+        for (int r = 1; r <= rows; r++) {
+            Item item = new Item();
+            item.setName("item-" + r);
+            item.setCategory(CATEGORIES[r % CATEGORIES.length]);
+            item.setAmount(BigDecimal.valueOf(random.nextInt(1000000), 2));
+            item.setPrice(random.nextInt(100000) / 100.0);
+            item.setDate(new Date(BASE_TIME + r * 60000L));
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * Word 表格数据，键为列标题
+     */
+    public static List<Map<String, Object>> tableData(int rows) {
+        List<Object[]> source = rows(rows);
+        List<Map<String, Object>> list = new ArrayList<Map<String, Object>>(rows);
+        for (Object[] row : source) {
+            Map<String, Object> map = new HashMap<String, Object>();
+            for (int i = 0; i < COLUMNS; i++) {
+                map.put(COLUMN_TITLES[i], row[i]);
+            }
+            list.add(map);
+        }
+        return list;
+    }
+
+    /**
+     * 生成 JPEG 图片
+     */
+    public static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            Random random = new Random(width * 31L + height);
+            for (int i = 0; i < 64; i++) {
+                g.setColor(new Color(random.nextInt(0xFFFFFF)));
+                g.fillRect(random.nextInt(width), random.nextInt(height), width / 4, height / 4);
+            }
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    public static final class Item {
+        private String name;
+        private String category;
+        private BigDecimal amount;
+        private Double price;
+        private Date date;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public void setPrice(Double price) {
+            this.price = price;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+
+        public void setDate(Date date) {
+            this.date = date;
+        }
+    }
+
+    /**
+     * 丢弃写入内容的输出流，只统计字节数，避免测试结果受磁盘影响
+     */
+    public static final class NullOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.carroll.office.benchmark;
+
+import com.carroll.office.ExportExcelUtils;
+import com.carroll.office.StreamingExportConfig;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出性能：export、addCols、writeExport，以及流式、分页和并行导出
+ * <p>
+ * 输出写入 {@link BenchmarkData.NullOutputStream}，返回写出的字节数
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ExportBenchmark {
+
+    private static final String TITLE = "性能测试";
+    private static final String[] ITEM_FIELDS = {"", "name", "category", "amount", "price", "date"};
+    private static final Integer[] ITEM_WIDTHS = {4, 12, 6, 8, 8, 10};
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private List<Object[]> data;
+    private List<BenchmarkData.Item> items;
+    private XSSFWorkbook prepared;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = BenchmarkData.rows(rows);
+        items = BenchmarkData.items(rows);
+        prepared = new XSSFWorkbook();
+        XSSFSheet sheet = prepared.createSheet("data");
+        int rowIndex = ExportExcelUtils.fillTableHeader(TITLE, sheet, BenchmarkData.COLUMN_TITLES, BenchmarkData.COLUMN_WIDTHS);
+        ExportExcelUtils.fillRowData(sheet, data, BenchmarkData.COLUMN_WIDTHS, rowIndex);
+    }
+
+    @Benchmark
+    public long export() throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        XSSFWorkbook wb = new XSSFWorkbook();
+        ExportExcelUtils.export(TITLE, BenchmarkData.COLUMN_TITLES, BenchmarkData.COLUMN_WIDTHS, data, wb.createSheet("data"), out, false);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long addCols() throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        XSSFWorkbook wb = new XSSFWorkbook();
+        XSSFSheet sheet = wb.createSheet("data");
+        XSSFCellStyle cellStyleMain = wb.createCellStyle();
+        Map<String, Integer> position = new HashMap<String, Integer>();
+        position.put("seqNum", 1);
+        position.put("rownumStart", 0);
+        ExportExcelUtils.addCols(wb, sheet, items, BenchmarkData.Item.class.getName(), position, ITEM_FIELDS, "分类", null, ITEM_WIDTHS, cellStyleMain);
+        ExportExcelUtils.writeExport(wb, out, false);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long writeExport() throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        ExportExcelUtils.writeExport(prepared, out, false);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long exportStreaming() throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        ExportExcelUtils.exportStreaming(TITLE, BenchmarkData.COLUMN_TITLES, BenchmarkData.COLUMN_WIDTHS, data, "data", out, null);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long exportPagedTyped() throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        StreamingExportConfig config = new StreamingExportConfig();
+        config.setTypedCells(true);
+        ExportExcelUtils.exportPaged(TITLE, BenchmarkData.COLUMN_TITLES, BenchmarkData.COLUMN_WIDTHS, data.iterator(), "data", out, config);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long exportParallel() throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        ExportExcelUtils.exportParallel(TITLE, BenchmarkData.COLUMN_TITLES, BenchmarkData.COLUMN_WIDTHS, Collections.singletonList(data),
+                new String[]{"data"}, out, ForkJoinPool.commonPool());
+        return out.getCount();
+    }
+}
@@ -0,0 +1,124 @@
+package com.carroll.office.benchmark;
+
+import com.carroll.office.ExcelUtils;
+import com.carroll.office.MemoryBudget;
+import com.carroll.office.ReadOptions;
+import com.carroll.office.RowHandler;
+import com.carroll.office.WorkbookInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读取性能：getListDataFromExcel 的各个重载、流式回调和元数据探测
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    @Param({"xlsx", "xls"})
+    public String format;
+
+    private byte[] data;
+    private String fileName;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.workbook(rows, format);
+        fileName = "data." + format;
+        file = File.createTempFile("benchmark", "." + format);
+        Files.write(file.toPath(), data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    private InputStream in() {
+        return new ByteArrayInputStream(data);
+    }
+
+    @Benchmark
+    public List<List<Object>> allSheets() throws Exception {
+        return ExcelUtils.getListDataFromExcel(in(), fileName);
+    }
+
+    @Benchmark
+    public List<List<Object>> sheet() throws Exception {
+        return ExcelUtils.getListDataFromExcel(in(), fileName, 0, 1);
+    }
+
+    @Benchmark
+    public List<List<Object>> sheetWithFormat() throws Exception {
+        return ExcelUtils.getListDataFromExcel(in(), fileName, 0, 1, new DecimalFormat("0.00"));
+    }
+
+    @Benchmark
+    public List<List<Object>> readOptions() throws Exception {
+        return ExcelUtils.getListDataFromExcel(in(), fileName, new ReadOptions(0, 1));
+    }
+
+    @Benchmark
+    public List<List<Object>> readOptionsProjected() throws Exception {
+        ReadOptions options = new ReadOptions(0, 1);
+        options.setColumns(0, 3);
+        return ExcelUtils.getListDataFromExcel(in(), fileName, options);
+    }
+
+    @Benchmark
+    public List<List<Object>> readOptionsFile() throws Exception {
+        return ExcelUtils.getListDataFromExcel(file, new ReadOptions(0, 1));
+    }
+
+    @Benchmark
+    public List<List<Object>> memoryBudgetFile() throws Exception {
+        return ExcelUtils.getListDataFromExcel(file, 0, 1, null, new MemoryBudget());
+    }
+
+    @Benchmark
+    public void streaming(final Blackhole blackhole) throws Exception {
+        ExcelUtils.readExcel(in(), fileName, 0, 1, new RowHandler() {
+            @Override
+            public void handle(int sheetIndex, int rowIndex, List<Object> rowData) {
+                blackhole.consume(rowData);
+            }
+        });
+    }
+
+    @Benchmark
+    public WorkbookInfo probe() throws Exception {
+        return ExcelUtils.probe(file);
+    }
+}
@@ -0,0 +1,104 @@
+package com.carroll.office.benchmark;
+
+import com.carroll.office.CustomXWPFDocument;
+import com.carroll.office.POIWordUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word 生成性能：表格和图片，生成后写出到 {@link BenchmarkData.NullOutputStream}
+ * <p>
+ * 表格和图片的参数分别放在各自的状态中，每个基准只按与其相关的参数组合运行
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WordBenchmark {
+
+    private static final int[] COLUMN_WIDTHS = {800, 1600, 1000, 1200, 800, 1600, 2400};
+
+    @State(Scope.Benchmark)
+    public static class TableState {
+
+        @Param({"10", "100", "1000"})
+        public int rows;
+
+        List<Map<String, Object>> tableData;
+        List<String> headers;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            tableData = BenchmarkData.tableData(rows);
+            headers = Arrays.asList(BenchmarkData.COLUMN_TITLES);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PictureState {
+
+        /**
+         * 每个文档插入的图片数
+         */
+        @Param({"1", "20"})
+        public int pictures;
+
+        File picture;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            picture = File.createTempFile("benchmark", ".jpg");
+            Files.write(picture.toPath(), BenchmarkData.jpeg(800, 600));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            picture.delete();
+        }
+    }
+
+    @Benchmark
+    public long table(TableState state) throws Exception {
+        CustomXWPFDocument document = new CustomXWPFDocument();
+        POIWordUtils.addTable(document, state.tableData, state.headers, state.headers, COLUMN_WIDTHS);
+        return write(document);
+    }
+
+    @Benchmark
+    public long pictures(PictureState state) throws Exception {
+        CustomXWPFDocument document = new CustomXWPFDocument();
+        for (int i = 0; i < state.pictures; i++) {
+            POIWordUtils.addPic(document, state.picture, "图" + (i + 1));
+        }
+        return write(document);
+    }
+
+    private static long write(CustomXWPFDocument document) throws Exception {
+        BenchmarkData.NullOutputStream out = new BenchmarkData.NullOutputStream();
+        document.write(out);
+        document.close();
+        return out.getCount();
+    }
+}
@@ -0,0 +1,53 @@
+package com.carroll.office;
+
+/**
+ * 批量生成的统计
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class BatchResult {
+    private final long documents;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    BatchResult(long documents, long bytes, long elapsedNanos) {
+        this.documents = documents;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return 生成的文档数
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return 写出的总字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return 从开始到最后一个文档写完的耗时（纳秒）
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return 每秒生成的文档数
+     */
+    public double getDocumentsPerSecond() {
+        return elapsedNanos > 0 ? documents * 1e9 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{documents=" + documents + ", bytes=" + bytes + ", elapsedMillis=" + elapsedNanos / 1000000
+                + ", documentsPerSecond=" + String.format("%.1f", getDocumentsPerSecond()) + "}";
+    }
+}
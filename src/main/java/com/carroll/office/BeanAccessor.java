@@ -0,0 +1,177 @@
+package com.carroll.office;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 预编译的实体属性访问器，每个类的每个属性只解析一次，取值时不再进行反射查找
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class BeanAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final BeanAccessor MISSING = new BeanAccessor(null, Object.class);
+
+    /**
+     * 按类缓存，缓存随类一起回收，不会阻止热部署等场景下类加载器的卸载
+     */
+    private static final ClassValue<ConcurrentMap<String, BeanAccessor>> METHODS = new AccessorCache();
+    private static final ClassValue<ConcurrentMap<String, BeanAccessor>> FIELDS = new AccessorCache();
+    private static final ClassValue<ConcurrentMap<String, BeanAccessor>> PROPERTIES = new AccessorCache();
+
+    private final MethodHandle handle;
+    private final Class<?> type;
+
+    private BeanAccessor(MethodHandle handle, Class<?> type) {
+        this.handle = handle;
+        this.type = type;
+    }
+
+    /**
+     * 取值
+     *
+     * @param bean 实体
+     * @return 属性值，属性不存在时返回null
+     */
+    Object get(Object bean) throws Exception {
+        if (handle == null) {
+            return null;
+        }
+        try {
+            return (Object) handle.invokeExact(bean);
+        } catch (Exception e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Exception(t);
+        }
+    }
+
+    /**
+     * 属性的声明类型（基本类型已转换为包装类型）
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    boolean isMissing() {
+        return handle == null;
+    }
+
+    /**
+     * 按public无参方法取值，方法不存在时抛出 {@link NoSuchMethodException}
+     */
+    static BeanAccessor forMethod(Class<?> c, String methodName) throws Exception {
+        ConcurrentMap<String, BeanAccessor> accessors = METHODS.get(c);
+        BeanAccessor accessor = accessors.get(methodName);
+        if (accessor == null) {
+            accessor = of(c.getMethod(methodName));
+            accessors.putIfAbsent(methodName, accessor);
+        }
+        return accessor;
+    }
+
+    /**
+     * 按本类声明的字段取值，字段不存在时返回取值为null的访问器
+     */
+    static BeanAccessor forField(Class<?> c, String fieldName) {
+        ConcurrentMap<String, BeanAccessor> accessors = FIELDS.get(c);
+        BeanAccessor accessor = accessors.get(fieldName);
+        if (accessor == null) {
+            try {
+                accessor = of(c.getDeclaredField(fieldName));
+            } catch (Exception e) {
+                accessor = MISSING;
+            }
+            accessors.putIfAbsent(fieldName, accessor);
+        }
+        return accessor;
+    }
+
+    /**
+     * 按JavaBean属性取值：依次查找 getXxx()、isXxx()、与属性同名的public方法，最后查找类及父类中声明的字段
+     */
+    static BeanAccessor forProperty(Class<?> c, String property) throws Exception {
+        ConcurrentMap<String, BeanAccessor> accessors = PROPERTIES.get(c);
+        BeanAccessor accessor = accessors.get(property);
+        if (accessor == null) {
+            accessor = resolveProperty(c, property);
+            accessors.putIfAbsent(property, accessor);
+        }
+        return accessor;
+    }
+
+    private static BeanAccessor resolveProperty(Class<?> c, String property) throws Exception {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[]{"get" + suffix, "is" + suffix, property}) {
+            try {
+                Method method = c.getMethod(name);
+                if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())) {
+                    return of(method);
+                }
+            } catch (NoSuchMethodException e) {
+                //继续查找
+            }
+        }
+        for (Class<?> t = c; t != null && t != Object.class; t = t.getSuperclass()) {
+            try {
+                return of(t.getDeclaredField(property));
+            } catch (NoSuchFieldException e) {
+                //继续查找父类
+            }
+        }
+        throw new NoSuchFieldException(c.getName() + "." + property);
+    }
+
+    private static BeanAccessor of(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        return new BeanAccessor(handle.asType(GETTER_TYPE), wrap(method.getReturnType()));
+    }
+
+    private static BeanAccessor of(Field field) throws IllegalAccessException {
+        field.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+        return new BeanAccessor(handle.asType(GETTER_TYPE), wrap(field.getType()));
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return type;
+    }
+
+    private static final class AccessorCache extends ClassValue<ConcurrentMap<String, BeanAccessor>> {
+        @Override
+        protected ConcurrentMap<String, BeanAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, BeanAccessor>();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 单元格取值解码器，线程安全，可在多个工作薄、多个线程间复用
+ * <p>
+ * 取值规则：常规格式的数值按数字格式化为字符串；日期格式（由 {@link DateUtil#isADateFormat(int, String)} 判定）
+ * 转换为 yyyy-MM-dd，带时间部分的转换为 yyyy-MM-dd HH:mm:ss；其它数值原样返回 Double
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class CellDecoder {
+
+    /**
+     * 默认解码器，数字格式为"0"
+     */
+    public static final CellDecoder DEFAULT = new CellDecoder("0");
+
+    private static final byte KIND_UNKNOWN = 0;
+    private static final byte KIND_GENERAL = 1;
+    private static final byte KIND_NUMBER = 2;
+    private static final byte KIND_DATE = 3;
+    private static final byte KIND_DATE_TIME = 4;
+
+    private static final String GENERAL = "General";
+
+    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd");
+        }
+    };
+    private static final ThreadLocal<SimpleDateFormat> DATE_TIME_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        }
+    };
+
+    /**
+     * 缓存的格式字符串数上限，超过后不再缓存，每次重新判断，避免读取大量格式不同的文件时缓存无限增长
+     */
+    private static final int KIND_CACHE_LIMIT = 512;
+    /**
+     * 非内置日期格式索引时，格式字符串 -> 取值方式；此时判定结果只取决于格式字符串，与工作薄和格式索引无关，可全局共享
+     */
+    private static final ConcurrentMap<String, Byte> KIND_CACHE = new ConcurrentHashMap<String, Byte>();
+
+    private final ThreadLocal<DecimalFormat> numberFormat;
+
+    /**
+     * @param numberPattern 常规格式数值的格式化模式，如 "0"、"0.00"
+     */
+    public CellDecoder(final String numberPattern) {
+        this.numberFormat = new ThreadLocal<DecimalFormat>() {
+            @Override
+            protected DecimalFormat initialValue() {
+                return new DecimalFormat(numberPattern);
+            }
+        };
+    }
+
+    /**
+     * @param df 常规格式数值的格式化，每个线程使用各自的副本
+     */
+    public CellDecoder(final DecimalFormat df) {
+        this.numberFormat = new ThreadLocal<DecimalFormat>() {
+            @Override
+            protected DecimalFormat initialValue() {
+                return (DecimalFormat) df.clone();
+            }
+        };
+    }
+
+    /**
+     * 描述：解码单元格取值
+     *
+     * @param cell 单元格，为null时返回null
+     * @return
+     */
+    public Object decode(Cell cell) {
+        return decode(cell, numberFormat.get(), null);
+    }
+
+    /**
+     * 描述：解码数值单元格取值，供流式读取使用
+     *
+     * @param value            数值
+     * @param dataFormatString 单元格的数据格式
+     * @param date1904         工作薄是否使用1904日期系统
+     * @return
+     */
+    public Object decode(double value, String dataFormatString, boolean date1904) {
+        return decode(value, dataFormatString, date1904, numberFormat.get());
+    }
+
+    /**
+     * @param styleCache 按样式索引缓存的取值方式，长度为工作薄的样式数，只在读取同一个工作薄的线程内使用，可以为null
+     */
+    Object decode(Cell cell, DecimalFormat df, byte[] styleCache) {
+        if (cell == null) {
+            return null;
+        }
+        int cellType = cell.getCellType();
+        if (cellType == Cell.CELL_TYPE_FORMULA) {
+            cellType = cell.getCachedFormulaResultType();
+        }
+        switch (cellType) {
+            case Cell.CELL_TYPE_STRING:
+                return cell.getRichStringCellValue().getString();
+            case Cell.CELL_TYPE_NUMERIC:
+                return decodeNumeric(cell, df, styleCache);
+            case Cell.CELL_TYPE_BOOLEAN:
+                return cell.getBooleanCellValue();
+            case Cell.CELL_TYPE_BLANK:
+                return "";
+            default:
+                return null;
+        }
+    }
+
+    Object decode(double value, String dataFormatString, boolean date1904, DecimalFormat df) {
+        byte kind = kindOf(-1, dataFormatString);
+        if (kind == KIND_GENERAL) {
+            return df.format(value);
+        } else if (kind == KIND_DATE || kind == KIND_DATE_TIME) {
+            return formatDate(DateUtil.getJavaDate(value, date1904), kind);
+        }
+        return value;
+    }
+
+    /**
+     * 是否为日期格式，判定结果与 {@link #decode(double, String, boolean)} 一致
+     */
+    static boolean isDateFormat(String dataFormatString) {
+        byte kind = kindOf(-1, dataFormatString);
+        return kind == KIND_DATE || kind == KIND_DATE_TIME;
+    }
+
+    private Object decodeNumeric(Cell cell, DecimalFormat df, byte[] styleCache) {
+        CellStyle style = cell.getCellStyle();
+        int styleIndex = style.getIndex() & 0xFFFF;
+        byte kind = styleCache != null && styleIndex < styleCache.length ? styleCache[styleIndex] : KIND_UNKNOWN;
+        if (kind == KIND_UNKNOWN) {
+            kind = kindOf(style.getDataFormat(), style.getDataFormatString());
+            if (styleCache != null && styleIndex < styleCache.length) {
+                styleCache[styleIndex] = kind;
+            }
+        }
+        if (kind == KIND_GENERAL) {
+            return df.format(cell.getNumericCellValue());
+        } else if (kind == KIND_DATE || kind == KIND_DATE_TIME) {
+            return formatDate(cell.getDateCellValue(), kind);
+        }
+        return cell.getNumericCellValue();
+    }
+
+    private static String formatDate(Date date, byte kind) {
+        if (date == null) {
+            return "";
+        }
+        return (kind == KIND_DATE ? DATE_FORMAT : DATE_TIME_FORMAT).get().format(date);
+    }
+
+    private static byte kindOf(int formatIndex, String formatString) {
+        if (formatString == null || GENERAL.equals(formatString)) {
+            return KIND_GENERAL;
+        }
+        if (DateUtil.isInternalDateFormat(formatIndex)) {
+            //内置日期格式索引不论格式字符串都是日期
+            return hasTimePart(formatString) ? KIND_DATE_TIME : KIND_DATE;
+        }
+        Byte kind = KIND_CACHE.get(formatString);
+        if (kind == null) {
+            //POI 不识别带引号文本的格式，如 yyyy"年"m"月"d"日"，去掉引号内容后再判断一次
+            if (DateUtil.isADateFormat(-1, formatString)
+                    || (formatString.indexOf('"') >= 0 && DateUtil.isADateFormat(-1, formatString.replaceAll("\"[^\"]*\"", "")))) {
+                kind = hasTimePart(formatString) ? KIND_DATE_TIME : KIND_DATE;
+            } else {
+                kind = KIND_NUMBER;
+            }
+            if (KIND_CACHE.size() < KIND_CACHE_LIMIT) {
+                KIND_CACHE.putIfAbsent(formatString, kind);
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * 格式中去掉引号内文本和方括号内的颜色、区域等内容后，含有时、秒即视为带时间部分，[h]、[ss] 等累计时间也算
+     */
+    private static boolean hasTimePart(String formatString) {
+        boolean quoted = false;
+        boolean bracket = false;
+        for (int i = 0; i < formatString.length(); i++) {
+            char ch = formatString.charAt(i);
+            if (ch == '"') {
+                quoted = !quoted;
+            } else if (quoted) {
+                continue;
+            } else if (ch == '\\') {
+                i++;
+            } else if (ch == '[') {
+                char next = i + 1 < formatString.length() ? formatString.charAt(i + 1) : ' ';
+                if (next == 'h' || next == 'H' || next == 's' || next == 'S') {
+                    return true;
+                }
+                bracket = true;
+            } else if (ch == ']') {
+                bracket = false;
+            } else if (!bracket && (ch == 'h' || ch == 'H' || ch == 's' || ch == 'S')) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,213 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 工作薄级别的单元格样式缓存，相同规格只创建一次样式和字体，避免样式表膨胀及超出Excel 64000个样式的上限
+ * <p>
+ * 一次导出使用一个实例（{@link #CellStyleRegistry(Workbook)}），随导出结束释放，不在线程间共享；
+ * 静态方法供单独调用的填充方法使用，按工作薄共享实例；实例只弱引用工作薄，共享表的键不会被值引用，工作薄被回收后随之释放
+ * <p>
+ * 缓存按样式属性校验：调用方修改了缓存中的样式（如 addCols 修改 cellStyleMain）后，不再返回该样式，
+ * 派生样式按原样式的当前属性查找
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class CellStyleRegistry {
+
+    private static final Map<Workbook, CellStyleRegistry> SHARED = new WeakHashMap<Workbook, CellStyleRegistry>();
+
+    /**
+     * 弱引用：实例是 {@link #SHARED} 的值，强引用工作薄会使键永远不被回收
+     */
+    private final WeakReference<Workbook> workbook;
+    private final Map<CellStyleSpec, Entry> styles = new HashMap<CellStyleSpec, Entry>();
+    private final Map<String, Short> fonts = new HashMap<String, Short>();
+    private final Map<String, Entry> derived = new HashMap<String, Entry>();
+
+    /**
+     * @param wb 工作薄
+     */
+    public CellStyleRegistry(Workbook wb) {
+        this.workbook = new WeakReference<Workbook>(wb);
+    }
+
+    /**
+     * @return 工作薄，已被回收时为null
+     */
+    public Workbook getWorkbook() {
+        return workbook.get();
+    }
+
+    /**
+     * 获取规格对应的样式，相同规格返回同一个样式
+     *
+     * @param spec 样式规格
+     * @return 样式
+     */
+    public synchronized CellStyle getStyle(CellStyleSpec spec) {
+        Workbook wb = workbook.get();
+        Entry entry = styles.get(spec);
+        if (entry == null || !entry.matches(wb)) {
+            entry = new Entry(createStyle(wb, spec));
+            styles.put(new CellStyleSpec(spec), entry);
+        }
+        return wb.getCellStyleAt(entry.index);
+    }
+
+    /**
+     * 获取在已有样式基础上修改数据格式后的样式，不修改原样式；原样式的属性相同时返回同一个样式
+     *
+     * @param base       原样式
+     * @param dataFormat 数据格式，如 "0.00"
+     * @return 样式
+     */
+    public synchronized CellStyle getStyle(CellStyle base, String dataFormat) {
+        Workbook wb = workbook.get();
+        String key = propertiesOf(base) + "|" + dataFormat;
+        Entry entry = derived.get(key);
+        if (entry == null || !entry.matches(wb)) {
+            CellStyle style = wb.createCellStyle();
+            style.cloneStyleFrom(base);
+            style.setDataFormat(wb.createDataFormat().getFormat(dataFormat));
+            entry = new Entry(style);
+            derived.put(key, entry);
+        }
+        return wb.getCellStyleAt(entry.index);
+    }
+
+    /**
+     * 获取规格对应的样式，同一工作薄中相同规格返回同一个样式
+     *
+     * @param wb   工作薄
+     * @param spec 样式规格
+     * @return 样式
+     */
+    public static CellStyle getStyle(Workbook wb, CellStyleSpec spec) {
+        return of(wb).getStyle(spec);
+    }
+
+    /**
+     * 获取在已有样式基础上修改数据格式后的样式，不修改原样式
+     *
+     * @param wb         工作薄
+     * @param base       原样式
+     * @param dataFormat 数据格式，如 "0.00"
+     * @return 样式
+     */
+    public static CellStyle getStyle(Workbook wb, CellStyle base, String dataFormat) {
+        return of(wb).getStyle(base, dataFormat);
+    }
+
+    /**
+     * 工作薄共享的实例，供没有传入实例的填充方法使用
+     */
+    static CellStyleRegistry of(Workbook wb) {
+        synchronized (SHARED) {
+            CellStyleRegistry registry = SHARED.get(wb);
+            if (registry == null) {
+                registry = new CellStyleRegistry(wb);
+                SHARED.put(wb, registry);
+            }
+            return registry;
+        }
+    }
+
+    /**
+     * 样式中影响显示的属性，用于判断样式是否被修改
+     */
+    private static String propertiesOf(CellStyle style) {
+        return new StringBuilder(64)
+                .append(style.getFontIndex()).append(',')
+                .append(style.getDataFormat()).append(',')
+                .append(style.getAlignment()).append(',')
+                .append(style.getVerticalAlignment()).append(',')
+                .append(style.getWrapText()).append(',')
+                .append(style.getBorderTop()).append(',')
+                .append(style.getBorderBottom()).append(',')
+                .append(style.getBorderLeft()).append(',')
+                .append(style.getBorderRight()).append(',')
+                .append(style.getTopBorderColor()).append(',')
+                .append(style.getBottomBorderColor()).append(',')
+                .append(style.getLeftBorderColor()).append(',')
+                .append(style.getRightBorderColor()).append(',')
+                .append(style.getFillPattern()).append(',')
+                .append(style.getFillForegroundColor()).append(',')
+                .append(style.getFillBackgroundColor()).append(',')
+                .append(style.getRotation()).append(',')
+                .append(style.getIndention()).append(',')
+                .append(style.getHidden()).append(',')
+                .append(style.getLocked())
+                .toString();
+    }
+
+    /**
+     * 缓存的样式索引及创建时的属性
+     */
+    private static final class Entry {
+        final short index;
+        final String properties;
+
+        Entry(CellStyle style) {
+            this.index = style.getIndex();
+            this.properties = propertiesOf(style);
+        }
+
+        boolean matches(Workbook wb) {
+            return properties.equals(propertiesOf(wb.getCellStyleAt(index)));
+        }
+    }
+
+    private CellStyle createStyle(Workbook wb, CellStyleSpec spec) {
+        CellStyle cellStyle = wb.createCellStyle();
+        cellStyle.setFont(getFont(wb, spec));
+        if (spec.getAlignment() != null) {
+            cellStyle.setAlignment(spec.getAlignment());
+        }
+        if (spec.getVerticalAlignment() != null) {
+            cellStyle.setVerticalAlignment(spec.getVerticalAlignment());
+        }
+        if (spec.isBorder()) {
+            ExportExcelUtils.setCellBorder(cellStyle);
+        }
+        if (spec.isSolidFill() || spec.getFillColor() >= 0) {
+            cellStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
+        }
+        if (spec.getFillColor() >= 0) {
+            cellStyle.setFillForegroundColor(spec.getFillColor());
+        }
+        if (spec.getDataFormat() != null) {
+            cellStyle.setDataFormat(wb.createDataFormat().getFormat(spec.getDataFormat()));
+        }
+        cellStyle.setWrapText(spec.isWrapText());
+        return cellStyle;
+    }
+
+    private Font getFont(Workbook wb, CellStyleSpec spec) {
+        String key = spec.getFontName() + "|" + spec.getFontSize() + "|" + spec.isBold();
+        Short index = fonts.get(key);
+        if (index != null) {
+            return wb.getFontAt(index);
+        }
+        Font font = wb.createFont();
+        if (spec.getFontName() != null) {
+            font.setFontName(spec.getFontName());
+        }
+        if (spec.getFontSize() > 0) {
+            font.setFontHeightInPoints(spec.getFontSize());
+        }
+        if (spec.isBold()) {
+            font.setBoldweight(Font.BOLDWEIGHT_BOLD);
+        }
+        fonts.put(key, font.getIndex());
+        return font;
+    }
+}
@@ -0,0 +1,182 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+
+/**
+ * 单元格样式规格，属性相同的规格在同一工作薄中对应同一个样式，见 {@link CellStyleRegistry}
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class CellStyleSpec {
+
+    private String fontName;
+
+    private short fontSize;
+
+    private boolean bold;
+
+    private HorizontalAlignment alignment;
+
+    private VerticalAlignment verticalAlignment;
+
+    /**
+     * 四边细边框
+     */
+    private boolean border;
+
+    /**
+     * 纯色填充的前景色，小于0表示不填充
+     */
+    private short fillColor = -1;
+
+    /**
+     * 纯色填充但不指定颜色
+     */
+    private boolean solidFill;
+
+    private String dataFormat;
+
+    private boolean wrapText;
+
+    public CellStyleSpec() {
+    }
+
+    public CellStyleSpec(CellStyleSpec spec) {
+        this.fontName = spec.fontName;
+        this.fontSize = spec.fontSize;
+        this.bold = spec.bold;
+        this.alignment = spec.alignment;
+        this.verticalAlignment = spec.verticalAlignment;
+        this.border = spec.border;
+        this.fillColor = spec.fillColor;
+        this.solidFill = spec.solidFill;
+        this.dataFormat = spec.dataFormat;
+        this.wrapText = spec.wrapText;
+    }
+
+    public CellStyleSpec(String fontName, int fontSize, boolean bold, HorizontalAlignment alignment, boolean border) {
+        this.fontName = fontName;
+        this.fontSize = (short) fontSize;
+        this.bold = bold;
+        this.alignment = alignment;
+        this.border = border;
+    }
+
+    public String getFontName() {
+        return fontName;
+    }
+
+    public void setFontName(String fontName) {
+        this.fontName = fontName;
+    }
+
+    public short getFontSize() {
+        return fontSize;
+    }
+
+    public void setFontSize(int fontSize) {
+        this.fontSize = (short) fontSize;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+
+    public void setBold(boolean bold) {
+        this.bold = bold;
+    }
+
+    public HorizontalAlignment getAlignment() {
+        return alignment;
+    }
+
+    public void setAlignment(HorizontalAlignment alignment) {
+        this.alignment = alignment;
+    }
+
+    public VerticalAlignment getVerticalAlignment() {
+        return verticalAlignment;
+    }
+
+    public void setVerticalAlignment(VerticalAlignment verticalAlignment) {
+        this.verticalAlignment = verticalAlignment;
+    }
+
+    public boolean isBorder() {
+        return border;
+    }
+
+    public void setBorder(boolean border) {
+        this.border = border;
+    }
+
+    public short getFillColor() {
+        return fillColor;
+    }
+
+    public void setFillColor(short fillColor) {
+        this.fillColor = fillColor;
+    }
+
+    public boolean isSolidFill() {
+        return solidFill;
+    }
+
+    public void setSolidFill(boolean solidFill) {
+        this.solidFill = solidFill;
+    }
+
+    public String getDataFormat() {
+        return dataFormat;
+    }
+
+    public void setDataFormat(String dataFormat) {
+        this.dataFormat = dataFormat;
+    }
+
+    public boolean isWrapText() {
+        return wrapText;
+    }
+
+    public void setWrapText(boolean wrapText) {
+        this.wrapText = wrapText;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CellStyleSpec)) {
+            return false;
+        }
+        CellStyleSpec that = (CellStyleSpec) o;
+        return fontSize == that.fontSize
+                && bold == that.bold
+                && border == that.border
+                && fillColor == that.fillColor
+                && solidFill == that.solidFill
+                && wrapText == that.wrapText
+                && alignment == that.alignment
+                && verticalAlignment == that.verticalAlignment
+                && (fontName == null ? that.fontName == null : fontName.equals(that.fontName))
+                && (dataFormat == null ? that.dataFormat == null : dataFormat.equals(that.dataFormat));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = fontName != null ? fontName.hashCode() : 0;
+        result = 31 * result + fontSize;
+        result = 31 * result + (bold ? 1 : 0);
+        result = 31 * result + (alignment != null ? alignment.hashCode() : 0);
+        result = 31 * result + (verticalAlignment != null ? verticalAlignment.hashCode() : 0);
+        result = 31 * result + (border ? 1 : 0);
+        result = 31 * result + fillColor;
+        result = 31 * result + (solidFill ? 1 : 0);
+        result = 31 * result + (dataFormat != null ? dataFormat.hashCode() : 0);
+        result = 31 * result + (wrapText ? 1 : 0);
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.Cell;
+
+/**
+ * 单元格写入器，按列的数据类型预先选定，写入时不再判断类型
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+interface CellWriter {
+
+    /**
+     * 写入单元格
+     *
+     * @param cell  单元格
+     * @param value 值，可能为null
+     */
+    void write(Cell cell, Object value);
+}
@@ -0,0 +1,194 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按Java类型选择单元格写入器：数值、布尔、日期写为对应类型的单元格，其他类型写为字符串
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class CellWriters {
+
+    static final String DATE_FORMAT = "yyyy-mm-dd";
+    static final String DATE_TIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
+    /**
+     * 判断文本列是否改用内联字符串的样本数
+     */
+    static final int TEXT_SAMPLE_SIZE = 1000;
+
+    private static final CellWriter STRING = new CellWriter() {
+        @Override
+        public void write(Cell cell, Object value) {
+            cell.setCellValue(value == null ? "" : String.valueOf(value));
+        }
+    };
+
+    private static final CellWriter NUMBER = new CellWriter() {
+        @Override
+        public void write(Cell cell, Object value) {
+            if (value == null) {
+                cell.setCellValue("");
+            } else {
+                cell.setCellValue(((Number) value).doubleValue());
+            }
+        }
+    };
+
+    private static final CellWriter BOOLEAN = new CellWriter() {
+        @Override
+        public void write(Cell cell, Object value) {
+            if (value == null) {
+                cell.setCellValue("");
+            } else {
+                cell.setCellValue((Boolean) value);
+            }
+        }
+    };
+
+    private CellWriters() {
+    }
+
+    /**
+     * 根据声明类型选择写入器，文本按工作薄的默认方式写入（XSSF为共享字符串）
+     *
+     * @param type      值的类型，为null或Object时按值的实际类型写入
+     * @param styles    工作薄的样式缓存，用于创建日期样式
+     * @param baseStyle 单元格的基础样式，日期样式在此基础上设置日期格式，可以为null
+     * @return 写入器
+     */
+    static CellWriter forType(Class<?> type, CellStyleRegistry styles, CellStyle baseStyle) {
+        if (type == null || type == Object.class) {
+            return dynamic(styles, baseStyle);
+        }
+        if (Number.class.isAssignableFrom(type)) {
+            return NUMBER;
+        }
+        if (Boolean.class == type) {
+            return BOOLEAN;
+        }
+        if (LocalDateTime.class == type || java.sql.Timestamp.class.isAssignableFrom(type)) {
+            return date(dateStyle(styles, baseStyle, DATE_TIME_FORMAT));
+        }
+        if (Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type) || LocalDate.class == type) {
+            return date(dateStyle(styles, baseStyle, DATE_FORMAT));
+        }
+        return STRING;
+    }
+
+    /**
+     * 文本写入器：XSSF（DOM）工作薄的文本默认进入共享字符串表，表中每个不同的字符串常驻内存直到写出，
+     * 因此先按共享字符串写入一段样本，样本中不同值的比例较高（如编号、备注）时，之后的值改为内联字符串；
+     * SXSSF 按自身配置写入，HSSF 只支持共享字符串
+     * <p>
+     * 只用于按值类型写入的列（typedCells），其他导出的文本仍写入共享字符串表
+     */
+    static CellWriter text(Workbook wb) {
+        if (!(wb instanceof XSSFWorkbook)) {
+            return STRING;
+        }
+        return new CellWriter() {
+            private Set<String> sample = new HashSet<String>();
+            private int sampled;
+            private boolean inline;
+
+            @Override
+            public void write(Cell cell, Object value) {
+                String text = value == null ? "" : String.valueOf(value);
+                if (inline) {
+                    CTCell ctCell = ((XSSFCell) cell).getCTCell();
+                    if (ctCell.isSetV()) {
+                        ctCell.unsetV();
+                    }
+                    ctCell.setT(STCellType.INLINE_STR);
+                    ctCell.setIs(new XSSFRichTextString(text).getCTRst());
+                    return;
+                }
+                cell.setCellValue(text);
+                if (sample != null && !text.isEmpty()) {
+                    sample.add(text);
+                    if (++sampled == TEXT_SAMPLE_SIZE) {
+                        inline = sample.size() > TEXT_SAMPLE_SIZE / 2;
+                        sample = null;
+                    }
+                }
+            }
+        };
+    }
+
+    private static CellStyle dateStyle(CellStyleRegistry styles, CellStyle baseStyle, String format) {
+        if (baseStyle == null) {
+            CellStyleSpec spec = new CellStyleSpec();
+            spec.setDataFormat(format);
+            return styles.getStyle(spec);
+        }
+        return styles.getStyle(baseStyle, format);
+    }
+
+    private static CellWriter date(final CellStyle style) {
+        return new CellWriter() {
+            @Override
+            public void write(Cell cell, Object value) {
+                if (value == null) {
+                    cell.setCellValue("");
+                    return;
+                }
+                cell.setCellStyle(style);
+                if (value instanceof Date) {
+                    cell.setCellValue((Date) value);
+                } else if (value instanceof Calendar) {
+                    cell.setCellValue((Calendar) value);
+                } else if (value instanceof LocalDate) {
+                    cell.setCellValue(Date.from(((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                } else {
+                    cell.setCellValue(Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant()));
+                }
+            }
+        };
+    }
+
+    /**
+     * 按值的实际类型写入，每种类型的写入器只创建一次，文本使用 {@link #text(Workbook)}
+     */
+    private static CellWriter dynamic(final CellStyleRegistry styles, final CellStyle baseStyle) {
+        return new CellWriter() {
+            private final Map<Class<?>, CellWriter> writers = new HashMap<Class<?>, CellWriter>(4);
+            private Class<?> lastType;
+            private CellWriter lastWriter;
+
+            @Override
+            public void write(Cell cell, Object value) {
+                if (value == null) {
+                    cell.setCellValue("");
+                    return;
+                }
+                if (value.getClass() != lastType) {
+                    lastType = value.getClass();
+                    lastWriter = writers.get(lastType);
+                    if (lastWriter == null) {
+                        lastWriter = lastType == String.class || lastType == Character.class ? text(styles.getWorkbook()) : forType(lastType, styles, baseStyle);
+                        writers.put(lastType, lastWriter);
+                    }
+                }
+                lastWriter.write(cell, value);
+            }
+        };
+    }
+}
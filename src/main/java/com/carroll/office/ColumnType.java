@@ -0,0 +1,22 @@
+package com.carroll.office;
+
+/**
+ * 列式读取结果中的列类型
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public enum ColumnType {
+    /**
+     * 整数列，保存在 long[] 中
+     */
+    LONG,
+    /**
+     * 小数列，保存在 double[] 中
+     */
+    DOUBLE,
+    /**
+     * 文本列，字典编码，每行只保存字典下标
+     */
+    STRING
+}
@@ -0,0 +1,304 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式读取结果中的一列：按类型保存在基本类型数组中，文本字典编码，空值用位图记录
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class ColumnVector {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private ColumnType type;
+    private int size;
+    private long[] longs;
+    private double[] doubles;
+    private int[] codes;
+    private List<String> dictionary;
+    private Map<String, Integer> dictionaryIndex;
+    /**
+     * 空值位图，第 i 位为1表示第 i 行为空
+     */
+    private long[] nulls = new long[1];
+    private int nullCount;
+
+    ColumnVector(ColumnType type) {
+        this.type = type;
+        allocate(type, INITIAL_CAPACITY);
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public boolean isNull(int row) {
+        checkRow(row);
+        return nullAt(row);
+    }
+
+    /**
+     * @return 整数列的值，空值返回0
+     */
+    public long getLong(int row) {
+        checkRow(row);
+        if (type == ColumnType.LONG) {
+            return longs[row];
+        } else if (type == ColumnType.DOUBLE) {
+            return (long) doubles[row];
+        }
+        throw new IllegalStateException("Column type is " + type);
+    }
+
+    /**
+     * @return 数值列的值，空值返回0
+     */
+    public double getDouble(int row) {
+        checkRow(row);
+        if (type == ColumnType.DOUBLE) {
+            return doubles[row];
+        } else if (type == ColumnType.LONG) {
+            return longs[row];
+        }
+        throw new IllegalStateException("Column type is " + type);
+    }
+
+    /**
+     * @return 文本形式的值，空值返回null
+     */
+    public String getString(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        switch (type) {
+            case LONG:
+                return Long.toString(longs[row]);
+            case DOUBLE:
+                return NumberToTextConverter.toText(doubles[row]);
+            default:
+                return dictionary.get(codes[row]);
+        }
+    }
+
+    /**
+     * @return 装箱后的值（Long、Double或String），空值返回null
+     */
+    public Object get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        switch (type) {
+            case LONG:
+                return longs[row];
+            case DOUBLE:
+                return doubles[row];
+            default:
+                return dictionary.get(codes[row]);
+        }
+    }
+
+    /**
+     * @return 文本列的字典下标，配合 {@link #getDictionary()} 使用
+     */
+    public int getCode(int row) {
+        checkRow(row);
+        if (type != ColumnType.STRING) {
+            throw new IllegalStateException("Column type is " + type);
+        }
+        return codes[row];
+    }
+
+    /**
+     * @return 文本列的字典，其它类型返回空列表
+     */
+    public List<String> getDictionary() {
+        return dictionary == null ? Collections.<String>emptyList() : Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * @return 整数列的值的副本，空值为0
+     */
+    public long[] toLongArray() {
+        if (type == ColumnType.LONG) {
+            return Arrays.copyOf(longs, size);
+        }
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = getLong(i);
+        }
+        return values;
+    }
+
+    /**
+     * @return 数值列的值的副本，空值为0
+     */
+    public double[] toDoubleArray() {
+        if (type == ColumnType.DOUBLE) {
+            return Arrays.copyOf(doubles, size);
+        }
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = getDouble(i);
+        }
+        return values;
+    }
+
+    /**
+     * @return 数值列非空值之和
+     */
+    public double sum() {
+        double sum = 0;
+        if (type == ColumnType.LONG) {
+            for (int i = 0; i < size; i++) {
+                sum += longs[i];
+            }
+        } else if (type == ColumnType.DOUBLE) {
+            for (int i = 0; i < size; i++) {
+                sum += doubles[i];
+            }
+        } else {
+            throw new IllegalStateException("Column type is " + type);
+        }
+        return sum;
+    }
+
+    void appendNull() {
+        ensureCapacity();
+        if ((size >>> 6) >= nulls.length) {
+            nulls = Arrays.copyOf(nulls, Math.max(nulls.length << 1, (size >>> 6) + 1));
+        }
+        nulls[size >>> 6] |= 1L << size;
+        nullCount++;
+        size++;
+    }
+
+    void appendLong(long value) {
+        ensureCapacity();
+        longs[size++] = value;
+    }
+
+    void appendDouble(double value) {
+        ensureCapacity();
+        doubles[size++] = value;
+    }
+
+    void appendString(String value) {
+        ensureCapacity();
+        Integer code = dictionaryIndex.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndex.put(value, code);
+        }
+        codes[size++] = code;
+    }
+
+    /**
+     * 推断类型时的类型提升：LONG -> DOUBLE -> STRING，已有数据按新类型重新保存
+     */
+    void promote(ColumnType to) {
+        if (to == type) {
+            return;
+        }
+        ColumnType from = type;
+        long[] oldLongs = longs;
+        double[] oldDoubles = doubles;
+        int capacity = capacity();
+        this.type = to;
+        allocate(to, capacity);
+        for (int i = 0; i < size; i++) {
+            if (nullAt(i)) {
+                continue;
+            }
+            if (to == ColumnType.DOUBLE) {
+                doubles[i] = oldLongs[i];
+            } else {
+                String text = from == ColumnType.LONG ? Long.toString(oldLongs[i]) : NumberToTextConverter.toText(oldDoubles[i]);
+                Integer code = dictionaryIndex.get(text);
+                if (code == null) {
+                    code = dictionary.size();
+                    dictionary.add(text);
+                    dictionaryIndex.put(text, code);
+                }
+                codes[i] = code;
+            }
+        }
+    }
+
+    private void allocate(ColumnType type, int capacity) {
+        longs = null;
+        doubles = null;
+        codes = null;
+        switch (type) {
+            case LONG:
+                longs = new long[capacity];
+                break;
+            case DOUBLE:
+                doubles = new double[capacity];
+                break;
+            default:
+                codes = new int[capacity];
+                dictionary = new ArrayList<String>();
+                dictionaryIndex = new HashMap<String, Integer>();
+                break;
+        }
+    }
+
+    private int capacity() {
+        switch (type) {
+            case LONG:
+                return longs.length;
+            case DOUBLE:
+                return doubles.length;
+            default:
+                return codes.length;
+        }
+    }
+
+    private void ensureCapacity() {
+        int capacity = capacity();
+        if (size < capacity) {
+            return;
+        }
+        int grown = capacity + (capacity >> 1);
+        switch (type) {
+            case LONG:
+                longs = Arrays.copyOf(longs, grown);
+                break;
+            case DOUBLE:
+                doubles = Arrays.copyOf(doubles, grown);
+                break;
+            default:
+                codes = Arrays.copyOf(codes, grown);
+                break;
+        }
+    }
+
+    private boolean nullAt(int row) {
+        int word = row >>> 6;
+        return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range (0.." + (size - 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 解析过程中逐行写入列向量，不保留行对象
+ * <p>
+ * 声明了类型的列按声明类型转换，无法转换时抛出异常；未声明的列从整数开始推断，按 LONG -> DOUBLE -> STRING 提升
+ * <p>
+ * 单元格不按列顺序出现时按列号排列，同一列出现多次时取最后一个，与按行读取的结果一致
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ColumnarBuilder implements RowSink {
+
+    private final ColumnType[] schema;
+    private final List<ColumnVector> columns = new ArrayList<ColumnVector>();
+    private int[] rowIndexes = new int[64];
+    private int rowCount;
+    private int[] order = new int[16];
+
+    /**
+     * @param schema 各列的类型，为null或某列为null时推断类型
+     */
+    ColumnarBuilder(ColumnType[] schema) {
+        this.schema = schema != null ? schema : new ColumnType[0];
+        for (int i = 0; i < this.schema.length; i++) {
+            column(i);
+        }
+    }
+
+    @Override
+    public void accept(int sheetIndex, RawRow row) throws Exception {
+        if (rowCount == rowIndexes.length) {
+            rowIndexes = Arrays.copyOf(rowIndexes, rowCount + (rowCount >> 1));
+        }
+        rowIndexes[rowCount] = row.getRowIndex();
+        int cells = order(row);
+        int next = 0;
+        for (int k = 0; k < cells; k++) {
+            int i = order[k];
+            int col = row.getColumn(i);
+            for (; next < col; next++) {
+                column(next).appendNull();
+            }
+            append(column(col), declaredType(col), row, i);
+            next = col + 1;
+        }
+        for (; next < columns.size(); next++) {
+            columns.get(next).appendNull();
+        }
+        rowCount++;
+    }
+
+    /**
+     * 把本行单元格的下标按列号排序后放入 order，同一列有多个单元格时保留最后一个，与 {@link RawRow#toValues(java.text.DecimalFormat)} 一致
+     *
+     * @return 排序后的单元格数
+     */
+    private int order(RawRow row) {
+        int size = row.size();
+        if (order.length < size) {
+            order = new int[Math.max(size, order.length << 1)];
+        }
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            if (i > 0 && row.getColumn(i) <= row.getColumn(i - 1)) {
+                sorted = false;
+            }
+        }
+        if (sorted) {
+            return size;
+        }
+        //文件中的单元格通常已按列排列，插入排序，列号相同时保持原顺序
+        for (int i = 1; i < size; i++) {
+            int cell = order[i];
+            int j = i - 1;
+            for (; j >= 0 && row.getColumn(order[j]) > row.getColumn(cell); j--) {
+                order[j + 1] = order[j];
+            }
+            order[j + 1] = cell;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (i + 1 < size && row.getColumn(order[i + 1]) == row.getColumn(order[i])) {
+                continue;
+            }
+            order[count++] = order[i];
+        }
+        return count;
+    }
+
+    ColumnarResult build() {
+        return new ColumnarResult(columns, Arrays.copyOf(rowIndexes, rowCount), rowCount);
+    }
+
+    /**
+     * 取得第 col 列，新出现的列补齐之前行的空值
+     */
+    private ColumnVector column(int col) {
+        while (columns.size() <= col) {
+            ColumnType declared = declaredType(columns.size());
+            ColumnVector column = new ColumnVector(declared != null ? declared : ColumnType.LONG);
+            for (int i = 0; i < rowCount; i++) {
+                column.appendNull();
+            }
+            columns.add(column);
+        }
+        return columns.get(col);
+    }
+
+    private ColumnType declaredType(int col) {
+        return col < schema.length ? schema[col] : null;
+    }
+
+    private void append(ColumnVector column, ColumnType declared, RawRow row, int i) throws OfficeException {
+        switch (row.getType(i)) {
+            case RawRow.NUMERIC:
+                double value = row.getNumber(i);
+                String format = row.getFormat(i);
+                if ((declared == null || declared == ColumnType.STRING) && CellDecoder.isDateFormat(format)) {
+                    //日期与按行读取的结果一致，为格式化后的文本
+                    appendText(column, declared, (String) CellDecoder.DEFAULT.decode(value, format, row.isDate1904()), row, i);
+                } else {
+                    appendNumber(column, declared, value, row, i);
+                }
+                break;
+            case RawRow.STRING:
+                appendText(column, declared, row.getText(i), row, i);
+                break;
+            case RawRow.BOOLEAN:
+                appendText(column, declared, String.valueOf(row.getNumber(i) != 0), row, i);
+                break;
+            default:
+                column.appendNull();
+                break;
+        }
+    }
+
+    private void appendNumber(ColumnVector column, ColumnType declared, double value, RawRow row, int i) throws OfficeException {
+        ColumnType type = declared != null ? declared : column.getType();
+        switch (type) {
+            case LONG:
+                if (isLong(value)) {
+                    column.appendLong((long) value);
+                } else if (declared == null) {
+                    column.promote(ColumnType.DOUBLE);
+                    column.appendDouble(value);
+                } else {
+                    throw typeMismatch(row, i);
+                }
+                break;
+            case DOUBLE:
+                column.appendDouble(value);
+                break;
+            default:
+                column.appendString(NumberToTextConverter.toText(value));
+                break;
+        }
+    }
+
+    private void appendText(ColumnVector column, ColumnType declared, String text, RawRow row, int i) throws OfficeException {
+        if (declared == null || declared == ColumnType.STRING) {
+            column.promote(ColumnType.STRING);
+            column.appendString(text);
+            return;
+        }
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            column.appendNull();
+            return;
+        }
+        try {
+            if (declared == ColumnType.LONG) {
+                column.appendLong(Long.parseLong(trimmed));
+            } else {
+                column.appendDouble(Double.parseDouble(trimmed));
+            }
+        } catch (NumberFormatException e) {
+            throw typeMismatch(row, i);
+        }
+    }
+
+    private static boolean isLong(double value) {
+        return value == Math.rint(value) && Math.abs(value) <= (1L << 53);
+    }
+
+    private static OfficeException typeMismatch(RawRow row, int i) {
+        return new OfficeException("7003", "第" + (row.getRowIndex() + 1) + "行第" + (row.getColumn(i) + 1) + "列数据类型有误");
+    }
+}
@@ -0,0 +1,86 @@
+package com.carroll.office;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式读取结果：每列保存为一个 {@link ColumnVector}，同时提供按行访问的方法
+ * <p>
+ * 列下标为单元格在sheet中的列号（A列为0），行中缺失的单元格为空值
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class ColumnarResult {
+
+    private final List<ColumnVector> columns;
+    private final int[] rowIndexes;
+    private final int rowCount;
+
+    ColumnarResult(List<ColumnVector> columns, int[] rowIndexes, int rowCount) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rowIndexes = rowIndexes;
+        this.rowCount = rowCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public ColumnVector getColumn(int column) {
+        return columns.get(column);
+    }
+
+    public List<ColumnVector> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return 第 row 行在sheet中的行号
+     */
+    public int getRowIndex(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range (0.." + (rowCount - 1) + ")");
+        }
+        return rowIndexes[row];
+    }
+
+    /**
+     * @return 装箱后的值（Long、Double或String），空值返回null
+     */
+    public Object getValue(int row, int column) {
+        return columns.get(column).get(row);
+    }
+
+    /**
+     * 描述：按行取值，列范围为第0列到最后一列
+     *
+     * @param row 行序号
+     * @return
+     */
+    public List<Object> getRow(int row) {
+        List<Object> values = new ArrayList<Object>(columns.size());
+        for (ColumnVector column : columns) {
+            values.add(column.get(row));
+        }
+        return values;
+    }
+
+    /**
+     * 描述：转换为按行的数据，用于兼容 List&lt;List&lt;Object&gt;&gt; 的调用方，大数据量时会占用较多内存
+     *
+     * @return
+     */
+    public List<List<Object>> toRows() {
+        List<List<Object>> rows = new ArrayList<List<Object>>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(getRow(i));
+        }
+        return rows;
+    }
+}
@@ -1,22 +1,99 @@
 package com.carroll.office;
 
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFFooter;
+import org.apache.poi.xwpf.usermodel.XWPFHeader;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.util.Units;
+import org.apache.xmlbeans.SchemaType;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlException;
-import org.apache.xmlbeans.XmlToken;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.drawingml.x2006.main.CTGraphicalObject;
 import org.openxmlformats.schemas.drawingml.x2006.main.CTNonVisualDrawingProps;
 import org.openxmlformats.schemas.drawingml.x2006.main.CTPositiveSize2D;
+import org.openxmlformats.schemas.drawingml.x2006.picture.CTPicture;
+import org.openxmlformats.schemas.drawingml.x2006.wordprocessingDrawing.CTAnchor;
 import org.openxmlformats.schemas.drawingml.x2006.wordprocessingDrawing.CTInline;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTR;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTbl;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author: carroll.he
  * @date 2020/6/15
  */
 public class CustomXWPFDocument extends XWPFDocument {
+    private static final String WP_NS = "http://schemas.openxmlformats.org/drawingml/2006/wordprocessingDrawing";
+    private static final String PIC_NS = "http://schemas.openxmlformats.org/drawingml/2006/picture";
+    private static final QName PICTURE = new QName(PIC_NS, "pic");
+    private static final QName ID = new QName("id");
+    private static final QName POSITION_H = new QName(WP_NS, "positionH");
+    private static final QName POSITION_V = new QName(WP_NS, "positionV");
+    private static final QName POS_OFFSET = new QName(WP_NS, "posOffset");
+    private static final QName WRAP_NONE = new QName(WP_NS, "wrapNone");
+    private static final QName WRAP_SQUARE = new QName(WP_NS, "wrapSquare");
+    private static final QName RELATIVE_FROM = new QName("relativeFrom");
+
+    private static final String GRAPHIC_XML = ""
+            + "<a:graphic xmlns:a=\"http://schemas.openxmlformats.org/drawingml/2006/main\">"
+            + "<a:graphicData uri=\"" + PIC_NS + "\">"
+            + "<pic:pic xmlns:pic=\"" + PIC_NS + "\">"
+            + "<pic:nvPicPr><pic:cNvPr id=\"0\" name=\"Generated\"/><pic:cNvPicPr/></pic:nvPicPr>"
+            + "<pic:blipFill>"
+            + "<a:blip r:embed=\"\" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"/>"
+            + "<a:stretch><a:fillRect/></a:stretch>"
+            + "</pic:blipFill>"
+            + "<pic:spPr>"
+            + "<a:xfrm><a:off x=\"0\" y=\"0\"/><a:ext cx=\"0\" cy=\"0\"/></a:xfrm>"
+            + "<a:prstGeom prst=\"rect\"><a:avLst/></a:prstGeom>"
+            + "</pic:spPr>"
+            + "</pic:pic>"
+            + "</a:graphicData>"
+            + "</a:graphic>";
+    private static final String INLINE_XML = ""
+            + "<wp:inline distT=\"0\" distB=\"0\" distL=\"0\" distR=\"0\" xmlns:wp=\"" + WP_NS + "\">"
+            + "<wp:extent cx=\"0\" cy=\"0\"/>"
+            + "<wp:docPr id=\"0\" name=\"\" descr=\"\"/>"
+            + GRAPHIC_XML
+            + "</wp:inline>";
+    private static final String ANCHOR_XML = ""
+            + "<wp:anchor distT=\"0\" distB=\"0\" distL=\"114300\" distR=\"114300\" simplePos=\"0\" relativeHeight=\"0\""
+            + " behindDoc=\"0\" locked=\"0\" layoutInCell=\"1\" allowOverlap=\"1\" xmlns:wp=\"" + WP_NS + "\">"
+            + "<wp:simplePos x=\"0\" y=\"0\"/>"
+            + "<wp:positionH relativeFrom=\"column\"><wp:posOffset>0</wp:posOffset></wp:positionH>"
+            + "<wp:positionV relativeFrom=\"paragraph\"><wp:posOffset>0</wp:posOffset></wp:positionV>"
+            + "<wp:extent cx=\"0\" cy=\"0\"/>"
+            + "<wp:effectExtent l=\"0\" t=\"0\" r=\"0\" b=\"0\"/>"
+            + "<wp:wrapNone/>"
+            + "<wp:docPr id=\"0\" name=\"\" descr=\"\"/>"
+            + "<wp:cNvGraphicFramePr/>"
+            + GRAPHIC_XML
+            + "</wp:anchor>";
+
+    /**
+     * 图片内容的SHA-256到关系id
+     */
+    private final Map<String, String> pictureRelations = new HashMap<String, String>();
+    private int nextPictureId = -1;
+    /**
+     * 每个文档各自解析一次，复制时不与其他文档共享 XmlObject
+     */
+    private CTInline inlineTemplate;
+    private CTAnchor anchorTemplate;
+
     public CustomXWPFDocument(InputStream in) throws IOException {
         super(in);
     }
@@ -38,71 +115,237 @@ public class CustomXWPFDocument extends XWPFDocument {
         // TODO Auto-generated constructor stub
     }  // picAttch 图片后面追加的字符串 可以是空格
     public void createPicture(XWPFParagraph paragraph, int id, int width, int height, String picAttch) {
-        final int EMU = 9525;
-        width *= EMU;
-        height *= EMU;
         String blipId = getAllPictures().get(id).getPackageRelationship()
                 .getId();
+        createPicture(paragraph, id, blipId, width, height, picAttch);
+    }
 
-        CTInline inline = paragraph.createRun().getCTR()
-                .addNewDrawing().addNewInline();
-        paragraph.createRun().setText(picAttch);
-        String picXml = ""
-                + "<a:graphic xmlns:a=\"http://schemas.openxmlformats.org/drawingml/2006/main\">"
-                + "   <a:graphicData uri=\"http://schemas.openxmlformats.org/drawingml/2006/picture\">"
-                + "      <pic:pic xmlns:pic=\"http://schemas.openxmlformats.org/drawingml/2006/picture\">"
-                + "         <pic:nvPicPr>" + "            <pic:cNvPr id=\""
-                + id
-                + "\" name=\"Generated\"/>"
-                + "            <pic:cNvPicPr/>"
-                + "         </pic:nvPicPr>"
-                + "         <pic:blipFill>"
-                + "            <a:blip r:embed=\""
-                + blipId
-                + "\" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"/>"
-                + "            <a:stretch>"
-                + "               <a:fillRect/>"
-                + "            </a:stretch>"
-                + "         </pic:blipFill>"
-                + "         <pic:spPr>"
-                + "            <a:xfrm>"
-                + "               <a:off x=\"0\" y=\"0\"/>"
-                + "               <a:ext cx=\""
-                + width
-                + "\" cy=\""
-                + height
-                + "\"/>"
-                + "            </a:xfrm>"
-                + "            <a:prstGeom prst=\"rect\">"
-                + "               <a:avLst/>"
-                + "            </a:prstGeom>"
-                + "         </pic:spPr>"
-                + "      </pic:pic>"
-                + "   </a:graphicData>" + "</a:graphic>";
-
-        // CTGraphicalObjectData graphicData =
-        inline.addNewGraphic().addNewGraphicData();
-        XmlToken xmlToken = null;
+    /**
+     * 添加图片数据，内容相同（SHA-256）的图片在文档中只保存一份，重复添加时返回同一个关系id
+     *
+     * @param data        图片内容
+     * @param pictureType 图片类型，如 {@link #PICTURE_TYPE_PNG}
+     * @return 关系id，用于 {@link #createPicture(XWPFParagraph, String, int, int, String)}
+     * @throws InvalidFormatException
+     */
+    public String addPicture(byte[] data, int pictureType) throws InvalidFormatException {
+        String key = sha256(data);
+        String relationId = pictureRelations.get(key);
+        if (relationId == null) {
+            relationId = addPictureData(data, pictureType);
+            pictureRelations.put(key, relationId);
+        }
+        return relationId;
+    }
+
+    /**
+     * 插入图片，同一图片可多次插入，每次使用不同的图形id
+     *
+     * @param paragraph 段落
+     * @param blipId    {@link #addPicture(byte[], int)} 返回的关系id
+     * @param width     宽（像素）
+     * @param height    高（像素）
+     * @param picAttch  图片后面追加的字符串
+     */
+    public void createPicture(XWPFParagraph paragraph, String blipId, int width, int height, String picAttch) {
+        createPicture(paragraph, nextPictureId(), blipId, width, height, picAttch);
+    }
+
+    private void createPicture(XWPFParagraph paragraph, int id, String blipId, int width, int height, String picAttch) {
+        createInline(paragraph, id, blipId, (long) width * Units.EMU_PER_PIXEL, (long) height * Units.EMU_PER_PIXEL, picAttch);
+    }
+
+    /**
+     * 插入嵌入式图片，尺寸单位为EMU，磅值可用 {@link Units#toEMU(double)} 换算
+     *
+     * @param paragraph 段落
+     * @param blipId    {@link #addPicture(byte[], int)} 返回的关系id
+     * @param cx        宽（EMU）
+     * @param cy        高（EMU）
+     * @param picAttch  图片后面追加的字符串
+     */
+    public void createPictureEmu(XWPFParagraph paragraph, String blipId, long cx, long cy, String picAttch) {
+        createInline(paragraph, nextPictureId(), blipId, cx, cy, picAttch);
+    }
+
+    /**
+     * 插入浮动图片，位置相对于 anchor 中指定的参照物，不占用段落中的位置
+     *
+     * @param paragraph 段落，图片随该段落移动
+     * @param blipId    {@link #addPicture(byte[], int)} 返回的关系id
+     * @param cx        宽（EMU）
+     * @param cy        高（EMU）
+     * @param anchor    位置及环绕方式
+     */
+    public void createAnchoredPicture(XWPFParagraph paragraph, String blipId, long cx, long cy, PictureAnchor anchor) {
+        int id = nextPictureId();
+        CTAnchor ctAnchor = paragraph.createRun().getCTR().addNewDrawing().addNewAnchor();
+        if (anchorTemplate == null) {
+            anchorTemplate = parseTemplate(ANCHOR_XML, CTAnchor.type);
+        }
+        ctAnchor.set(anchorTemplate);
+        ctAnchor.setRelativeHeight(id);
+        ctAnchor.setBehindDoc(anchor.isBehindText());
+        ctAnchor.getExtent().setCx(cx);
+        ctAnchor.getExtent().setCy(cy);
+        setDocPr(ctAnchor.getDocPr(), id);
+        setPicture(ctAnchor.getGraphic(), id, blipId, cx, cy);
+
+        //定位和环绕元素不在精简的 schema 类中，用游标修改
+        XmlCursor cursor = ctAnchor.newCursor();
         try {
-            xmlToken = XmlToken.Factory.parse(picXml);
-        } catch (XmlException xe) {
-            xe.printStackTrace();
+            setPosition(cursor, POSITION_H, anchor.getRelativeFromH(), anchor.getOffsetX());
+            setPosition(cursor, POSITION_V, anchor.getRelativeFromV(), anchor.getOffsetY());
+            if (anchor.isWrapText()) {
+                cursor.toChild(WRAP_NONE);
+                cursor.removeXml();
+                cursor.beginElement(WRAP_SQUARE);
+                cursor.insertAttributeWithValue("wrapText", "bothSides");
+            }
+        } finally {
+            cursor.dispose();
         }
-        inline.set(xmlToken);
-        // graphicData.set(xmlToken);
+    }
 
-        inline.setDistT(0);
-        inline.setDistB(0);
-        inline.setDistL(0);
-        inline.setDistR(0);
+    /**
+     * 复制预先解析的模板，只修改id、关系id和尺寸，不再逐个图片拼接和解析XML
+     */
+    private void createInline(XWPFParagraph paragraph, int id, String blipId, long cx, long cy, String picAttch) {
+        createInline(paragraph.createRun().getCTR(), id, blipId, cx, cy);
+        paragraph.createRun().setText(picAttch);
+    }
 
-        CTPositiveSize2D extent = inline.addNewExtent();
-        extent.setCx(width);
-        extent.setCy(height);
+    /**
+     * 在已有的文本片段中插入嵌入式图片，图片在片段已有内容之后
+     *
+     * @param run    文本片段
+     * @param blipId 图片所在部件（正文或页眉页脚）中的关系id
+     * @param cx     宽（EMU）
+     * @param cy     高（EMU）
+     */
+    void createPicture(CTR run, String blipId, long cx, long cy) {
+        createInline(run, nextPictureId(), blipId, cx, cy);
+    }
+
+    private void createInline(CTR run, int id, String blipId, long cx, long cy) {
+        CTInline inline = run.addNewDrawing().addNewInline();
+        if (inlineTemplate == null) {
+            inlineTemplate = parseTemplate(INLINE_XML, CTInline.type);
+        }
+        inline.set(inlineTemplate);
+        inline.getExtent().setCx(cx);
+        inline.getExtent().setCy(cy);
+        setDocPr(inline.getDocPr(), id);
+        setPicture(inline.getGraphic(), id, blipId, cx, cy);
+    }
 
-        CTNonVisualDrawingProps docPr = inline.addNewDocPr();
+    private static void setDocPr(CTNonVisualDrawingProps docPr, int id) {
         docPr.setId(id);
         docPr.setName("图片" + id);
-        docPr.setDescr("");
+    }
+
+    private static void setPicture(CTGraphicalObject graphic, int id, String blipId, long cx, long cy) {
+        CTPicture picture = (CTPicture) graphic.getGraphicData().selectChildren(PICTURE)[0];
+        picture.getNvPicPr().getCNvPr().setId(id);
+        picture.getBlipFill().getBlip().setEmbed(blipId);
+        CTPositiveSize2D ext = picture.getSpPr().getXfrm().getExt();
+        ext.setCx(cx);
+        ext.setCy(cy);
+    }
+
+    private static void setPosition(XmlCursor cursor, QName position, String relativeFrom, long offset) {
+        cursor.push();
+        cursor.toChild(position);
+        cursor.setAttributeText(RELATIVE_FROM, relativeFrom);
+        cursor.toChild(POS_OFFSET);
+        cursor.setTextValue(String.valueOf(offset));
+        cursor.pop();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends XmlObject> T parseTemplate(String xml, SchemaType type) {
+        try {
+            //以根元素的属性和内容作为模板对象的属性和内容
+            return (T) XmlBeans.getContextTypeLoader().parse(xml, type, new XmlOptions().setLoadReplaceDocumentElement(null));
+        } catch (XmlException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int nextPictureId() {
+        if (nextPictureId < 0) {
+            nextPictureId = maxDrawingId() + 1;
+        }
+        return nextPictureId++;
+    }
+
+    /**
+     * 正文、页眉、页脚中已有图形（wp:docPr）的最大id，没有图形时为0；
+     * 图片数与id无关（同一图片可插入多次，文本框等图形也占用id），不能用图片数作为起始id
+     */
+    private int maxDrawingId() {
+        long max = maxDrawingId(getDocument(), 0);
+        for (XWPFHeader header : getHeaderList()) {
+            max = maxDrawingId(header._getHdrFtr(), max);
+        }
+        for (XWPFFooter footer : getFooterList()) {
+            max = maxDrawingId(footer._getHdrFtr(), max);
+        }
+        return (int) Math.min(max, Integer.MAX_VALUE - 1);
+    }
+
+    private static long maxDrawingId(XmlObject xml, long max) {
+        for (XmlObject docPr : xml.selectPath("declare namespace wp='" + WP_NS + "' .//wp:docPr")) {
+            XmlCursor cursor = docPr.newCursor();
+            try {
+                String id = cursor.getAttributeText(ID);
+                if (id != null) {
+                    max = Math.max(max, Long.parseLong(id.trim()));
+                }
+            } catch (NumberFormatException e) {
+                //id无效时忽略
+            } finally {
+                cursor.dispose();
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 在文档末尾创建表格，先由 {@link Filler} 直接填充 CTTbl，填充完后再创建 XWPFTable，
+     * 避免逐行通过 XWPF 对象追加；填充失败时移除已添加的表格
+     *
+     * @param filler 填充表格的内容（tblPr、tblGrid、tr），至少需要一行
+     * @return 表格
+     */
+    XWPFTable createTable(Filler filler) {
+        CTTbl ctTbl = getDocument().getBody().addNewTbl();
+        try {
+            filler.fill(ctTbl);
+        } catch (RuntimeException e) {
+            getDocument().getBody().removeTbl(getDocument().getBody().sizeOfTblArray() - 1);
+            throw e;
+        }
+        XWPFTable table = new XWPFTable(ctTbl, this);
+        bodyElements.add(table);
+        tables.add(table);
+        return table;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface Filler {
+        void fill(CTTbl ctTbl);
     }
 }
@@ -0,0 +1,23 @@
+package com.carroll.office;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * 批量生成时为每个文档提供输出流，可能在多个线程中同时调用
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public interface DocumentSink {
+
+    /**
+     * 打开一个文档的输出流，写完后由调用方关闭
+     *
+     * @param index 文档序号，从0开始，与数据的顺序一致
+     * @param data  该文档的数据
+     * @return 输出流
+     */
+    OutputStream open(long index, Map<String, ?> data) throws IOException;
+}
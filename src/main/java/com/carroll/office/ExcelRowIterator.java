@@ -0,0 +1,105 @@
+package com.carroll.office;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按需解析的行迭代器，每次只解析到下一行，读完或关闭后释放文件资源
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class ExcelRowIterator implements Iterator<List<Object>>, Closeable {
+
+    private final ArrayDeque<Object[]> pending = new ArrayDeque<Object[]>();
+    private ExcelRowReader reader;
+    private boolean finished;
+    private int sheetIndex = -1;
+    private int rowIndex = -1;
+
+    ExcelRowIterator() {
+    }
+
+    /**
+     * 行接收者，取值规则与 {@link ExcelUtils#getCellValue(org.apache.poi.ss.usermodel.Cell, DecimalFormat)} 一致
+     */
+    RowSink sink(DecimalFormat df) {
+        final DecimalFormat format = df != null ? df : new DecimalFormat("0");
+        return new RowSink() {
+            @Override
+            public void accept(int sheetIndex, RawRow row) {
+                pending.add(new Object[]{sheetIndex, row.getRowIndex(), row.toValues(format)});
+            }
+        };
+    }
+
+    void setReader(ExcelRowReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (pending.isEmpty() && !finished) {
+                finished = !reader.step();
+            }
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        } catch (Exception e) {
+            closeQuietly();
+            throw new IllegalStateException("读取Excel出错", e);
+        }
+        if (pending.isEmpty()) {
+            closeQuietly();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] entry = pending.poll();
+        sheetIndex = (Integer) entry[0];
+        rowIndex = (Integer) entry[1];
+        return (List<Object>) entry[2];
+    }
+
+    /**
+     * @return 最近一次 {@link #next()} 返回的行所在的sheet索引
+     */
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    /**
+     * @return 最近一次 {@link #next()} 返回的行索引
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        pending.clear();
+        reader.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            //ignore
+        }
+    }
+}
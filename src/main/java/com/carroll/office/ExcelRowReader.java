@@ -0,0 +1,19 @@
+package com.carroll.office;
+
+import java.io.Closeable;
+
+/**
+ * 按需推进的流式读取器，每次推进解析一部分数据，解析出的行交给 {@link RowSink}
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+interface ExcelRowReader extends Closeable {
+
+    /**
+     * 推进读取
+     *
+     * @return false 表示已读完
+     */
+    boolean step() throws Exception;
+}
@@ -1,18 +1,35 @@
 package com.carroll.office;
 
+import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Excel工具类
@@ -20,11 +37,13 @@ import java.util.List;
  * @author: carroll.he
  * @date 2020/5/22
  **/
+@Slf4j
 public class ExcelUtils {
 
-    private static final String YMD_DATE_FORMAT = "yyyy-MM-dd";
-    private final static String excel2003L = ".xls";    //2003- 版本的excel
-    private final static String excel2007U = ".xlsx";   //2007+ 版本的excel
+    final static String excel2003L = ".xls";    //2003- 版本的excel
+    final static String excel2007U = ".xlsx";   //2007+ 版本的excel
+    private static final byte[] OLE2_MAGIC = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+    private static final byte[] ZIP_MAGIC = {0x50, 0x4B, 0x03, 0x04};
 
     /**
      * 描述：获取IO流中的数据，组装成List<List<Object>>对象
@@ -35,15 +54,22 @@ public class ExcelUtils {
      */
     public static List<List<Object>> getListDataFromExcel(InputStream in, String fileName) throws Exception {
         List<List<Object>> list = null;
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.READ);
 
         //创建Excel工作薄
         Workbook work = getWorkbook(in, fileName);
         if (null == work) {
             throw new OfficeException("7002", "文件格式有误");
         }
+        if (metrics != null) {
+            metrics.opened(-1);
+        }
         Sheet sheet = null;
         Row row = null;
         Cell cell = null;
+        CellDecoder decoder = CellDecoder.DEFAULT;
+        DecimalFormat numberFormat = new DecimalFormat("0");
+        byte[] styleCache = new byte[work.getNumCellStyles()];
 
         list = new ArrayList<List<Object>>();
         //遍历Excel中所有的sheet
@@ -52,6 +78,9 @@ public class ExcelUtils {
             if (sheet == null) {
                 continue;
             }
+            if (metrics != null) {
+                metrics.sheetStart(i, sheet.getSheetName());
+            }
 
             //遍历当前sheet中的所有行
             for (int j = sheet.getFirstRowNum(); j < sheet.getLastRowNum(); j++) {
@@ -64,31 +93,125 @@ public class ExcelUtils {
                 List<Object> li = new ArrayList<Object>();
                 for (int y = row.getFirstCellNum(); y < row.getLastCellNum(); y++) {
                     cell = row.getCell(y);
-                    li.add(getCellValue(cell));
+                    li.add(decoder.decode(cell, numberFormat, styleCache));
                 }
                 list.add(li);
+                if (metrics != null) {
+                    metrics.row(li.size());
+                }
             }
         }
+        if (metrics != null) {
+            metrics.sheetDone();
+        }
         work.close();
         return list;
     }
 
     public static List<List<Object>> getListDataFromExcel(InputStream in, String fileName, int sheetIdx, int startRowIndex) throws Exception {
-        List<List<Object>> list = null;
+        return getListDataFromExcel(in, fileName, sheetIdx, startRowIndex, null);
+    }
 
+    public static List<List<Object>> getListDataFromExcel(InputStream in, String fileName, int sheetIdx, int startRowIndex, DecimalFormat df) throws Exception {
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.READ);
         //创建Excel工作薄
         Workbook work = getWorkbook(in, fileName);
         if (null == work) {
             throw new OfficeException("7002", "文件格式有误");
         }
+        if (metrics != null) {
+            metrics.opened(-1);
+        }
+        return readSheet(work, sheetIdx, startRowIndex, df, metrics);
+    }
+
+    /**
+     * 描述：在内存预算内读取数据：预计DOM读取的内存在预算内时与 {@link #getListDataFromExcel(InputStream, String, int, int, DecimalFormat)} 相同，
+     * 超出时改用流式读取（取值规则不变），流式读取也超出时抛出 {@link OfficeException}（7005）
+     * <p>
+     * 输入流先写入临时文件，以随机访问方式读取，读取结束后删除
+     *
+     * @param in            输入流
+     * @param fileName      文件名，用于临时文件的后缀
+     * @param sheetIdx      sheet索引
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param df            数字格式化，为null时使用"0"
+     * @param budget        内存预算
+     * @return
+     * @throws Exception
+     */
+    public static List<List<Object>> getListDataFromExcel(InputStream in, String fileName, int sheetIdx, int startRowIndex, DecimalFormat df, MemoryBudget budget) throws Exception {
+        Path temp = Files.createTempFile("carroll-office", fileName != null && fileName.lastIndexOf(".") >= 0 ? fileName.substring(fileName.lastIndexOf(".")) : null);
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            return getListDataFromExcel(temp.toFile(), sheetIdx, startRowIndex, df, budget);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static List<List<Object>> getListDataFromExcel(File file, int sheetIdx, int startRowIndex, DecimalFormat df, MemoryBudget budget) throws Exception {
+        MemoryDecision decision = checkMemory(file, budget);
+        if (decision.getMode() == ReadMode.DOM) {
+            MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.READ);
+            Workbook work = getWorkbook(file);
+            if (metrics != null) {
+                metrics.opened(file.length());
+            }
+            return readSheet(work, sheetIdx, startRowIndex, df, metrics);
+        }
+        final List<List<Object>> list = new ArrayList<List<Object>>();
+        readExcel(file, sheetIdx, startRowIndex, df, new RowHandler() {
+            @Override
+            public void handle(int sheetIndex, int rowIndex, List<Object> rowData) {
+                list.add(rowData);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 描述：按内存预算检查文件，只读取元数据，决策回调给预算中的监听器并记录日志
+     *
+     * @param file   文件
+     * @param budget 内存预算
+     * @return 决策，不会是 {@link ReadMode#REJECT}
+     * @throws OfficeException 流式读取也超出预算时抛出（7005）
+     */
+    public static MemoryDecision checkMemory(File file, MemoryBudget budget) throws Exception {
+        MemoryDecision decision = budget.decide(probe(file));
+        if (decision.getMode() == ReadMode.DOM) {
+            log.debug("Memory check for {}: {}", file.getName(), decision);
+        } else if (decision.getMode() == ReadMode.STREAMING) {
+            log.info("Memory check for {}: {}", file.getName(), decision);
+        } else {
+            log.warn("Memory check for {}: {}", file.getName(), decision);
+        }
+        if (budget.getListener() != null) {
+            budget.getListener().onDecision(decision);
+        }
+        if (decision.getMode() == ReadMode.REJECT) {
+            throw new OfficeException("7005", "文件过大，超出内存限制");
+        }
+        return decision;
+    }
+
+    private static List<List<Object>> readSheet(Workbook work, int sheetIdx, int startRowIndex, DecimalFormat df, MetricsRecorder metrics) throws IOException {
+        List<List<Object>> list = null;
         Sheet sheet = null;
         Row row = null;
         Cell cell = null;
+        CellDecoder decoder = CellDecoder.DEFAULT;
+        DecimalFormat numberFormat = df != null ? df : new DecimalFormat("0");
+        byte[] styleCache = new byte[work.getNumCellStyles()];
 
         list = new ArrayList<List<Object>>();
 
         sheet = work.getSheetAt(sheetIdx);
         if (sheet != null) {
+            if (metrics != null) {
+                metrics.sheetStart(sheetIdx, sheet.getSheetName());
+            }
             //遍历当前sheet中的所有行
             for (int j = sheet.getFirstRowNum() + startRowIndex; j <= sheet.getLastRowNum(); j++) {
                 row = sheet.getRow(j);
@@ -101,9 +224,15 @@ public class ExcelUtils {
                 List<Object> li = new ArrayList<Object>();
                 for (int y = row.getFirstCellNum(); y < row.getLastCellNum(); y++) {
                     cell = row.getCell(y);
-                    li.add(getCellValue(cell));
+                    li.add(decoder.decode(cell, numberFormat, styleCache));
                 }
                 list.add(li);
+                if (metrics != null) {
+                    metrics.row(li.size());
+                }
+            }
+            if (metrics != null) {
+                metrics.sheetDone();
             }
         }
 
@@ -111,46 +240,460 @@ public class ExcelUtils {
         return list;
     }
 
-    public static List<List<Object>> getListDataFromExcel(InputStream in, String fileName, int sheetIdx, int startRowIndex, DecimalFormat df) throws Exception {
-        List<List<Object>> list = null;
+    /**
+     * 描述：流式读取所有sheet中的数据，每读取一行回调一次，不在内存中保留整个工作薄
+     *
+     * @param in       输入流
+     * @param fileName 文件名，用于判断文件版本
+     * @param handler  行回调
+     * @throws Exception
+     */
+    public static void readExcel(InputStream in, String fileName, RowHandler handler) throws Exception {
+        readExcel(in, fileName, -1, 0, null, handler);
+    }
 
-        //创建Excel工作薄
-        Workbook work = getWorkbook(in, fileName);
-        if (null == work) {
+    public static void readExcel(InputStream in, String fileName, int sheetIdx, int startRowIndex, RowHandler handler) throws Exception {
+        readExcel(in, fileName, sheetIdx, startRowIndex, null, handler);
+    }
+
+    /**
+     * 描述：流式读取指定sheet中的数据，取值规则与 {@link #getListDataFromExcel(InputStream, String, int, int, DecimalFormat)} 一致
+     *
+     * @param in            输入流
+     * @param fileName      文件名，用于判断文件版本
+     * @param sheetIdx      sheet索引，小于0时读取所有sheet
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param df            数字格式化，为null时使用"0"
+     * @param handler       行回调
+     * @throws Exception
+     */
+    public static void readExcel(InputStream in, String fileName, int sheetIdx, int startRowIndex, DecimalFormat df, RowHandler handler) throws Exception {
+        drain(openReader(in, fileName, sheetIdx, startRowIndex, handlerSink(df, handler)));
+    }
+
+    /**
+     * 描述：流式读取文件中指定sheet的数据，根据文件头判断文件版本，以随机访问方式读取文件
+     *
+     * @param file          文件
+     * @param sheetIdx      sheet索引，小于0时读取所有sheet
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param df            数字格式化，为null时使用"0"
+     * @param handler       行回调
+     * @throws Exception
+     */
+    public static void readExcel(File file, int sheetIdx, int startRowIndex, DecimalFormat df, RowHandler handler) throws Exception {
+        drain(openReader(file, sheetIdx, startRowIndex, handlerSink(df, handler)));
+    }
+
+    /**
+     * 描述：按读取选项流式读取，只解析投影的列和行范围内的行，行范围读完即停止解析
+     *
+     * @param in       输入流
+     * @param fileName 文件名，文件头无法识别时用于判断文件版本
+     * @param options  读取选项
+     * @param handler  行回调，按列投影时行数据按投影顺序排列，缺失的单元格为null
+     * @throws Exception
+     */
+    public static void readExcel(InputStream in, String fileName, ReadOptions options, RowHandler handler) throws Exception {
+        checkSheetIndex(options.getSheetIndex());
+        ReadFilter filter = ProjectingSink.createFilter(options);
+        drain(openReader(in, fileName, options.getSheetIndex(), filter, new ProjectingSink(options, filter, handler)));
+    }
+
+    public static void readExcel(File file, ReadOptions options, RowHandler handler) throws Exception {
+        checkSheetIndex(options.getSheetIndex());
+        ReadFilter filter = ProjectingSink.createFilter(options);
+        drain(openReader(file, options.getSheetIndex(), filter, new ProjectingSink(options, filter, handler)));
+    }
+
+    private static RowSink handlerSink(DecimalFormat df, final RowHandler handler) {
+        final DecimalFormat format = df != null ? df : new DecimalFormat("0");
+        return new RowSink() {
+            @Override
+            public void accept(int sheetIndex, RawRow row) throws Exception {
+                handler.handle(sheetIndex, row.getRowIndex(), row.toValues(format));
+            }
+        };
+    }
+
+    /**
+     * 读取到结束，行在 step 中交给接收者，结束后关闭读取器
+     */
+    private static void drain(ExcelRowReader reader) throws Exception {
+        try {
+            while (reader.step()) {
+                //行在step中交给接收者
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 描述：以列式结构读取指定sheet，各列类型自动推断，适合数值为主的大表
+     *
+     * @param in            输入流
+     * @param fileName      文件名，用于判断文件版本
+     * @param sheetIdx      sheet索引
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @return 列式读取结果
+     * @throws Exception
+     */
+    public static ColumnarResult readColumns(InputStream in, String fileName, int sheetIdx, int startRowIndex) throws Exception {
+        return readColumns(in, fileName, sheetIdx, startRowIndex, null);
+    }
+
+    /**
+     * 描述：以列式结构读取指定sheet，数值保存在基本类型数组中，文本字典编码，解析时直接写入列，不创建行对象
+     *
+     * @param in            输入流
+     * @param fileName      文件名，用于判断文件版本
+     * @param sheetIdx      sheet索引
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param schema        各列类型，为null或某列为null时自动推断；数据无法转换为声明类型时抛出 OfficeException
+     * @return 列式读取结果
+     * @throws Exception
+     */
+    public static ColumnarResult readColumns(InputStream in, String fileName, int sheetIdx, int startRowIndex, ColumnType[] schema) throws Exception {
+        checkSheetIndex(sheetIdx);
+        ColumnarBuilder builder = new ColumnarBuilder(schema);
+        drain(openReader(in, fileName, sheetIdx, startRowIndex, builder));
+        return builder.build();
+    }
+
+    /**
+     * 描述：以列式结构读取文件中指定sheet，根据文件头判断文件版本，以随机访问方式读取文件
+     *
+     * @param file          文件
+     * @param sheetIdx      sheet索引
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param schema        各列类型，为null或某列为null时自动推断
+     * @return 列式读取结果
+     * @throws Exception
+     */
+    public static ColumnarResult readColumns(File file, int sheetIdx, int startRowIndex, ColumnType[] schema) throws Exception {
+        checkSheetIndex(sheetIdx);
+        ColumnarBuilder builder = new ColumnarBuilder(schema);
+        drain(openReader(file, sheetIdx, startRowIndex, builder));
+        return builder.build();
+    }
+
+    private static void checkSheetIndex(int sheetIdx) {
+        if (sheetIdx < 0) {
+            throw new IllegalArgumentException("Sheet index (" + sheetIdx + ") must not be negative");
+        }
+    }
+
+    /**
+     * 描述：并行读取所有sheet中的数据，.xlsx 的各sheet在执行器中并行解析，.xls 顺序读取
+     * <p>
+     * 每个sheet的取值规则与 {@link #getListDataFromExcel(InputStream, String, int, int, DecimalFormat)} 一致
+     *
+     * @param file          文件
+     * @param startRowIndex 相对于每个sheet第一行的起始行
+     * @param df            数字格式化，为null时使用"0"
+     * @param executor      执行器，如 ForkJoinPool.commonPool()；可以是有界的，调用线程也可以是该执行器的线程，未执行的sheet由调用线程解析
+     * @return 按sheet顺序排列的各sheet数据
+     * @throws Exception
+     */
+    public static List<List<List<Object>>> readSheetsParallel(File file, int startRowIndex, DecimalFormat df, Executor executor) throws Exception {
+        String fileType = detectFileType(file);
+        if (excel2007U.equals(fileType)) {
+            OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                return ParallelSheetReader.read(pkg, startRowIndex, df, executor, startRead(file.length()));
+            } finally {
+                pkg.revert();
+            }
+        } else if (excel2003L.equals(fileType)) {
+            NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true);
+            try {
+                return ParallelSheetReader.read(fs, startRowIndex, df, startRead(file.length()));
+            } finally {
+                fs.close();
+            }
+        } else {
             throw new OfficeException("7002", "文件格式有误");
         }
-        Sheet sheet = null;
-        Row row = null;
-        Cell cell = null;
+    }
 
-        list = new ArrayList<List<Object>>();
+    public static List<List<List<Object>>> readSheetsParallel(InputStream in, String fileName, int startRowIndex, DecimalFormat df, Executor executor) throws Exception {
+        in = markable(in);
+        String fileType = detectFileType(in, fileName);
+        if (excel2007U.equals(fileType)) {
+            OPCPackage pkg = OPCPackage.open(in);
+            try {
+                return ParallelSheetReader.read(pkg, startRowIndex, df, executor, startRead(-1));
+            } finally {
+                pkg.revert();
+            }
+        } else if (excel2003L.equals(fileType)) {
+            NPOIFSFileSystem fs = new NPOIFSFileSystem(in);
+            try {
+                return ParallelSheetReader.read(fs, startRowIndex, df, startRead(-1));
+            } finally {
+                fs.close();
+            }
+        } else {
+            throw new OfficeException("7002", "文件格式有误");
+        }
+    }
 
-        sheet = work.getSheetAt(sheetIdx);
-        if (sheet != null) {
-            //遍历当前sheet中的所有行
-            for (int j = sheet.getFirstRowNum() + startRowIndex; j <= sheet.getLastRowNum(); j++) {
-                row = sheet.getRow(j);
-                if (row == null) {
-                    continue;
-                }
-//                if(row==null||row.getFirstCellNum()==j){continue;}
+    /**
+     * 描述：按需读取所有sheet中的数据，调用方每取一行才解析一行，读完或关闭迭代器时释放资源
+     *
+     * @param in       输入流
+     * @param fileName 文件名，用于判断文件版本
+     * @return 行迭代器，未读完时需调用 close
+     * @throws Exception
+     */
+    public static ExcelRowIterator iterator(InputStream in, String fileName) throws Exception {
+        return iterator(in, fileName, -1, 0, null);
+    }
 
-                //遍历所有的列
-                List<Object> li = new ArrayList<Object>();
-                for (int y = row.getFirstCellNum(); y < row.getLastCellNum(); y++) {
-                    cell = row.getCell(y);
-                    li.add(getCellValue(cell, df));
-                }
-                list.add(li);
+    public static ExcelRowIterator iterator(InputStream in, String fileName, int sheetIdx, int startRowIndex) throws Exception {
+        return iterator(in, fileName, sheetIdx, startRowIndex, null);
+    }
+
+    /**
+     * 描述：按需读取指定sheet中的数据，取值规则与 {@link #getListDataFromExcel(InputStream, String, int, int, DecimalFormat)} 一致
+     *
+     * @param in            输入流
+     * @param fileName      文件名，用于判断文件版本
+     * @param sheetIdx      sheet索引，小于0时读取所有sheet
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param df            数字格式化，为null时使用"0"
+     * @return 行迭代器，未读完时需调用 close
+     * @throws Exception
+     */
+    public static ExcelRowIterator iterator(InputStream in, String fileName, int sheetIdx, int startRowIndex, DecimalFormat df) throws Exception {
+        ExcelRowIterator it = new ExcelRowIterator();
+        it.setReader(openReader(in, fileName, sheetIdx, startRowIndex, it.sink(df)));
+        return it;
+    }
+
+    /**
+     * 描述：按需读取文件中指定sheet的数据，根据文件头判断文件版本，以随机访问方式读取文件
+     *
+     * @param file          文件
+     * @param sheetIdx      sheet索引，小于0时读取所有sheet
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param df            数字格式化，为null时使用"0"
+     * @return 行迭代器，未读完时需调用 close
+     * @throws Exception
+     */
+    public static ExcelRowIterator iterator(File file, int sheetIdx, int startRowIndex, DecimalFormat df) throws Exception {
+        ExcelRowIterator it = new ExcelRowIterator();
+        it.setReader(openReader(file, sheetIdx, startRowIndex, it.sink(df)));
+        return it;
+    }
+
+    /**
+     * 描述：以 Stream 形式按需读取所有sheet中的数据，需在 try-with-resources 中使用以保证资源释放
+     *
+     * @param in       输入流
+     * @param fileName 文件名，用于判断文件版本
+     * @return 行流
+     * @throws Exception
+     */
+    public static Stream<List<Object>> stream(InputStream in, String fileName) throws Exception {
+        return stream(in, fileName, -1, 0, null);
+    }
+
+    public static Stream<List<Object>> stream(InputStream in, String fileName, int sheetIdx, int startRowIndex) throws Exception {
+        return stream(in, fileName, sheetIdx, startRowIndex, null);
+    }
+
+    public static Stream<List<Object>> stream(InputStream in, String fileName, int sheetIdx, int startRowIndex, DecimalFormat df) throws Exception {
+        final ExcelRowIterator it = iterator(in, fileName, sheetIdx, startRowIndex, df);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            it.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 根据文件头（无法识别时根据文件后缀）打开按需拉取的行读取器，读取器关闭时一并释放底层文件
+     */
+    private static ExcelRowReader openReader(InputStream in, String fileName, int sheetIdx, int startRowIndex, RowSink sink) throws Exception {
+        return openReader(in, fileName, sheetIdx, ReadFilter.fromRow(startRowIndex), sink);
+    }
+
+    private static ExcelRowReader openReader(InputStream in, String fileName, int sheetIdx, ReadFilter filter, RowSink sink) throws Exception {
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.READ);
+        if (metrics != null) {
+            sink = metrics.sink(sink);
+        }
+        in = markable(in);
+        String fileType = detectFileType(in, fileName);
+        ExcelRowReader reader;
+        if (excel2007U.equals(fileType)) {
+            reader = openReader(OPCPackage.open(in), sheetIdx, filter, sink);
+        } else if (excel2003L.equals(fileType)) {
+            reader = openReader(new NPOIFSFileSystem(in), sheetIdx, filter, sink);
+        } else {
+            throw new OfficeException("7002", "文件格式有误");
+        }
+        return metered(reader, metrics, -1);
+    }
+
+    /**
+     * 根据文件头打开按需拉取的行读取器，以随机访问方式读取文件，不把整个文件缓存到内存
+     */
+    private static ExcelRowReader openReader(File file, int sheetIdx, int startRowIndex, RowSink sink) throws Exception {
+        return openReader(file, sheetIdx, ReadFilter.fromRow(startRowIndex), sink);
+    }
+
+    private static ExcelRowReader openReader(File file, int sheetIdx, ReadFilter filter, RowSink sink) throws Exception {
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.READ);
+        if (metrics != null) {
+            sink = metrics.sink(sink);
+        }
+        String fileType = detectFileType(file);
+        ExcelRowReader reader;
+        if (excel2007U.equals(fileType)) {
+            reader = openReader(OPCPackage.open(file, PackageAccess.READ), sheetIdx, filter, sink);
+        } else if (excel2003L.equals(fileType)) {
+            reader = openReader(new NPOIFSFileSystem(file, true), sheetIdx, filter, sink);
+        } else {
+            throw new OfficeException("7002", "文件格式有误");
+        }
+        return metered(reader, metrics, file.length());
+    }
+
+    /**
+     * 开启监控时记录工作薄已打开
+     *
+     * @param bytes 文件大小，未知时为-1
+     */
+    private static MetricsRecorder startRead(long bytes) {
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.READ);
+        if (metrics != null) {
+            metrics.opened(bytes);
+        }
+        return metrics;
+    }
+
+    /**
+     * 开启监控时回调打开阶段，并在读完或关闭时结束最后一个sheet
+     */
+    private static ExcelRowReader metered(ExcelRowReader reader, MetricsRecorder metrics, long bytes) {
+        if (metrics == null) {
+            return reader;
+        }
+        metrics.opened(bytes);
+        return metrics.reader(reader);
+    }
+
+    private static ExcelRowReader openReader(final OPCPackage pkg, int sheetIdx, ReadFilter filter, RowSink sink) throws Exception {
+        Closeable revert = new Closeable() {
+            @Override
+            public void close() {
+                pkg.revert();
             }
+        };
+        try {
+            return new XSSFStreamingReader(pkg, revert, sheetIdx, filter, sink);
+        } catch (Exception e) {
+            pkg.revert();
+            throw e;
         }
+    }
 
-        work.close();
+    private static ExcelRowReader openReader(NPOIFSFileSystem fs, int sheetIdx, ReadFilter filter, RowSink sink) throws Exception {
+        try {
+            return new HSSFEventReader(fs.getRoot(), fs, sheetIdx, filter, sink);
+        } catch (Exception e) {
+            fs.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 描述：按读取选项读取数据，只解析投影的列和行范围内的行，取值规则与 {@link #getListDataFromExcel(InputStream, String, int, int, DecimalFormat)} 一致
+     *
+     * @param in       输入流
+     * @param fileName 文件名，文件头无法识别时用于判断文件版本
+     * @param options  读取选项
+     * @return
+     * @throws Exception
+     */
+    public static List<List<Object>> getListDataFromExcel(InputStream in, String fileName, ReadOptions options) throws Exception {
+        final List<List<Object>> list = new ArrayList<List<Object>>();
+        readExcel(in, fileName, options, new RowHandler() {
+            @Override
+            public void handle(int sheetIndex, int rowIndex, List<Object> rowData) {
+                list.add(rowData);
+            }
+        });
         return list;
     }
 
+    public static List<List<Object>> getListDataFromExcel(File file, ReadOptions options) throws Exception {
+        final List<List<Object>> list = new ArrayList<List<Object>>();
+        readExcel(file, options, new RowHandler() {
+            @Override
+            public void handle(int sheetIndex, int rowIndex, List<Object> rowData) {
+                list.add(rowData);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 描述：读取工作薄元数据（sheet名称、已用区域、sheet数据大小），不解析单元格，适合上传时做配额检查和进度估算
+     * <p>
+     * .xlsx 只读取 workbook.xml 和各sheet XML开头的 &lt;dimension&gt; 元素，.xls 只读取 BOUNDSHEET 和 DIMENSIONS 记录
+     *
+     * @param file 文件
+     * @return
+     * @throws Exception
+     */
+    public static WorkbookInfo probe(File file) throws Exception {
+        String fileType = detectFileType(file);
+        if (excel2007U.equals(fileType)) {
+            return WorkbookProbe.probeXlsx(file);
+        } else if (excel2003L.equals(fileType)) {
+            NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true);
+            try {
+                return WorkbookProbe.probeXls(fs, file.length());
+            } finally {
+                fs.close();
+            }
+        } else {
+            throw new OfficeException("7002", "文件格式有误");
+        }
+    }
+
+    /**
+     * 描述：从输入流读取工作薄元数据，.xlsx 顺序读取zip条目并跳过sheet数据，.xls 需先把整个文件读入内存
+     *
+     * @param in       输入流
+     * @param fileName 文件名，文件头无法识别时用于判断文件版本
+     * @return
+     * @throws Exception
+     */
+    public static WorkbookInfo probe(InputStream in, String fileName) throws Exception {
+        in = markable(in);
+        String fileType = detectFileType(in, fileName);
+        if (excel2007U.equals(fileType)) {
+            return WorkbookProbe.probeXlsx(in);
+        } else if (excel2003L.equals(fileType)) {
+            return WorkbookProbe.probeXls(in);
+        } else {
+            throw new OfficeException("7002", "文件格式有误");
+        }
+    }
+
     /**
-     * 描述：根据文件后缀，自适应上传文件的版本
+     * 描述：根据文件头自适应文件版本，文件头无法识别时根据文件后缀判断，避免后缀名与内容不符时解析失败
      *
      * @param inStr,fileName
      * @return
@@ -158,10 +701,11 @@ public class ExcelUtils {
      */
     public static Workbook getWorkbook(InputStream inStr, String fileName) throws Exception {
         Workbook wb = null;
-        String fileType = fileName.substring(fileName.lastIndexOf("."));
-        if (excel2003L.equalsIgnoreCase(fileType)) {
+        inStr = markable(inStr);
+        String fileType = detectFileType(inStr, fileName);
+        if (excel2003L.equals(fileType)) {
             wb = new HSSFWorkbook(inStr);  //2003-
-        } else if (excel2007U.equalsIgnoreCase(fileType)) {
+        } else if (excel2007U.equals(fileType)) {
             wb = new XSSFWorkbook(inStr);  //2007+
         } else {
             throw new OfficeException("7002", "文件格式有误");
@@ -170,65 +714,148 @@ public class ExcelUtils {
     }
 
     /**
-     * 描述：对表格中数值进行格式化
+     * 描述：根据文件头打开工作薄，以随机访问方式读取文件，不把整个文件缓存到内存，适合已落盘的上传文件
+     * <p>
+     * 工作薄以只读方式打开，使用完毕后需调用 close 释放文件
      *
-     * @param cell
+     * @param file 文件
      * @return
+     * @throws Exception
      */
-    public static Object getCellValue(Cell cell) {
-        return getCellValue(cell, null);
+    public static Workbook getWorkbook(File file) throws Exception {
+        String fileType = detectFileType(file);
+        if (excel2003L.equals(fileType)) {
+            NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true);
+            try {
+                return new HSSFWorkbook(fs.getRoot(), true);
+            } catch (Exception e) {
+                fs.close();
+                throw e;
+            }
+        } else if (excel2007U.equals(fileType)) {
+            OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                return new XSSFWorkbook(pkg);
+            } catch (Exception e) {
+                pkg.revert();
+                throw e;
+            }
+        } else {
+            throw new OfficeException("7002", "文件格式有误");
+        }
     }
 
-    public static Object getCellValue(Cell cell, DecimalFormat df) {
-        Object value = null;
-        if (df == null) {
-            df = new DecimalFormat("0");  //格式化number String字符
-        }
-//        SimpleDateFormat sdf = new SimpleDateFormat("yyy-MM-dd");  //日期格式化
-        if (cell == null) {
-            return null;
-        }
-        switch (cell.getCellType()) {
-            case Cell.CELL_TYPE_STRING:
-                value = cell.getRichStringCellValue().getString();
-                break;
-            case Cell.CELL_TYPE_NUMERIC:
-                if ("General".equals(cell.getCellStyle().getDataFormatString())) {
-                    value = df.format(cell.getNumericCellValue());
-                } else if ("m/d/yy".equals(cell.getCellStyle().getDataFormatString())) {
-                    value = getStrDateFormat(cell.getDateCellValue(), YMD_DATE_FORMAT);
-                } else {
-//                    value = df2.format(cell.getNumericCellValue());
-                    value = cell.getNumericCellValue();
+    public static Workbook getWorkbook(Path path) throws Exception {
+        return getWorkbook(path.toFile());
+    }
+
+    /**
+     * 描述：在内存预算内打开工作薄，预计内存超出DOM读取的预算时抛出 {@link OfficeException}（7005），应改用流式读取
+     *
+     * @param file   文件
+     * @param budget 内存预算
+     * @return
+     * @throws Exception
+     */
+    public static Workbook getWorkbook(File file, MemoryBudget budget) throws Exception {
+        if (checkMemory(file, budget).getMode() != ReadMode.DOM) {
+            throw new OfficeException("7005", "文件过大，无法整体加载，请使用流式读取");
+        }
+        return getWorkbook(file);
+    }
+
+    /**
+     * 根据文件头判断文件版本：OLE2（D0 CF 11 E0 A1 B1 1A E1）为 .xls，zip（50 4B 03 04）为 .xlsx，
+     * 无法识别时根据文件后缀判断
+     *
+     * @param in 支持 mark/reset 的输入流
+     */
+    private static String detectFileType(InputStream in, String fileName) throws IOException {
+        byte[] header = new byte[8];
+        in.mark(header.length);
+        int n = 0;
+        try {
+            while (n < header.length) {
+                int read = in.read(header, n, header.length - n);
+                if (read < 0) {
+                    break;
                 }
-                break;
-            case Cell.CELL_TYPE_BOOLEAN:
-                value = cell.getBooleanCellValue();
-                break;
-            case Cell.CELL_TYPE_BLANK:
-                value = "";
-                break;
-            case Cell.CELL_TYPE_FORMULA:
-//                value = df.format(cell.getNumericCellValue());
-                if ("General".equals(cell.getCellStyle().getDataFormatString())) {
-                    value = df.format(cell.getNumericCellValue());
-                } else if ("m/d/yy".equals(cell.getCellStyle().getDataFormatString())) {
-                    value = getStrDateFormat(cell.getDateCellValue(), YMD_DATE_FORMAT);
-                } else {
-//                    value = df2.format(cell.getNumericCellValue());
-                    value = cell.getNumericCellValue();
+                n += read;
+            }
+        } finally {
+            in.reset();
+        }
+        String fileType = detectFileType(header, n);
+        if (fileType == null && fileName != null && fileName.lastIndexOf(".") >= 0) {
+            String suffix = fileName.substring(fileName.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+            if (excel2003L.equals(suffix) || excel2007U.equals(suffix)) {
+                fileType = suffix;
+            }
+        }
+        return fileType;
+    }
+
+    private static String detectFileType(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] header = new byte[8];
+            int n = 0;
+            while (n < header.length) {
+                int read = in.read(header, n, header.length - n);
+                if (read < 0) {
+                    break;
                 }
-                break;
-            default:
-                break;
+                n += read;
+            }
+            return detectFileType(header, n);
+        } finally {
+            in.close();
         }
-        return value;
     }
 
-    private static String getStrDateFormat(Date date, String format) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(format);
-        return null != date ? dateFormat.format(date) : "";
+    private static String detectFileType(byte[] header, int length) {
+        if (length >= OLE2_MAGIC.length && startsWith(header, OLE2_MAGIC)) {
+            return excel2003L;
+        } else if (length >= ZIP_MAGIC.length && startsWith(header, ZIP_MAGIC)) {
+            return excel2007U;
+        }
+        return null;
     }
 
+    private static boolean startsWith(byte[] header, byte[] magic) {
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    private static InputStream markable(InputStream in) {
+        return in.markSupported() ? in : new BufferedInputStream(in);
+    }
+
+    /**
+     * 描述：对表格中数值进行格式化
+     *
+     * @param cell
+     * @return
+     */
+    public static Object getCellValue(Cell cell) {
+        return getCellValue(cell, null);
+    }
+
+    /**
+     * 描述：对表格中数值进行格式化，日期格式的数值转换为日期字符串，取值规则见 {@link CellDecoder}
+     *
+     * @param cell
+     * @param df   常规格式数值的格式化，为null时使用"0"
+     * @return
+     */
+    public static Object getCellValue(Cell cell, DecimalFormat df) {
+        if (df == null) {
+            return CellDecoder.DEFAULT.decode(cell);
+        }
+        return CellDecoder.DEFAULT.decode(cell, df, null);
+    }
 }
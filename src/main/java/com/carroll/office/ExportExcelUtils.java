@@ -4,20 +4,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.hssf.usermodel.*;
 import org.apache.poi.hssf.util.HSSFColor;
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 
 import java.io.*;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.sql.Date;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Excel 导出工具类
@@ -28,6 +39,30 @@ import java.util.Map;
 @Slf4j
 public class ExportExcelUtils {
 
+    /**
+     * 表数据样式
+     */
+    private static final CellStyleSpec ROW_STYLE = new CellStyleSpec("楷体", 12, false, HorizontalAlignment.CENTER, true);
+    /**
+     * 分类行样式
+     */
+    private static final CellStyleSpec TYPE_STYLE = new CellStyleSpec("楷体", 12, false, HorizontalAlignment.LEFT, true);
+    /**
+     * 备注行样式
+     */
+    private static final CellStyleSpec REMARK_STYLE = new CellStyleSpec("楷体", 12, false, HorizontalAlignment.LEFT, true);
+
+    static {
+        REMARK_STYLE.setVerticalAlignment(VerticalAlignment.TOP);
+        REMARK_STYLE.setWrapText(true);
+    }
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    /**
+     * Excel 表名的最大长度
+     */
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
     private ExportExcelUtils() {
     }
 
@@ -40,13 +75,31 @@ public class ExportExcelUtils {
      * @return              返回下一行的行索引
      */
     public static int fillTableHeader(String headerTitle, XSSFSheet sheet, String[] colNm, Integer[] colWidth) {
+        return fillTableHeader(headerTitle, (Sheet) sheet, colNm, colWidth);
+    }
+
+    /**
+     * 填充表头，适用于XSSF和SXSSF（流式）工作表
+     * @param headerTitle   表格标题
+     * @param sheet         表
+     * @param colNm         列标题
+     * @param colWidth      列宽
+     * @return              返回下一行的行索引
+     */
+    public static int fillTableHeader(String headerTitle, Sheet sheet, String[] colNm, Integer[] colWidth) {
+        return fillTableHeader(headerTitle, sheet, colNm, colWidth, CellStyleRegistry.of(sheet.getWorkbook()));
+    }
+
+    private static int fillTableHeader(String headerTitle, Sheet sheet, String[] colNm, Integer[] colWidth, CellStyleRegistry styles) {
         int writeCol = 0;
-        XSSFCellStyle cellStyleTitle = cellStyleTitle(sheet.getWorkbook(), StyleCategory.HEADER);
-        XSSFCellStyle cellStyleColNm = cellStyleTitle(sheet.getWorkbook(), StyleCategory.COLUMN_HEADER);
-        cellStyleTitle.setAlignment(HorizontalAlignment.CENTER);
-        cellStyleColNm.setAlignment(HorizontalAlignment.CENTER);
-        setCellBorder(cellStyleColNm);
-        setCellBorder(cellStyleTitle);
+        CellStyleSpec titleSpec = StyleCategory.HEADER.spec();
+        titleSpec.setAlignment(HorizontalAlignment.CENTER);
+        titleSpec.setBorder(true);
+        CellStyleSpec colNmSpec = StyleCategory.COLUMN_HEADER.spec();
+        colNmSpec.setAlignment(HorizontalAlignment.CENTER);
+        colNmSpec.setBorder(true);
+        CellStyle cellStyleTitle = styles.getStyle(titleSpec);
+        CellStyle cellStyleColNm = styles.getStyle(colNmSpec);
         return fillTableHeader(headerTitle, sheet, colNm, colWidth, writeCol, cellStyleTitle, cellStyleColNm);
     }
 
@@ -62,9 +115,24 @@ public class ExportExcelUtils {
      * @return                  返回下一行的行索引
      */
     public static int fillTableHeader(String headerTitle, XSSFSheet sheet, String[] colNm, Integer[] colWidth, int writeCol, XSSFCellStyle cellStyleTitle, XSSFCellStyle cellStyleColNm) {
+        return fillTableHeader(headerTitle, (Sheet) sheet, colNm, colWidth, writeCol, cellStyleTitle, cellStyleColNm);
+    }
+
+    /**
+     * 填充表头，适用于XSSF和SXSSF（流式）工作表
+     * @param headerTitle       表格标题
+     * @param sheet             表
+     * @param colNm             列标题
+     * @param colWidth          列宽
+     * @param writeCol          起始列索引
+     * @param cellStyleTitle    表标题样式
+     * @param cellStyleColNm    列标题样式
+     * @return                  返回下一行的行索引
+     */
+    public static int fillTableHeader(String headerTitle, Sheet sheet, String[] colNm, Integer[] colWidth, int writeCol, CellStyle cellStyleTitle, CellStyle cellStyleColNm) {
         int colLength = colWidth.length;
-        XSSFRow row = null;
-        XSSFCell cell2 = null;
+        Row row = null;
+        Cell cell2 = null;
         if (!isNullOrEmpty(headerTitle)) {
             sheet.addMergedRegion(new CellRangeAddress(writeCol, writeCol, 0, colLength - 1));
             row = sheet.createRow(writeCol++);
@@ -84,17 +152,33 @@ public class ExportExcelUtils {
         //列名
         for (int i = 0; i < colLength; i++) {
             sheet.setColumnWidth(i, colWidth[i] * 512);//设置列宽
-            XSSFCell cell = row.createCell(i);
+            Cell cell = row.createCell(i);
             cell.setCellStyle(cellStyleColNm);
             cell.setCellValue(colNm[i]);
         }
         return writeCol;
     }
 
+    /**
+     * 设置列宽，单位为两个字符
+     */
+    private static void setColumnWidths(Sheet sheet, Integer[] colWidth) {
+        for (int i = 0; i < colWidth.length; i++) {
+            sheet.setColumnWidth(i, colWidth[i] * 512);
+        }
+    }
+
     /**
      * 设置单元格边框
      */
     public static void setCellBorder(XSSFCellStyle cellStyle) {
+        setCellBorder((CellStyle) cellStyle);
+    }
+
+    /**
+     * 设置单元格边框
+     */
+    public static void setCellBorder(CellStyle cellStyle) {
         cellStyle.setBorderBottom(BorderStyle.THIN);
         cellStyle.setBorderTop(BorderStyle.THIN);
         cellStyle.setBorderLeft(BorderStyle.THIN);
@@ -108,14 +192,34 @@ public class ExportExcelUtils {
      * @return          样式
      */
     public static XSSFCellStyle cellStyleTitle(XSSFWorkbook wb, StyleCategory category) {
+        return (XSSFCellStyle) cellStyleTitle((Workbook) wb, category);
+    }
+
+    /**
+     * 获取缓存的样式，同一工作薄中同一类型只创建一次，返回的样式为共享样式，不要修改
+     * @param wb
+     * @param category  样式类型
+     * @return          样式
+     */
+    public static CellStyle getCellStyle(Workbook wb, StyleCategory category) {
+        return CellStyleRegistry.getStyle(wb, category.spec());
+    }
+
+    /**
+     * 获取样式，每次调用都会新建样式，适用于XSSF和SXSSF（流式）工作薄
+     * @param wb
+     * @param category  样式类型
+     * @return          样式
+     */
+    public static CellStyle cellStyleTitle(Workbook wb, StyleCategory category) {
         //表头样式
-        XSSFCellStyle cellStyle = wb.createCellStyle();
-        XSSFFont font = wb.createFont();
+        CellStyle cellStyle = wb.createCellStyle();
+        Font font = wb.createFont();
         switch (category) {
             case HEADER:
                 font.setFontHeightInPoints((short) 20);
                 font.setBoldweight(Font.BOLDWEIGHT_BOLD);
-                cellStyle.setFillPattern(XSSFCellStyle.SOLID_FOREGROUND);
+                cellStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
                 cellStyle.setFont(font);
                 break;
             case MAIN:
@@ -127,7 +231,7 @@ public class ExportExcelUtils {
                 font.setFontHeightInPoints((short) 10);
                 font.setBoldweight(Font.BOLDWEIGHT_BOLD);
 
-                cellStyle.setFillPattern(XSSFCellStyle.SOLID_FOREGROUND);
+                cellStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
                 cellStyle.setFillForegroundColor(HSSFColor.GREY_25_PERCENT.index);
                 cellStyle.setFont(font);
                 break;
@@ -155,6 +259,32 @@ public class ExportExcelUtils {
         public String getDesc() {
             return desc;
         }
+
+        /**
+         * 样式规格，与 {@link #cellStyleTitle(Workbook, StyleCategory)} 创建的样式一致
+         */
+        public CellStyleSpec spec() {
+            CellStyleSpec spec = new CellStyleSpec();
+            switch (this) {
+                case HEADER:
+                    spec.setFontSize(20);
+                    spec.setBold(true);
+                    spec.setSolidFill(true);
+                    break;
+                case MAIN:
+                    spec.setFontSize(10);
+                    break;
+                case COLUMN_HEADER:
+                    spec.setFontSize(10);
+                    spec.setBold(true);
+                    spec.setFillColor(HSSFColor.GREY_25_PERCENT.index);
+                    break;
+                case NO_BORDER:
+                    spec.setFontSize(12);
+                    break;
+            }
+            return spec;
+        }
     }
 
     /**
@@ -165,22 +295,30 @@ public class ExportExcelUtils {
      * @param writeCol  起始列索引
      */
     public static void fillRowData(XSSFSheet sheet, Object[] colDatas, Integer[] colWidth, int writeCol) {
-        XSSFRow row = sheet.createRow(writeCol++);
-        //设置备注的样式
-        XSSFCellStyle cellStyle = sheet.getWorkbook().createCellStyle();
-        cellStyle.setAlignment(HorizontalAlignment.CENTER);
-        XSSFFont font = sheet.getWorkbook().createFont();
-        font.setFontName("楷体");
-        font.setFontHeightInPoints((short) 12);
-        cellStyle.setFont(font);
-        //添加边框
-        setCellBorder(cellStyle);
+        fillRowData((Sheet) sheet, colDatas, colWidth, writeCol);
+    }
+
+    /**
+     * 填充表数据，适用于XSSF和SXSSF（流式）工作表
+     * @param sheet     表
+     * @param colDatas  数据
+     * @param colWidth  列宽
+     * @param writeCol  起始列索引
+     */
+    public static void fillRowData(Sheet sheet, Object[] colDatas, Integer[] colWidth, int writeCol) {
+        setColumnWidths(sheet, colWidth);
+        fillRowData(sheet, colDatas, colWidth, writeCol, CellStyleRegistry.getStyle(sheet.getWorkbook(), ROW_STYLE));
+    }
+
+    /**
+     * 填充一行，不设置列宽，列宽由表头或调用方在填充前设置一次
+     */
+    private static void fillRowData(Sheet sheet, Object[] colDatas, Integer[] colWidth, int writeCol, CellStyle cellStyle) {
+        Row row = sheet.createRow(writeCol++);
         row.setHeight((short) 380);
         int colLength = colWidth.length;
         for (int i = 0; i < colLength; i++) {
-            //设置列宽
-            sheet.setColumnWidth(i, colWidth[i] * 512);
-            XSSFCell cell = row.createCell(i);
+            Cell cell = row.createCell(i);
             cell.setCellStyle(cellStyle);
             cell.setCellValue(colDatas[i] == null ? "" : String.valueOf(colDatas[i]));
         }
@@ -195,13 +333,282 @@ public class ExportExcelUtils {
      * @param writeCol
      */
     public static void fillRowData(XSSFSheet sheet, List<Object[]> rowsData, Integer[] colWidth, int writeCol) {
+        fillRowData((Sheet) sheet, rowsData, colWidth, writeCol);
+    }
+
+    /**
+     * 填充数据，适用于XSSF和SXSSF（流式）工作表
+     *
+     * @param sheet
+     * @param rowsData
+     * @param colWidth
+     * @param writeCol
+     */
+    public static void fillRowData(Sheet sheet, Iterable<Object[]> rowsData, Integer[] colWidth, int writeCol) {
+        setColumnWidths(sheet, colWidth);
+        fillRowData(sheet, rowsData, colWidth, writeCol, CellStyleRegistry.of(sheet.getWorkbook()), null);
+    }
+
+    private static void fillRowData(Sheet sheet, Iterable<Object[]> rowsData, Integer[] colWidth, int writeCol, CellStyleRegistry styles, MetricsRecorder metrics) {
         int index = 0;
+        CellStyle cellStyle = styles.getStyle(ROW_STYLE);
         for (Object[] rowData : rowsData) {
-            fillRowData(sheet, rowData, colWidth, writeCol + index);
+            fillRowData(sheet, rowData, colWidth, writeCol + index, cellStyle);
             index++;
+            if (metrics != null) {
+                metrics.row(colWidth.length);
+            }
+        }
+    }
+
+    /**
+     * 按值的类型填充数据，适用于XSSF、SXSSF和HSSF工作表：数值（含 BigDecimal）、布尔写为对应类型的单元格，
+     * Date、Calendar、LocalDate、LocalDateTime 写为带日期格式的单元格（日期样式按工作薄缓存），其他值写为文本
+     * <p>
+     * 每列按值的实际类型选定写入器并缓存，同一列的后续行不再判断类型；XSSF工作表中不同值较多的文本列改用内联字符串，
+     * 避免共享字符串表无限增长
+     *
+     * @param sheet    表
+     * @param rowsData 数据
+     * @param colWidth 列宽
+     * @param writeCol 起始行索引
+     * @return 返回下一行的行索引
+     */
+    public static int fillTypedRowData(Sheet sheet, Iterable<Object[]> rowsData, Integer[] colWidth, int writeCol) {
+        return fillTypedRowData(sheet, rowsData, colWidth, writeCol, CellStyleRegistry.of(sheet.getWorkbook()), null);
+    }
+
+    private static int fillTypedRowData(Sheet sheet, Iterable<Object[]> rowsData, Integer[] colWidth, int writeCol, CellStyleRegistry styles,
+                                        MetricsRecorder metrics) {
+        CellStyle cellStyle = styles.getStyle(ROW_STYLE);
+        CellWriter[] writers = typedWriters(styles, colWidth.length, cellStyle);
+        setColumnWidths(sheet, colWidth);
+        for (Object[] rowData : rowsData) {
+            fillTypedRow(sheet, rowData, writeCol++, cellStyle, writers);
+            if (metrics != null) {
+                metrics.row(writers.length);
+            }
+        }
+        return writeCol;
+    }
+
+    private static CellWriter[] typedWriters(CellStyleRegistry styles, int colLength, CellStyle cellStyle) {
+        CellWriter[] writers = new CellWriter[colLength];
+        for (int i = 0; i < colLength; i++) {
+            writers[i] = CellWriters.forType(null, styles, cellStyle);
+        }
+        return writers;
+    }
+
+    private static void fillTypedRow(Sheet sheet, Object[] colDatas, int writeCol, CellStyle cellStyle, CellWriter[] writers) {
+        Row row = sheet.createRow(writeCol);
+        row.setHeight((short) 380);
+        for (int i = 0; i < writers.length; i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellStyle(cellStyle);
+            writers[i].write(cell, colDatas[i]);
         }
     }
 
+    /**
+     * 分页填充数据：当前sheet的数据行达到上限（文件格式的最大行数或 maxRowsPerSheet）时新建sheet继续填充，
+     * 每个sheet重复填写表头和列宽，逐行从迭代器中读取，不需要事先知道总行数
+     * <p>
+     * 第一个sheet的表名为 sheetName，之后依次为 sheetName(2)、sheetName(3)……
+     *
+     * @param wb              工作薄，HSSF每个sheet最多65536行，XSSF/SXSSF最多1048576行（均含表头）
+     * @param sheetName       表名
+     * @param headerTitle     表格标题
+     * @param colNm           列标题
+     * @param colWidth        列宽
+     * @param rowsData        数据
+     * @param maxRowsPerSheet 每个sheet最多的数据行数（不含表头），小于等于0时只受文件格式限制
+     * @return 创建的sheet数，没有数据时也会创建一个只有表头的sheet
+     * @throws IOException SXSSF写出已满的sheet失败时抛出
+     */
+    public static int fillPagedData(Workbook wb, String sheetName, String headerTitle, String[] colNm, Integer[] colWidth,
+                                    Iterator<Object[]> rowsData, int maxRowsPerSheet) throws IOException {
+        return fillPagedData(wb, sheetName, headerTitle, colNm, colWidth, rowsData, maxRowsPerSheet, false);
+    }
+
+    /**
+     * @param typedCells 是否按值的类型写入单元格，见 {@link #fillTypedRowData(Sheet, Iterable, Integer[], int)}，为false时全部写为文本
+     * @see #fillPagedData(Workbook, String, String, String[], Integer[], Iterator, int)
+     */
+    public static int fillPagedData(Workbook wb, String sheetName, String headerTitle, String[] colNm, final Integer[] colWidth,
+                                    final Iterator<Object[]> rowsData, int maxRowsPerSheet, boolean typedCells) throws IOException {
+        return fillPagedData(wb, sheetName, headerTitle, colNm, colWidth, rowsData, maxRowsPerSheet, typedCells, CellStyleRegistry.of(wb), null);
+    }
+
+    private static int fillPagedData(Workbook wb, String sheetName, String headerTitle, String[] colNm, final Integer[] colWidth,
+                                     final Iterator<Object[]> rowsData, int maxRowsPerSheet, boolean typedCells, CellStyleRegistry styles,
+                                     MetricsRecorder metrics) throws IOException {
+        final CellStyle cellStyle = styles.getStyle(ROW_STYLE);
+        final CellWriter[] writers = typedCells ? typedWriters(styles, colWidth.length, cellStyle) : null;
+        try {
+            return fillPages(wb, styles, sheetName, headerTitle, colNm, colWidth, maxRowsPerSheet, metrics, new PageRows() {
+                @Override
+                public boolean next() {
+                    return rowsData.hasNext();
+                }
+
+                @Override
+                public void write(Sheet sheet, int rowIndex) {
+                    if (writers != null) {
+                        fillTypedRow(sheet, rowsData.next(), rowIndex, cellStyle, writers);
+                    } else {
+                        fillRowData(sheet, rowsData.next(), colWidth, rowIndex, cellStyle);
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 分页填充的数据源，{@link #next()} 返回true后调用一次 {@link #write(Sheet, int)} 写入该行
+     */
+    private interface PageRows {
+        boolean next() throws Exception;
+
+        void write(Sheet sheet, int rowIndex) throws Exception;
+    }
+
+    private static int fillPages(Workbook wb, CellStyleRegistry styles, String sheetName, String headerTitle, String[] colNm, Integer[] colWidth,
+                                 int maxRowsPerSheet, MetricsRecorder metrics, PageRows rows) throws Exception {
+        int maxRows = wb.getSpreadsheetVersion().getMaxRows();
+        int page = 0;
+        boolean hasNext = rows.next();
+        do {
+            Sheet sheet = wb.createSheet(pageSheetName(sheetName, ++page));
+            if (metrics != null) {
+                metrics.sheetStart(wb.getSheetIndex(sheet), sheet.getSheetName());
+            }
+            int rowIndex = fillTableHeader(headerTitle, sheet, colNm, colWidth, styles);
+            int limit = maxRows - rowIndex;
+            if (maxRowsPerSheet > 0 && maxRowsPerSheet < limit) {
+                limit = maxRowsPerSheet;
+            }
+            for (int n = 0; n < limit && hasNext; n++) {
+                rows.write(sheet, rowIndex++);
+                hasNext = rows.next();
+                if (metrics != null) {
+                    metrics.row(colWidth.length);
+                }
+            }
+            if (sheet instanceof SXSSFSheet) {
+                //已满的sheet不会再写入，窗口内的行立即写入临时文件
+                ((SXSSFSheet) sheet).flushRows();
+            }
+        } while (hasNext);
+        return page;
+    }
+
+    /**
+     * 按查询结果填充数据：数值、布尔、日期列按 {@link ResultSetMetaData} 中的类型写为对应类型的单元格，其他列写为文本，
+     * 逐行从结果集读取，不在内存中保留结果
+     *
+     * @param sheet    表
+     * @param rs       结果集，从当前位置之后的行开始读取，不关闭
+     * @param colWidth 列宽，长度与结果集的列数一致
+     * @param writeCol 起始行索引
+     * @return 返回下一行的行索引
+     * @throws SQLException
+     */
+    public static int fillResultSetData(Sheet sheet, ResultSet rs, Integer[] colWidth, int writeCol) throws SQLException {
+        CellStyleRegistry styles = CellStyleRegistry.of(sheet.getWorkbook());
+        ResultSetColumns columns = new ResultSetColumns(rs, styles, styles.getStyle(ROW_STYLE));
+        setColumnWidths(sheet, colWidth);
+        while (rs.next()) {
+            columns.write(sheet.createRow(writeCol++));
+        }
+        return writeCol;
+    }
+
+    /**
+     * 按查询结果流式导出（SXSSF）：列标题和列宽默认取自 {@link ResultSetMetaData}，数值和日期写为对应类型的单元格，
+     * 行数超出每个sheet的上限时自动新建sheet，内存占用与结果集大小无关
+     * <p>
+     * 驱动需要支持逐行获取结果（如设置 fetchSize，MySQL 需设置为 Integer.MIN_VALUE 或开启 useCursorFetch），
+     * 否则驱动本身会缓存全部结果
+     *
+     * @param headerTitle 表格标题
+     * @param colTitle    列标题，为null时使用列的标签（getColumnLabel）
+     * @param widthArr    列宽，为null时按列的显示宽度估算
+     * @param rs          结果集，不关闭
+     * @param sheetName   表名
+     * @param out         输出流
+     * @param config      流式导出配置，为null时使用默认配置
+     * @return 导出的行数
+     * @throws Exception
+     */
+    public static long exportResultSet(String headerTitle, String[] colTitle, Integer[] widthArr, final ResultSet rs, String sheetName,
+                                       OutputStream out, StreamingExportConfig config) throws Exception {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        if (colTitle == null) {
+            colTitle = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                colTitle[i] = metaData.getColumnLabel(i + 1);
+            }
+        }
+        if (widthArr == null) {
+            widthArr = new Integer[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                widthArr[i] = columnWidth(colTitle[i], metaData.getColumnDisplaySize(i + 1));
+            }
+        }
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.EXPORT);
+        SXSSFWorkbook wb = createStreamingWorkbook(config);
+        try {
+            CellStyleRegistry styles = new CellStyleRegistry(wb);
+            final ResultSetColumns columns = new ResultSetColumns(rs, styles, styles.getStyle(ROW_STYLE));
+            final long[] count = new long[1];
+            fillPages(wb, styles, sheetName, headerTitle, colTitle, widthArr, config == null ? 0 : config.getMaxRowsPerSheet(), metrics, new PageRows() {
+                @Override
+                public boolean next() throws SQLException {
+                    return rs.next();
+                }
+
+                @Override
+                public void write(Sheet sheet, int rowIndex) throws SQLException {
+                    columns.write(sheet.createRow(rowIndex));
+                    count[0]++;
+                }
+            });
+            writeExport(wb, out, true, metrics);
+            return count[0];
+        } finally {
+            wb.dispose();
+        }
+    }
+
+    /**
+     * 列宽单位为两个字符，按标题和显示宽度中较大者估算，限制在4~30之间
+     */
+    private static int columnWidth(String title, int displaySize) {
+        int chars = Math.max(title == null ? 0 : title.length() * 2, displaySize);
+        return Math.max(4, Math.min(30, (chars + 1) / 2 + 1));
+    }
+
+    /**
+     * 分页表名，超出31个字符时截断原表名，保留页码后缀
+     */
+    private static String pageSheetName(String sheetName, int page) {
+        String name = sheetName == null ? "Sheet" : sheetName;
+        if (page == 1) {
+            return name;
+        }
+        String suffix = "(" + page + ")";
+        if (name.length() + suffix.length() > MAX_SHEET_NAME_LENGTH) {
+            name = name.substring(0, MAX_SHEET_NAME_LENGTH - suffix.length());
+        }
+        return name + suffix;
+    }
+
     /**
      * <p> 填写主体</p>
      *
@@ -221,17 +628,12 @@ public class ExportExcelUtils {
     public static Map<String, Integer> addCols(XSSFWorkbook wb, XSSFSheet sheet, List<?> addList, String objAddr, Map<String, Integer> map, String[] fields, String typeNm, String remark, Integer[] colWidths, XSSFCellStyle cellStyleMain) throws Exception {
         int rownumStart = 0;
         int seqNum = 0;
-        //设置备注的样式
-        XSSFCellStyle cellStyle = wb.createCellStyle();
-        cellStyle.setAlignment(CellStyle.ALIGN_LEFT);
-        XSSFFont font = wb.createFont();
-        font.setFontName("楷体");
-        font.setFontHeightInPoints((short) 12);
-        cellStyle.setFont(font);
+        //分类及备注的样式
+        CellStyle cellStyle = CellStyleRegistry.getStyle(wb, TYPE_STYLE);
+        CellStyle cellStyleRemark = CellStyleRegistry.getStyle(wb, REMARK_STYLE);
         cellStyleMain.setAlignment(CellStyle.ALIGN_CENTER);
         cellStyleMain.setWrapText(true);
         //添加边框
-        setCellBorder(cellStyle);
         setCellBorder(cellStyleMain);
         XSSFRow row = null;
         XSSFCell cell1 = null;
@@ -258,6 +660,21 @@ public class ExportExcelUtils {
         }
         try {
             Class<?> c = Class.forName(objAddr);
+            //每列的取值方式和写入方式只解析一次；没有数据时与原实现一致不解析，属性名有误也不报错
+            BeanAccessor[] accessors = new BeanAccessor[arrayLength];
+            CellWriter[] writers = new CellWriter[arrayLength];
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            for (int i = 1; i < arrayLength && !addList.isEmpty(); i++) {
+                if (fields[i].startsWith("get")) {
+                    accessors[i] = BeanAccessor.forMethod(c, fields[i]);
+                } else if (!isNullOrEmpty(fields[i])) {
+                    accessors[i] = BeanAccessor.forField(c, fields[i]);
+                    if (accessors[i].isMissing()) {
+                        log.error("{} has no field {}", objAddr, fields[i]);
+                    }
+                    writers[i] = fieldWriter(accessors[i].getType(), wb, cellStyleMain, dateFormat);
+                }
+            }
 
             for (Object rowObj : addList) {
                 row = sheet.createRow(rownumStart++);
@@ -269,88 +686,39 @@ public class ExportExcelUtils {
                     }
                     if (i == 0) {
                         cell1.setCellValue(seqNum++);
-                    } else {
-                        String fieldVal = "";
-                        if (fields[i].startsWith("get")) {
-                            Method m = c.getMethod(fields[i], null);
-                            Object obj = m.invoke(rowObj, null);
-                            fieldVal = obj == null ? "" : (obj + "");
-                            //判断“备注”是否为空，不为空换行
-                            if (!isNullOrEmpty(remark)) {
-
-                                if (remark.equals(fields[i])) {
-                                    if (fieldVal != null && !fieldVal.equals("")) {
-                                        sheet.addMergedRegion(new CellRangeAddress(rownumStart, rownumStart, 1, colLength - 1));
-                                        row = sheet.createRow(rownumStart++);
-                                        cellStyleMain.setWrapText(true);//设置自动换行
-                                        cellStyle.setAlignment(CellStyle.VERTICAL_TOP);
-                                        cellStyle.setWrapText(true);
-
-                                        float hieght = getExcelCellAutoHeight(fieldVal, 80f);
-                                        //根据字符串的长度设置高度
-                                        sheet.getRow(sheet.getLastRowNum()).setHeightInPoints(hieght);
-
-                                        for (int b = 0; b < colLength; b++) {
-                                            cell1 = row.createCell(b);
-                                            cell1.setCellStyle(cellStyle);
-                                            if (b == 1) {
-
-                                                cell1.setCellValue(fieldVal);
-                                            }
-                                        }
+                    } else if (writers[i] != null) {
+                        writers[i].write(cell1, accessors[i].get(rowObj));
+                    } else if (accessors[i] != null) {
+                        Object obj = accessors[i].get(rowObj);
+                        String fieldVal = obj == null ? "" : (obj + "");
+                        //判断“备注”是否为空，不为空换行
+                        if (!isNullOrEmpty(remark) && remark.equals(fields[i])) {
+                            if (!fieldVal.equals("")) {
+                                sheet.addMergedRegion(new CellRangeAddress(rownumStart, rownumStart, 1, colLength - 1));
+                                row = sheet.createRow(rownumStart++);
+                                cellStyleMain.setWrapText(true);//设置自动换行
 
+                                float hieght = getExcelCellAutoHeight(fieldVal, 80f);
+                                //根据字符串的长度设置高度
+                                sheet.getRow(sheet.getLastRowNum()).setHeightInPoints(hieght);
+
+                                for (int b = 0; b < colLength; b++) {
+                                    cell1 = row.createCell(b);
+                                    cell1.setCellStyle(cellStyleRemark);
+                                    if (b == 1) {
+                                        cell1.setCellValue(fieldVal);
                                     }
-                                } else {
-                                    cell1.setCellValue(fieldVal);
-                                    continue;
                                 }
                             } else {
                                 cell1.setCellValue(fieldVal);
-                                continue;
-                            }
-                        } else if (!isNullOrEmpty(fields[i])) {
-                            Object objVal = null;
-                            Field field = null;
-                            try {
-                                field = c.getDeclaredField(fields[i]);
-                                field.setAccessible(true);
-                                objVal = field.get(rowObj);
-                            } catch (Exception e) {
-                                log.error(e.getMessage(), e);
                             }
-                            if (objVal != null) {
-                                if (String.class.equals(field.getType())) {
-                                    fieldVal = (String) objVal;
-                                } else if (Date.class.equals(field.getType())) {
-                                    Date date = (Date) objVal;
-                                    fieldVal = getStrDateFormat(date, "yyyy-MM-dd");
-                                } else if (java.util.Date.class.equals(field.getType())) {
-                                    java.util.Date date = (java.util.Date) objVal;
-                                    fieldVal = getStrDateFormat(date, "yyyy-MM-dd");
-                                } else if (java.math.BigDecimal.class.equals(field.getType())) {
-                                    java.math.BigDecimal bd = (java.math.BigDecimal) objVal;
-//							    	fieldVal=bd.toString();
-                                    cell1.setCellValue(bd == null ? 0 : bd.doubleValue());
-                                    fieldVal = null;
-                                } else if (Float.class.equals(field.getType())) {
-                                    cell1.getCellStyle().setDataFormat(HSSFDataFormat.getBuiltinFormat("0.00"));
-                                    cell1.setCellValue(objVal == null ? 0.0 : (Float) objVal);
-                                    fieldVal = null;
-                                } else if (Double.class.equals(field.getType())) {
-                                    cell1.getCellStyle().setDataFormat(HSSFDataFormat.getBuiltinFormat("0.00"));
-                                    cell1.setCellValue(objVal == null ? 0.0 : (Double) objVal);
-                                    fieldVal = null;
-                                }
-                            }
-
-                        }
-                        if (fieldVal != null) {
+                        } else {
                             cell1.setCellValue(fieldVal);
                         }
+                    } else {
+                        cell1.setCellValue("");
                     }
                 }
-
-
             }
         } catch (Exception e) {
             throw new Exception("组装下载表格时出错", e);
@@ -360,6 +728,59 @@ public class ExportExcelUtils {
         return map;
     }
 
+    /**
+     * addCols 中按字段声明类型写入：字符串、java.util.Date 和 java.sql.Date（yyyy-MM-dd）写为文本，BigDecimal 写为数值，
+     * Float、Double 写为保留两位小数的数值，其他类型写为空
+     */
+    private static CellWriter fieldWriter(Class<?> type, final XSSFWorkbook wb, final XSSFCellStyle cellStyleMain, final SimpleDateFormat dateFormat) {
+        if (String.class.equals(type)) {
+            return new CellWriter() {
+                @Override
+                public void write(Cell cell, Object value) {
+                    cell.setCellValue(value == null ? "" : (String) value);
+                }
+            };
+        } else if (java.util.Date.class.equals(type) || java.sql.Date.class.equals(type)) {
+            //与原实现一致只匹配这两个类型，Timestamp 等其他子类按其他类型写为空
+            return new CellWriter() {
+                @Override
+                public void write(Cell cell, Object value) {
+                    cell.setCellValue(value == null ? "" : dateFormat.format((java.util.Date) value));
+                }
+            };
+        } else if (java.math.BigDecimal.class.equals(type)) {
+            return new CellWriter() {
+                @Override
+                public void write(Cell cell, Object value) {
+                    if (value == null) {
+                        cell.setCellValue("");
+                    } else {
+                        cell.setCellValue(((java.math.BigDecimal) value).doubleValue());
+                    }
+                }
+            };
+        } else if (Float.class.equals(type) || Double.class.equals(type)) {
+            final CellStyle cellStyleDecimal = CellStyleRegistry.getStyle(wb, cellStyleMain, "0.00");
+            return new CellWriter() {
+                @Override
+                public void write(Cell cell, Object value) {
+                    if (value == null) {
+                        cell.setCellValue("");
+                    } else {
+                        cell.setCellStyle(cellStyleDecimal);
+                        cell.setCellValue(((Number) value).doubleValue());
+                    }
+                }
+            };
+        }
+        return new CellWriter() {
+            @Override
+            public void write(Cell cell, Object value) {
+                cell.setCellValue("");
+            }
+        };
+    }
+
     public static float getExcelCellAutoHeight(String str, float fontCountInline) {
         //每一行的高度指定
         float defaultRowHeight = 15.00f;
@@ -374,50 +795,336 @@ public class ExportExcelUtils {
         return ((int) (defaultCount / (fontCountInline * 2)) + 1) * defaultRowHeight;
     }
 
+    /**
+     * 填充实体数据，每个属性的取值方式和写入方式只解析一次，数值、布尔、日期写为对应类型的单元格
+     *
+     * @param sheet      表
+     * @param beans      实体数据
+     * @param beanClass  实体类
+     * @param properties 每列对应的属性名，支持getter、is方法及字段
+     * @param colWidth   列宽
+     * @param writeCol   起始行索引
+     * @return 返回下一行的行索引
+     * @throws Exception
+     */
+    public static <T> int fillBeanData(Sheet sheet, Iterable<T> beans, Class<T> beanClass, String[] properties, Integer[] colWidth, int writeCol) throws Exception {
+        return fillBeanData(sheet, beans, beanClass, properties, colWidth, writeCol, CellStyleRegistry.of(sheet.getWorkbook()), null);
+    }
+
+    private static <T> int fillBeanData(Sheet sheet, Iterable<T> beans, Class<T> beanClass, String[] properties, Integer[] colWidth, int writeCol,
+                                        CellStyleRegistry styles, MetricsRecorder metrics) throws Exception {
+        CellStyle cellStyle = styles.getStyle(ROW_STYLE);
+        int colLength = colWidth.length;
+        BeanAccessor[] accessors = new BeanAccessor[colLength];
+        CellWriter[] writers = new CellWriter[colLength];
+        for (int i = 0; i < colLength; i++) {
+            accessors[i] = BeanAccessor.forProperty(beanClass, properties[i]);
+            writers[i] = CellWriters.forType(accessors[i].getType(), styles, cellStyle);
+        }
+        setColumnWidths(sheet, colWidth);
+        for (T bean : beans) {
+            Row row = sheet.createRow(writeCol++);
+            row.setHeight((short) 380);
+            for (int i = 0; i < colLength; i++) {
+                Cell cell = row.createCell(i);
+                cell.setCellStyle(cellStyle);
+                writers[i].write(cell, accessors[i].get(bean));
+            }
+            if (metrics != null) {
+                metrics.row(colLength);
+            }
+        }
+        return writeCol;
+    }
+
+    /**
+     * 导出实体数据
+     *
+     * @param headerTitle 表格标题
+     * @param colTitle    列标题
+     * @param widthArr    列宽
+     * @param beans       实体数据
+     * @param beanClass   实体类
+     * @param properties  每列对应的属性名
+     * @param sheet       表
+     * @param out         输出流
+     * @throws Exception
+     */
+    public static <T> void exportBeans(String headerTitle, String[] colTitle, Integer[] widthArr, Iterable<T> beans, Class<T> beanClass, String[] properties, Sheet sheet, OutputStream out) throws Exception {
+        MetricsRecorder metrics = startExport(sheet);
+        CellStyleRegistry styles = new CellStyleRegistry(sheet.getWorkbook());
+        int rowIndex = fillTableHeader(headerTitle, sheet, colTitle, widthArr, styles);
+        fillBeanData(sheet, beans, beanClass, properties, widthArr, rowIndex, styles, metrics);
+        writeExport(sheet.getWorkbook(), out, true, metrics);
+    }
+
     public static void export(String headerTitle, String[] colTitle, Integer[] widthArr, List<Object[]> data, XSSFSheet sheet, OutputStream out) throws Exception {
-        int rowIndex = ExportExcelUtils.fillTableHeader(headerTitle, sheet, colTitle, widthArr);
-        ExportExcelUtils.fillRowData(sheet, data, widthArr, rowIndex);
-        writeExport(sheet.getWorkbook(), out);
+        export(headerTitle, colTitle, widthArr, data, sheet, out, true);
+    }
+
+    /**
+     * 导出
+     *
+     * @param headerTitle 表格标题
+     * @param colTitle    列标题
+     * @param widthArr    列宽
+     * @param data        数据
+     * @param sheet       表
+     * @param out         输出流
+     * @param closeOut    写出后是否关闭输出流
+     * @throws Exception
+     */
+    public static void export(String headerTitle, String[] colTitle, Integer[] widthArr, List<Object[]> data, XSSFSheet sheet, OutputStream out, boolean closeOut) throws Exception {
+        MetricsRecorder metrics = startExport(sheet);
+        CellStyleRegistry styles = new CellStyleRegistry(sheet.getWorkbook());
+        int rowIndex = fillTableHeader(headerTitle, sheet, colTitle, widthArr, styles);
+        fillRowData(sheet, data, widthArr, rowIndex, styles, metrics);
+        writeExport(sheet.getWorkbook(), out, closeOut, metrics);
     }
 
     public static void export(String headerTitle, String[] colTitle, Integer[] widthArr, List<Object[]> data, String sheetName, String fileName) throws Exception {
         XSSFWorkbook wb = new XSSFWorkbook();
         XSSFSheet sheet = wb.createSheet(sheetName);
-        FileOutputStream fout = new FileOutputStream(fileName);
-        export(headerTitle, colTitle, widthArr, data, sheet, fout);
+        try (FileOutputStream fout = new FileOutputStream(fileName)) {
+            export(headerTitle, colTitle, widthArr, data, sheet, fout, false);
+        }
     }
 
-    public static void writeExport(XSSFWorkbook wb, OutputStream out) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        wb.write(outputStream);
-        byte[] content = outputStream.toByteArray();
-        InputStream is = new ByteArrayInputStream(content);
-        BufferedInputStream bis = null;
-        BufferedOutputStream bos = null;
+    /**
+     * 流式导出（SXSSF），内存中只保留窗口内的行，其余行写入临时文件，导出完成后删除临时文件
+     *
+     * @param headerTitle 表格标题
+     * @param colTitle    列标题
+     * @param widthArr    列宽
+     * @param data        数据
+     * @param sheetName   表名
+     * @param out         输出流
+     * @param config      流式导出配置，为null时使用默认配置
+     * @throws Exception
+     */
+    public static void exportStreaming(String headerTitle, String[] colTitle, Integer[] widthArr, Iterable<Object[]> data, String sheetName, OutputStream out, StreamingExportConfig config) throws Exception {
+        SXSSFWorkbook wb = createStreamingWorkbook(config);
         try {
-            bis = new BufferedInputStream(is);
-            bos = new BufferedOutputStream(out);
-            byte[] buff = new byte[2048];
-            int bytesRead;
-            // Simple read/write loop.
-            while (-1 != (bytesRead = bis.read(buff, 0, buff.length))) {
-                bos.write(buff, 0, bytesRead);
+            Sheet sheet = wb.createSheet(sheetName);
+            MetricsRecorder metrics = startExport(sheet);
+            CellStyleRegistry styles = new CellStyleRegistry(wb);
+            int rowIndex = fillTableHeader(headerTitle, sheet, colTitle, widthArr, styles);
+            if (config != null && config.isTypedCells()) {
+                fillTypedRowData(sheet, data, widthArr, rowIndex, styles, metrics);
+            } else {
+                fillRowData(sheet, data, widthArr, rowIndex, styles, metrics);
             }
-        } catch (final IOException e) {
-            throw e;
+            writeExport(wb, out, true, metrics);
+        } finally {
+            wb.dispose();
+        }
+    }
+
+    public static void exportStreaming(String headerTitle, String[] colTitle, Integer[] widthArr, Iterable<Object[]> data, String sheetName, String fileName, StreamingExportConfig config) throws Exception {
+        try (FileOutputStream fout = new FileOutputStream(fileName)) {
+            exportStreaming(headerTitle, colTitle, widthArr, data, sheetName, fout, config);
+        }
+    }
+
+    /**
+     * 分页流式导出（SXSSF）：数据行达到每个sheet的上限时自动新建sheet并重复表头，见 {@link #fillPagedData(Workbook, String, String, String[], Integer[], Iterator, int)}
+     *
+     * @param headerTitle 表格标题
+     * @param colTitle    列标题
+     * @param widthArr    列宽
+     * @param data        数据，逐行读取
+     * @param sheetName   第一个sheet的表名
+     * @param out         输出流
+     * @param config      流式导出配置，其中的 maxRowsPerSheet 为每个sheet的数据行上限，为null时使用默认配置
+     * @return 创建的sheet数
+     * @throws Exception
+     */
+    public static int exportPaged(String headerTitle, String[] colTitle, Integer[] widthArr, Iterator<Object[]> data, String sheetName, OutputStream out, StreamingExportConfig config) throws Exception {
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.EXPORT);
+        SXSSFWorkbook wb = createStreamingWorkbook(config);
+        try {
+            int sheets = fillPagedData(wb, sheetName, headerTitle, colTitle, widthArr, data,
+                    config == null ? 0 : config.getMaxRowsPerSheet(), config != null && config.isTypedCells(), new CellStyleRegistry(wb), metrics);
+            writeExport(wb, out, true, metrics);
+            return sheets;
         } finally {
-            if (bis != null) {
-                bis.close();
+            wb.dispose();
+        }
+    }
+
+    /**
+     * 并行导出多个sheet：各sheet的数据行在执行器中独立生成XML，较大的部件分块并行压缩后组装为 .xlsx，
+     * 表头、列宽和样式与 {@link #export(String, String[], Integer[], List, XSSFSheet, OutputStream)} 一致，数据按文本写入
+     * <p>
+     * 数据在执行器的线程中遍历；每个sheet在内存中保留的压缩数据有上限，达到上限时该sheet的生成等待前面的sheet写出
+     * <p>
+     * 开启监控时，数据行的生成与压缩、写出同时进行，填充和写出合为一个阶段：每个sheet写入输出流后回调 SHEET，
+     * 全部写出后依次回调 SERIALIZE 和 WRITE，生成和压缩的耗时都计入 SERIALIZE，WRITE 的耗时接近0，
+     * 与 {@link #writeExport(Workbook, OutputStream, boolean)} 先结束填充再写出的划分不同
+     *
+     * @param headerTitle 表格标题
+     * @param colTitle    列标题
+     * @param widthArr    列宽
+     * @param sheetsData  各sheet的数据
+     * @param sheetNames  各sheet的表名
+     * @param out         输出流，写出后关闭
+     * @param executor    执行器，如 ForkJoinPool.commonPool()
+     * @throws Exception
+     * @see #exportParallel(String, String[], Integer[], List, String[], OutputStream, Executor, boolean)
+     */
+    public static void exportParallel(String headerTitle, String[] colTitle, Integer[] widthArr, List<? extends Iterable<Object[]>> sheetsData,
+                                      String[] sheetNames, OutputStream out, Executor executor) throws Exception {
+        exportParallel(headerTitle, colTitle, widthArr, sheetsData, sheetNames, out, executor, true);
+    }
+
+    /**
+     * 并行导出多个sheet，见 {@link #exportParallel(String, String[], Integer[], List, String[], OutputStream, Executor)}
+     *
+     * @param out      输出流
+     * @param executor 执行器，不关闭
+     * @param closeOut 是否在写出后（包括出错时）关闭 out，为false时只刷新，由调用方关闭
+     * @throws Exception
+     */
+    public static void exportParallel(String headerTitle, String[] colTitle, Integer[] widthArr, List<? extends Iterable<Object[]>> sheetsData,
+                                      String[] sheetNames, OutputStream out, Executor executor, boolean closeOut) throws Exception {
+        if (sheetNames.length != sheetsData.size()) {
+            throw new IllegalArgumentException("sheetNames and sheetsData must have the same size");
+        }
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.EXPORT);
+        XSSFWorkbook wb = new XSSFWorkbook();
+        CellStyleRegistry styles = new CellStyleRegistry(wb);
+        int[] firstRows = new int[sheetNames.length];
+        for (int i = 0; i < sheetNames.length; i++) {
+            firstRows[i] = fillTableHeader(headerTitle, wb.createSheet(sheetNames[i]), colTitle, widthArr, styles);
+        }
+        int styleIndex = styles.getStyle(ROW_STYLE).getIndex();
+        ByteArrayOutputStream template = new ByteArrayOutputStream();
+        wb.write(template);
+        try {
+            NonClosingOutputStream target = new NonClosingOutputStream(out);
+            OutputStream bos = new BufferedOutputStream(target, WRITE_BUFFER_SIZE);
+            ParallelExport.write(template.toByteArray(), sheetsData, firstRows, widthArr.length, styleIndex, bos, executor, metrics);
+            bos.flush();
+            if (metrics != null) {
+                //生成与写出无法分开，全部写出后才结束填充阶段，SERIALIZE 中的行数为全部sheet的合计
+                metrics.serialized();
+                metrics.written(target.count);
             }
-            if (bos != null) {
-                bos.close();
+        } finally {
+            if (closeOut) {
+                out.close();
             }
         }
     }
 
-    private static String getStrDateFormat(java.util.Date date, String format) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(format);
-        return null != date ? dateFormat.format(date) : "";
+    /**
+     * 创建流式（SXSSF）工作薄，使用完后需调用 {@link SXSSFWorkbook#dispose()} 删除临时文件
+     *
+     * @param config 流式导出配置，为null时使用默认配置
+     * @return 工作薄
+     */
+    public static SXSSFWorkbook createStreamingWorkbook(StreamingExportConfig config) {
+        if (config == null) {
+            config = new StreamingExportConfig();
+        }
+        return new SXSSFWorkbook(null, config.getRowAccessWindowSize(), config.isCompressTempFiles(), config.isUseSharedStringsTable());
+    }
+
+    public static void writeExport(XSSFWorkbook wb, OutputStream out) throws Exception {
+        writeExport((Workbook) wb, out);
+    }
+
+    /**
+     * 写出工作薄，写出后关闭输出流；不释放工作薄，调用方创建的SXSSF工作薄需自行调用 {@link SXSSFWorkbook#dispose()}
+     */
+    public static void writeExport(Workbook wb, OutputStream out) throws Exception {
+        writeExport(wb, out, true);
+    }
+
+    /**
+     * 写出工作薄，直接写入目标流，不在内存中保留整个文件的副本；不释放工作薄，调用方创建的SXSSF工作薄需自行调用 {@link SXSSFWorkbook#dispose()}
+     *
+     * @param wb       工作薄
+     * @param out      输出流
+     * @param closeOut 写出后是否关闭输出流
+     * @throws Exception
+     */
+    public static void writeExport(Workbook wb, OutputStream out, boolean closeOut) throws Exception {
+        //工作薄由调用方填充，没有填充阶段的统计，不单独记录写出
+        writeExport(wb, out, closeOut, null);
+    }
+
+    /**
+     * 开启监控时先结束填充阶段，写出后回调写出的字节数
+     */
+    private static void writeExport(Workbook wb, OutputStream out, boolean closeOut, MetricsRecorder metrics) throws Exception {
+        try {
+            if (metrics != null) {
+                metrics.serialized();
+            }
+            //POI写完后会关闭传入的流，需屏蔽关闭
+            NonClosingOutputStream target = new NonClosingOutputStream(out);
+            OutputStream bos = new BufferedOutputStream(target, WRITE_BUFFER_SIZE);
+            wb.write(bos);
+            bos.flush();
+            if (metrics != null) {
+                metrics.written(target.count);
+            }
+        } finally {
+            if (closeOut) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * 写出工作薄到文件通道，从通道当前位置开始写入，不关闭通道
+     *
+     * @param wb      工作薄
+     * @param channel 文件通道
+     * @throws Exception
+     */
+    public static void writeExport(Workbook wb, FileChannel channel) throws Exception {
+        writeExport(wb, Channels.newOutputStream(channel), false);
+    }
+
+    /**
+     * 导出开始时开启监控并开始第一个sheet
+     */
+    private static MetricsRecorder startExport(Sheet sheet) {
+        MetricsRecorder metrics = OfficeMetrics.start(OfficeMetrics.EXPORT);
+        if (metrics != null) {
+            metrics.sheetStart(sheet.getWorkbook().getSheetIndex(sheet), sheet.getSheetName());
+        }
+        return metrics;
+    }
+
+    /**
+     * 屏蔽close的输出流，并直接转发批量写入，统计写出的字节数
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        long count;
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
     }
 
     private static boolean isNullOrEmpty(String str) {
@@ -0,0 +1,396 @@
+package com.carroll.office;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.ss.usermodel.Cell;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 基于HSSF事件模型的 .xls 流式读取：按需从记录流中拉取记录，只缓存当前行，内存占用与行数无关
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class HSSFEventReader implements ExcelRowReader {
+
+    private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(null);
+    private final RawRow row = new RawRow();
+    /**
+     * 当前行块中已声明（ROW记录）但尚未输出的行号，每个行块最多32行
+     */
+    private final IntQueue declaredRows = new IntQueue();
+    /**
+     * 用于按XF索引查询MULRK中各数值的格式
+     */
+    private final NumberRecord rkFormat = new NumberRecord();
+
+    private final InputStream stream;
+    private final RecordFactoryInputStream records;
+    private final Closeable resource;
+    private final int sheetIdx;
+    private final ReadFilter filter;
+    private final RowSink sink;
+
+    private SSTRecord sst;
+    private int depth;
+    private boolean inSheet;
+    private int sheetIndex = -1;
+    private int sheetCount;
+    private int firstRow;
+    private boolean rowActive;
+    private int rowState;
+    private boolean sheetEnded;
+    private int pendingStringColumn = -1;
+    private boolean done;
+
+    /**
+     * @param directory     工作薄所在的POIFS目录
+     * @param resource      读取结束时需关闭的资源，可以为null
+     * @param sheetIdx      sheet索引，小于0时读取所有sheet
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param sink          行接收者
+     */
+    HSSFEventReader(DirectoryNode directory, Closeable resource, int sheetIdx, int startRowIndex, RowSink sink) throws IOException {
+        this(directory, resource, sheetIdx, ReadFilter.fromRow(startRowIndex), sink);
+    }
+
+    /**
+     * @param directory 工作薄所在的POIFS目录
+     * @param resource  读取结束时需关闭的资源，可以为null
+     * @param sheetIdx  sheet索引，小于0时读取所有sheet
+     * @param filter    行列过滤条件，对每个sheet分别生效
+     * @param sink      行接收者
+     */
+    HSSFEventReader(DirectoryNode directory, Closeable resource, int sheetIdx, ReadFilter filter, RowSink sink) throws IOException {
+        this.stream = directory.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(directory));
+        this.records = new RecordFactoryInputStream(stream, false);
+        this.resource = resource;
+        this.sheetIdx = sheetIdx;
+        this.filter = filter;
+        this.sink = sink;
+    }
+
+    @Override
+    public boolean step() throws Exception {
+        if (done) {
+            return false;
+        }
+        Record record = records.nextRecord();
+        if (record == null) {
+            done = true;
+            if (sheetIdx > sheetIndex) {
+                throw new IllegalArgumentException("Sheet index (" + sheetIdx + ") is out of range (0.." + sheetIndex + ")");
+            }
+            return false;
+        }
+        formats.processRecordInternally(record);
+        process(record);
+        return !done;
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        try {
+            stream.close();
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+
+    /**
+     * @return 工作薄中的sheet数，读取完工作薄头部的记录后有效
+     */
+    int getSheetCount() {
+        return sheetCount;
+    }
+
+    private void process(Record record) throws Exception {
+        switch (record.getSid()) {
+            case BOFRecord.sid:
+                if (depth++ == 0 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    sheetIndex++;
+                    inSheet = sheetIdx < 0 || sheetIdx == sheetIndex;
+                    firstRow = -1;
+                    rowActive = false;
+                    sheetEnded = false;
+                    declaredRows.clear();
+                }
+                return;
+            case EOFRecord.sid:
+                if (--depth == 0 && inSheet) {
+                    flushRow();
+                    while (!declaredRows.isEmpty()) {
+                        emitEmpty(declaredRows.poll());
+                    }
+                    inSheet = false;
+                    //只读取一个sheet时，读完即终止
+                    done = sheetIdx >= 0;
+                }
+                return;
+            case BoundSheetRecord.sid:
+                sheetCount++;
+                return;
+            case SSTRecord.sid:
+                sst = (SSTRecord) record;
+                return;
+            case DateWindow1904Record.sid:
+                row.setDate1904(((DateWindow1904Record) record).getWindowing() == 1);
+                return;
+            default:
+                break;
+        }
+        if (!inSheet || depth != 1) {
+            return;
+        }
+        switch (record.getSid()) {
+            case RowRecord.sid:
+                if (!sheetEnded) {
+                    declaredRows.add(((RowRecord) record).getRowNumber());
+                }
+                break;
+            case NumberRecord.sid:
+                NumberRecord number = (NumberRecord) record;
+                RawRow cells = startCell(number.getRow(), number.getColumn());
+                if (cells != null) {
+                    cells.addNumeric(number.getColumn(), number.getValue(), formats.getFormatString(number));
+                }
+                break;
+            case LabelSSTRecord.sid:
+                LabelSSTRecord label = (LabelSSTRecord) record;
+                cells = startCell(label.getRow(), label.getColumn());
+                if (cells != null) {
+                    cells.addString(label.getColumn(), sst.getString(label.getSSTIndex()).getString());
+                }
+                break;
+            case LabelRecord.sid:
+                LabelRecord text = (LabelRecord) record;
+                cells = startCell(text.getRow(), text.getColumn());
+                if (cells != null) {
+                    cells.addString(text.getColumn(), text.getValue());
+                }
+                break;
+            case BoolErrRecord.sid:
+                BoolErrRecord boolErr = (BoolErrRecord) record;
+                cells = startCell(boolErr.getRow(), boolErr.getColumn());
+                if (cells != null && boolErr.isBoolean()) {
+                    cells.addBoolean(boolErr.getColumn(), boolErr.getBooleanValue());
+                } else if (cells != null) {
+                    cells.addError(boolErr.getColumn());
+                }
+                break;
+            case BlankRecord.sid:
+                BlankRecord blank = (BlankRecord) record;
+                cells = startCell(blank.getRow(), blank.getColumn());
+                if (cells != null) {
+                    cells.addBlank(blank.getColumn());
+                }
+                break;
+            case MulBlankRecord.sid:
+                MulBlankRecord blanks = (MulBlankRecord) record;
+                for (int i = 0; i < blanks.getNumColumns(); i++) {
+                    int column = blanks.getFirstColumn() + i;
+                    cells = startCell(blanks.getRow(), column);
+                    if (cells != null) {
+                        cells.addBlank(column);
+                    }
+                }
+                break;
+            case MulRKRecord.sid:
+                MulRKRecord numbers = (MulRKRecord) record;
+                for (int i = 0; i < numbers.getNumColumns(); i++) {
+                    int column = numbers.getFirstColumn() + i;
+                    cells = startCell(numbers.getRow(), column);
+                    if (cells != null) {
+                        rkFormat.setXFIndex(numbers.getXFAt(i));
+                        cells.addNumeric(column, numbers.getRKNumberAt(i), formats.getFormatString(rkFormat));
+                    }
+                }
+                break;
+            case RKRecord.sid:
+                RKRecord rk = (RKRecord) record;
+                cells = startCell(rk.getRow(), rk.getColumn());
+                if (cells != null) {
+                    cells.addNumeric(rk.getColumn(), rk.getRKNumber(), formats.getFormatString(rk));
+                }
+                break;
+            case FormulaRecord.sid:
+                FormulaRecord formula = (FormulaRecord) record;
+                cells = startCell(formula.getRow(), formula.getColumn());
+                if (cells == null) {
+                    break;
+                }
+                switch (formula.getCachedResultType()) {
+                    case Cell.CELL_TYPE_STRING:
+                        //字符串结果在紧随其后的STRING记录中
+                        pendingStringColumn = formula.getColumn();
+                        break;
+                    case Cell.CELL_TYPE_BOOLEAN:
+                        cells.addBoolean(formula.getColumn(), formula.getCachedBooleanValue());
+                        break;
+                    case Cell.CELL_TYPE_ERROR:
+                        cells.addError(formula.getColumn());
+                        break;
+                    default:
+                        cells.addNumeric(formula.getColumn(), formula.getValue(), formats.getFormatString(formula));
+                        break;
+                }
+                break;
+            case StringRecord.sid:
+                if (pendingStringColumn >= 0) {
+                    row.addString(pendingStringColumn, ((StringRecord) record).getString());
+                    pendingStringColumn = -1;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 单元格记录按行有序，行号变化时输出上一行，并补上中间只有ROW记录的空行
+     *
+     * @return 需要读取该单元格时返回当前行，否则返回null
+     */
+    private RawRow startCell(int rowIndex, int column) throws Exception {
+        if (sheetEnded) {
+            return null;
+        }
+        if (rowActive && row.getRowIndex() != rowIndex) {
+            flushRow();
+        }
+        if (!rowActive) {
+            while (!declaredRows.isEmpty() && declaredRows.peek() < rowIndex) {
+                emitEmpty(declaredRows.poll());
+            }
+            if (!declaredRows.isEmpty() && declaredRows.peek() == rowIndex) {
+                declaredRows.poll();
+            }
+            if (sheetEnded) {
+                return null;
+            }
+            rowState = rowState(rowIndex);
+            if (rowState == ReadFilter.END) {
+                endSheet();
+                return null;
+            }
+            row.reset(rowIndex);
+            rowActive = true;
+        }
+        return rowState == ReadFilter.READ && filter.acceptsColumn(column) ? row : null;
+    }
+
+    private void flushRow() throws Exception {
+        if (rowActive) {
+            rowActive = false;
+            if (rowState == ReadFilter.READ) {
+                sink.accept(sheetIndex, row);
+            }
+        }
+    }
+
+    /**
+     * 输出只有ROW记录、没有单元格的空行
+     */
+    private void emitEmpty(int rowIndex) throws Exception {
+        if (sheetEnded) {
+            return;
+        }
+        int state = rowState(rowIndex);
+        if (state == ReadFilter.END) {
+            endSheet();
+        } else if (state == ReadFilter.READ) {
+            row.reset(rowIndex);
+            sink.accept(sheetIndex, row);
+        }
+    }
+
+    private int rowState(int rowIndex) {
+        if (firstRow < 0) {
+            firstRow = rowIndex;
+        }
+        return filter.rowState(rowIndex - firstRow, rowIndex);
+    }
+
+    /**
+     * 行范围已读完：忽略当前sheet剩余的记录，只读取一个sheet时读取结束
+     */
+    private void endSheet() {
+        sheetEnded = true;
+        rowActive = false;
+        declaredRows.clear();
+        if (sheetIdx >= 0) {
+            done = true;
+        }
+    }
+
+    /**
+     * 简单的int队列，避免装箱
+     */
+    private static final class IntQueue {
+        private int[] values = new int[32];
+        private int head;
+        private int tail;
+
+        void add(int value) {
+            if (tail == values.length) {
+                if (head > 0) {
+                    System.arraycopy(values, head, values, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    int[] grown = new int[values.length << 1];
+                    System.arraycopy(values, 0, grown, 0, tail);
+                    values = grown;
+                }
+            }
+            values[tail++] = value;
+        }
+
+        int peek() {
+            return values[head];
+        }
+
+        int poll() {
+            int value = values[head++];
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            return value;
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        void clear() {
+            head = 0;
+            tail = 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.carroll.office;
+
+import org.apache.poi.xwpf.usermodel.Document;
+
+/**
+ * 从图片文件头读取类型和像素尺寸，不解码像素数据，支持 PNG、JPEG、GIF、BMP
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ImageHeader {
+
+    private final int pictureType;
+    private final int width;
+    private final int height;
+
+    private ImageHeader(int pictureType, int width, int height) {
+        this.pictureType = pictureType;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return 图片类型，如 {@link Document#PICTURE_TYPE_PNG}
+     */
+    int getPictureType() {
+        return pictureType;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * 读取图片的类型和尺寸
+     *
+     * @param data 图片内容
+     * @return 无法识别或文件头不完整时返回null
+     */
+    static ImageHeader read(byte[] data) {
+        if (startsWith(data, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            //IHDR 固定为第一个块：长度(4) 类型(4) 宽(4) 高(4)
+            if (data.length < 24) {
+                return null;
+            }
+            return new ImageHeader(Document.PICTURE_TYPE_PNG, int32(data, 16), int32(data, 20));
+        } else if (startsWith(data, 0xFF, 0xD8)) {
+            return readJpeg(data);
+        } else if (startsWith(data, 'G', 'I', 'F', '8')) {
+            //逻辑屏幕描述符：宽(2) 高(2)，小端
+            if (data.length < 10) {
+                return null;
+            }
+            return new ImageHeader(Document.PICTURE_TYPE_GIF, uint16le(data, 6), uint16le(data, 8));
+        } else if (startsWith(data, 'B', 'M')) {
+            //BITMAPINFOHEADER：宽(4) 高(4)，小端，高为负数时自上而下存储
+            if (data.length < 26) {
+                return null;
+            }
+            return new ImageHeader(Document.PICTURE_TYPE_BMP, int32le(data, 18), Math.abs(int32le(data, 22)));
+        }
+        return null;
+    }
+
+    /**
+     * 依次跳过各段，直到帧头（SOF0~SOF15，不含 DHT、JPG、DAC）：长度(2) 精度(1) 高(2) 宽(2)
+     */
+    private static ImageHeader readJpeg(byte[] data) {
+        int pos = 2;
+        while (pos + 3 < data.length) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = data[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                //填充字节
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD9)) {
+                //没有长度的独立标记
+                pos += 2;
+                continue;
+            }
+            int length = uint16(data, pos + 2);
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                if (pos + 9 > data.length) {
+                    return null;
+                }
+                return new ImageHeader(Document.PICTURE_TYPE_JPEG, uint16(data, pos + 7), uint16(data, pos + 5));
+            }
+            pos += 2 + length;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int... magic) {
+        if (data.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((data[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int uint16(byte[] data, int pos) {
+        return (data[pos] & 0xFF) << 8 | (data[pos + 1] & 0xFF);
+    }
+
+    private static int uint16le(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8;
+    }
+
+    private static int int32(byte[] data, int pos) {
+        return uint16(data, pos) << 16 | uint16(data, pos + 2);
+    }
+
+    private static int int32le(byte[] data, int pos) {
+        return uint16le(data, pos) | uint16le(data, pos + 2) << 16;
+    }
+}
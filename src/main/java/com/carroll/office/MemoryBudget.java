@@ -0,0 +1,106 @@
+package com.carroll.office;
+
+/**
+ * 读取Excel时的内存预算：读取前根据文件元数据（各部件解压后的大小、已用区域的单元格数）估算内存占用，
+ * 在DOM读取、流式读取和拒绝读取之间选择
+ * <p>
+ * 估算系数为经验值：XSSFWorkbook 每个单元格约1KB，约为sheet XML大小的16倍；HSSFWorkbook 每个单元格约160字节，
+ * 约为记录流大小的8倍；流式读取只在内存中保留共享字符串表
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class MemoryBudget {
+
+    private static final long XSSF_BYTES_PER_CELL = 1000;
+    private static final long XSSF_BYTES_PER_XML_BYTE = 16;
+    private static final long XSSF_XML_BYTES_PER_CELL = 40;
+    private static final long HSSF_BYTES_PER_CELL = 160;
+    private static final long HSSF_BYTES_PER_RECORD_BYTE = 8;
+    private static final long HSSF_RECORD_BYTES_PER_CELL = 16;
+    private static final long STRING_BYTES_PER_BYTE = 4;
+    private static final long STREAMING_OVERHEAD = 8L * 1024 * 1024;
+
+    /**
+     * DOM读取允许的预计内存，默认为最大堆的1/4
+     */
+    private long domLimit = Runtime.getRuntime().maxMemory() / 4;
+
+    /**
+     * 流式读取允许的预计内存，默认为最大堆的1/2
+     */
+    private long streamingLimit = Runtime.getRuntime().maxMemory() / 2;
+
+    /**
+     * 决策回调，可以为null
+     */
+    private MemoryBudgetListener listener;
+
+    public MemoryBudget() {
+    }
+
+    public MemoryBudget(long domLimit, long streamingLimit) {
+        this.domLimit = domLimit;
+        this.streamingLimit = streamingLimit;
+    }
+
+    public long getDomLimit() {
+        return domLimit;
+    }
+
+    public void setDomLimit(long domLimit) {
+        this.domLimit = domLimit;
+    }
+
+    public long getStreamingLimit() {
+        return streamingLimit;
+    }
+
+    public void setStreamingLimit(long streamingLimit) {
+        this.streamingLimit = streamingLimit;
+    }
+
+    public MemoryBudgetListener getListener() {
+        return listener;
+    }
+
+    public void setListener(MemoryBudgetListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 估算内存占用并选择读取方式
+     */
+    MemoryDecision decide(WorkbookInfo info) {
+        boolean xlsx = ExcelUtils.excel2007U.equals(info.getFileType());
+        long cells = 0;
+        long sheetBytes = 0;
+        for (SheetInfo sheet : info.getSheets()) {
+            long size = Math.max(0, sheet.getSize());
+            sheetBytes += size;
+            if (sheet.getRowCount() >= 0 && sheet.getColumnCount() >= 0) {
+                cells += (long) sheet.getRowCount() * sheet.getColumnCount();
+            } else {
+                cells += size / (xlsx ? XSSF_XML_BYTES_PER_CELL : HSSF_RECORD_BYTES_PER_CELL);
+            }
+        }
+        long strings = info.getSharedStringsSize() * STRING_BYTES_PER_BYTE;
+        long domBytes;
+        if (xlsx) {
+            domBytes = Math.max(cells * XSSF_BYTES_PER_CELL, sheetBytes * XSSF_BYTES_PER_XML_BYTE) + strings;
+        } else {
+            domBytes = Math.max(cells * HSSF_BYTES_PER_CELL, info.getUncompressedSize() * HSSF_BYTES_PER_RECORD_BYTE);
+        }
+        long streamingBytes = STREAMING_OVERHEAD + strings;
+
+        ReadMode mode;
+        if (domBytes <= domLimit) {
+            mode = ReadMode.DOM;
+        } else if (streamingBytes <= streamingLimit) {
+            mode = ReadMode.STREAMING;
+        } else {
+            mode = ReadMode.REJECT;
+        }
+        return new MemoryDecision(mode, info, cells, domBytes, streamingBytes, domLimit, streamingLimit);
+    }
+}
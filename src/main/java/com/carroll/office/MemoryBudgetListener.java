@@ -0,0 +1,17 @@
+package com.carroll.office;
+
+/**
+ * 内存预算检查的决策回调，用于记录日志、上报监控或告警
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public interface MemoryBudgetListener {
+
+    /**
+     * 读取前回调，决策为 {@link ReadMode#REJECT} 时回调后抛出异常
+     *
+     * @param decision 决策及其依据
+     */
+    void onDecision(MemoryDecision decision);
+}
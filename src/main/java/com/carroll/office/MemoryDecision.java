@@ -0,0 +1,71 @@
+package com.carroll.office;
+
+/**
+ * 内存预算检查的决策及其依据
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class MemoryDecision {
+
+    private final ReadMode mode;
+    private final WorkbookInfo workbook;
+    private final long estimatedCells;
+    private final long estimatedDomBytes;
+    private final long estimatedStreamingBytes;
+    private final long domLimit;
+    private final long streamingLimit;
+
+    MemoryDecision(ReadMode mode, WorkbookInfo workbook, long estimatedCells, long estimatedDomBytes,
+                   long estimatedStreamingBytes, long domLimit, long streamingLimit) {
+        this.mode = mode;
+        this.workbook = workbook;
+        this.estimatedCells = estimatedCells;
+        this.estimatedDomBytes = estimatedDomBytes;
+        this.estimatedStreamingBytes = estimatedStreamingBytes;
+        this.domLimit = domLimit;
+        this.streamingLimit = streamingLimit;
+    }
+
+    public ReadMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return 作为估算依据的工作薄元数据
+     */
+    public WorkbookInfo getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * @return 预计单元格数，sheet已用区域未知时按数据大小估算
+     */
+    public long getEstimatedCells() {
+        return estimatedCells;
+    }
+
+    public long getEstimatedDomBytes() {
+        return estimatedDomBytes;
+    }
+
+    public long getEstimatedStreamingBytes() {
+        return estimatedStreamingBytes;
+    }
+
+    public long getDomLimit() {
+        return domLimit;
+    }
+
+    public long getStreamingLimit() {
+        return streamingLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryDecision{mode=" + mode + ", fileType=" + workbook.getFileType() + ", fileSize=" + workbook.getFileSize()
+                + ", uncompressedSize=" + workbook.getUncompressedSize() + ", estimatedCells=" + estimatedCells
+                + ", estimatedDomBytes=" + estimatedDomBytes + "/" + domLimit
+                + ", estimatedStreamingBytes=" + estimatedStreamingBytes + "/" + streamingLimit + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.carroll.office;
+
+/**
+ * 导入导出的阶段监控数据
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class MetricsEvent {
+
+    private final String operation;
+    private final MetricsPhase phase;
+    private final int sheetIndex;
+    private final String sheetName;
+    private final long rows;
+    private final long cells;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    MetricsEvent(String operation, MetricsPhase phase, int sheetIndex, String sheetName, long rows, long cells, long bytes, long elapsedNanos) {
+        this.operation = operation;
+        this.phase = phase;
+        this.sheetIndex = sheetIndex;
+        this.sheetName = sheetName;
+        this.rows = rows;
+        this.cells = cells;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return {@link OfficeMetrics#READ} 或 {@link OfficeMetrics#EXPORT}
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    public MetricsPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return sheet索引，与sheet无关的阶段为-1
+     */
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    /**
+     * @return sheet名称，流式读取及与sheet无关的阶段为null
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return 行数：PROGRESS、SHEET 为当前sheet已处理的行数，SERIALIZE 为所有sheet的行数，其他阶段为0
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return 单元格数，统计范围同 {@link #getRows()}
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * @return 字节数：OPEN 为读取的文件大小（输入流未知时为-1），WRITE 为写出的字节数，其他阶段为-1
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return 耗时（纳秒）：OPEN 为打开工作薄的耗时，PROGRESS、SHEET 为当前sheet已用的耗时，
+     * SERIALIZE 为开始导出到填充完成的耗时，WRITE 为写出的耗时
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsEvent{operation=" + operation + ", phase=" + phase + ", sheetIndex=" + sheetIndex
+                + ", sheetName=" + sheetName + ", rows=" + rows + ", cells=" + cells + ", bytes=" + bytes
+                + ", elapsedMillis=" + elapsedNanos / 1000000 + "}";
+    }
+}
@@ -0,0 +1,19 @@
+package com.carroll.office;
+
+/**
+ * 导入导出的监控回调，通过 {@link OfficeMetrics#setListener(MetricsListener)} 注册，用于上报耗时、行数和字节数
+ * <p>
+ * 在读取或导出的线程中同步回调，实现需线程安全且尽量轻量；回调抛出的异常只记录日志，不影响导入导出
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public interface MetricsListener {
+
+    /**
+     * 阶段回调
+     *
+     * @param event 阶段及其监控数据
+     */
+    void onEvent(MetricsEvent event);
+}
@@ -0,0 +1,30 @@
+package com.carroll.office;
+
+/**
+ * 导入导出过程中回调监控的阶段
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public enum MetricsPhase {
+    /**
+     * 工作薄已打开（DOM读取为解析整个文件，流式读取为解析共享字符串表、样式等），尚未读取单元格
+     */
+    OPEN,
+    /**
+     * 当前sheet每读取或写入 {@link OfficeMetrics#getProgressInterval()} 行回调一次
+     */
+    PROGRESS,
+    /**
+     * 一个sheet读取或写入完成
+     */
+    SHEET,
+    /**
+     * 导出时全部数据已填入工作薄，尚未写出；并行导出的生成与写出同时进行，在全部写出后回调
+     */
+    SERIALIZE,
+    /**
+     * 导出时工作薄已写入输出流
+     */
+    WRITE
+}
@@ -0,0 +1,166 @@
+package com.carroll.office;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+/**
+ * 一次读取或导出的监控计数，由 {@link OfficeMetrics#start(String)} 创建，只在一个线程中使用
+ * <p>
+ * 调用方持有的引用为null时表示未开启监控，各处需先判断再调用
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+@Slf4j
+final class MetricsRecorder {
+
+    private final MetricsListener listener;
+    private final String operation;
+    private final int progressInterval;
+    private final long startNanos;
+    private long serializedNanos;
+
+    private int sheetIndex = -1;
+    private String sheetName;
+    private long sheetStartNanos;
+    private long sheetRows;
+    private long sheetCells;
+    private long rows;
+    private long cells;
+
+    MetricsRecorder(MetricsListener listener, String operation, int progressInterval) {
+        this.listener = listener;
+        this.operation = operation;
+        this.progressInterval = progressInterval;
+        this.startNanos = System.nanoTime();
+        this.serializedNanos = startNanos;
+    }
+
+    /**
+     * 工作薄已打开
+     *
+     * @param bytes 文件大小，未知时为-1
+     */
+    void opened(long bytes) {
+        fire(MetricsPhase.OPEN, -1, null, 0, 0, bytes, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 开始读取或写入一个sheet，上一个sheet未结束时先结束
+     */
+    void sheetStart(int index, String name) {
+        sheetDone();
+        sheetIndex = index;
+        sheetName = name;
+        sheetRows = 0;
+        sheetCells = 0;
+        sheetStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 当前sheet处理了一行
+     *
+     * @param cellCount 该行的单元格数
+     */
+    void row(int cellCount) {
+        sheetRows++;
+        sheetCells += cellCount;
+        if (sheetRows % progressInterval == 0) {
+            fire(MetricsPhase.PROGRESS, sheetIndex, sheetName, sheetRows, sheetCells, -1, System.nanoTime() - sheetStartNanos);
+        }
+    }
+
+    /**
+     * 当前sheet处理完成，没有正在处理的sheet时忽略
+     */
+    void sheetDone() {
+        if (sheetIndex < 0) {
+            return;
+        }
+        rows += sheetRows;
+        cells += sheetCells;
+        fire(MetricsPhase.SHEET, sheetIndex, sheetName, sheetRows, sheetCells, -1, System.nanoTime() - sheetStartNanos);
+        sheetIndex = -1;
+        sheetName = null;
+    }
+
+    /**
+     * 在其他线程中处理完成的sheet，由持有监控的线程在得到该sheet的结果后调用，不产生进度事件
+     *
+     * @param elapsedNanos 该sheet的处理耗时
+     */
+    void sheet(int index, String name, long rowCount, long cellCount, long elapsedNanos) {
+        sheetDone();
+        rows += rowCount;
+        cells += cellCount;
+        fire(MetricsPhase.SHEET, index, name, rowCount, cellCount, -1, elapsedNanos);
+    }
+
+    /**
+     * 导出数据已全部填入工作薄
+     */
+    void serialized() {
+        sheetDone();
+        serializedNanos = System.nanoTime();
+        fire(MetricsPhase.SERIALIZE, -1, null, rows, cells, -1, serializedNanos - startNanos);
+    }
+
+    /**
+     * 工作薄已写出
+     *
+     * @param bytes 写出的字节数
+     */
+    void written(long bytes) {
+        fire(MetricsPhase.WRITE, -1, null, 0, 0, bytes, System.nanoTime() - serializedNanos);
+    }
+
+    /**
+     * 统计流式读取的行，sheet索引变化时切换sheet
+     */
+    RowSink sink(final RowSink sink) {
+        return new RowSink() {
+            @Override
+            public void accept(int index, RawRow row) throws Exception {
+                if (index != sheetIndex) {
+                    sheetStart(index, null);
+                }
+                sink.accept(index, row);
+                row(row.size());
+            }
+        };
+    }
+
+    /**
+     * 流式读取读完或关闭时结束最后一个sheet
+     */
+    ExcelRowReader reader(final ExcelRowReader reader) {
+        return new ExcelRowReader() {
+            @Override
+            public boolean step() throws Exception {
+                if (reader.step()) {
+                    return true;
+                }
+                sheetDone();
+                return false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    reader.close();
+                } finally {
+                    sheetDone();
+                }
+            }
+        };
+    }
+
+    private void fire(MetricsPhase phase, int index, String name, long rowCount, long cellCount, long bytes, long elapsedNanos) {
+        try {
+            listener.onEvent(new MetricsEvent(operation, phase, index, name, rowCount, cellCount, bytes, elapsedNanos));
+        } catch (RuntimeException e) {
+            log.warn("Metrics listener failed on {}", phase, e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.carroll.office;
+
+/**
+ * 导入导出监控的全局注册：注册监听器后 {@link ExcelUtils} 的读取和 {@link ExportExcelUtils} 的导出在各阶段回调，
+ * 如 {@code OfficeMetrics.setListener(new Slf4jMetricsListener())}
+ * <p>
+ * 未注册监听器时不创建任何监控对象，也不读取时钟
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class OfficeMetrics {
+
+    public static final String READ = "read";
+    public static final String EXPORT = "export";
+
+    private static volatile MetricsListener listener;
+    private static volatile int progressInterval = 10000;
+
+    private OfficeMetrics() {
+    }
+
+    public static MetricsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener 监听器，为null时取消监控
+     */
+    public static void setListener(MetricsListener listener) {
+        OfficeMetrics.listener = listener;
+    }
+
+    public static int getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * @param progressInterval 每处理多少行回调一次 {@link MetricsPhase#PROGRESS}，默认10000
+     */
+    public static void setProgressInterval(int progressInterval) {
+        if (progressInterval <= 0) {
+            throw new IllegalArgumentException("progressInterval must be positive");
+        }
+        OfficeMetrics.progressInterval = progressInterval;
+    }
+
+    /**
+     * 开始一次读取或导出的监控
+     *
+     * @return 未注册监听器时返回null
+     */
+    static MetricsRecorder start(String operation) {
+        MetricsListener current = listener;
+        return current == null ? null : new MetricsRecorder(current, operation, progressInterval);
+    }
+}
@@ -1,15 +1,17 @@
 package com.carroll.office;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.util.Units;
 import org.apache.poi.xwpf.usermodel.*;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.math.BigInteger;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -23,46 +25,25 @@ public class POIWordUtils {
     }
 
     public static XWPFTable addTable(CustomXWPFDocument document, List<Map<String, Object>> data, List<String> headerKeys, List<String> headers, int[] colWidths, Style headerStyle, Style bodyStyle) {
-        Map<String, Object> header = new HashMap<>();
-        for (int i = 0; i < headers.size() && i < headerKeys.size(); i++) {
-            header.put(headerKeys.get(i), headers.get(i));
-        }
-        data.add(0, header);
-        XWPFTable table = document.createTable();
-        XWPFTableRow row = null;
-        XWPFTableCell cell = null;
-        int index = 0;
-        int cellIndex = 0;
-        XWPFRun run = null;
-        String text = null;
-        Style style = null;
-        for (Map<String, Object> rowData : data) {
-            if (index == 0) {
-                row = table.getRow(0);
-            } else {
-                row = table.createRow();
-            }
-            cellIndex = 0;
-            for (String key : headerKeys) {
-                text = rowData.get(key) != null ? String.valueOf(rowData.get(key)) : "";
-                style = bodyStyle;
-                if (index == 0) {
-                    if (cellIndex != 0) {
-                        cell = row.addNewTableCell();
-                    } else {
-                        cell = row.getCell(cellIndex);
-                    }
-                    style = headerStyle;
-                } else {
-                    cell = row.getCell(cellIndex);
-                }
-                setText(cell.addParagraph(), text, style);
-                cellIndex++;
-            }
-            index++;
-        }
-        setTableGridCol(table, colWidths);
-        return table;
+        return addTable(document, data.iterator(), headerKeys, headers, colWidths, headerStyle, bodyStyle);
+    }
+
+    /**
+     * 添加表格：第一行为表头，之后每行对应一条数据，逐行从迭代器读取，不修改数据
+     * <p>
+     * 表头行和数据行各构造一次行结构（单元格宽度、对齐、字体）后复制，并写入 tblGrid 列宽，适合上万行的大表
+     *
+     * @param document    文档
+     * @param data        数据，按 headerKeys 取每列的值，值为null时为空
+     * @param headerKeys  每列取值的键
+     * @param headers     列标题
+     * @param colWidths   列宽（twip）
+     * @param headerStyle 表头样式，可为null
+     * @param bodyStyle   数据样式，可为null
+     * @return 表格
+     */
+    public static XWPFTable addTable(CustomXWPFDocument document, Iterator<? extends Map<String, ?>> data, List<String> headerKeys, List<String> headers, int[] colWidths, Style headerStyle, Style bodyStyle) {
+        return document.createTable(new WordTableWriter(headerKeys, headers, data, colWidths, headerStyle, bodyStyle));
     }
 
     public static void setText(XWPFParagraph paragraph, String text, Style style) {
@@ -90,7 +71,8 @@ public class POIWordUtils {
         for (XWPFTableRow row : table.getRows()) {
             index = 0;
             for (XWPFTableCell cell : row.getTableCells()) {
-                CTTcPr cellPr = cell.getCTTc().addNewTcPr();
+                CTTc ctTc = cell.getCTTc();
+                CTTcPr cellPr = ctTc.isSetTcPr() ? ctTc.getTcPr() : ctTc.addNewTcPr();
                 CTTblWidth tblWidth = cellPr.isSetTcW() ? cellPr.getTcW() : cellPr.addNewTcW();
                 tblWidth.setType(STTblWidth.DXA);
                 tblWidth.setW(new BigInteger(String.valueOf(colWidths[index])));
@@ -98,36 +80,122 @@ public class POIWordUtils {
             }
         }
 
-//        CTTbl ttbl = table.getCTTbl();
-//        CTTblGrid tblGrid = ttbl.getTblGrid() != null ? ttbl.getTblGrid()
-//                : ttbl.addNewTblGrid();
-//        for (int j = 0, len = colWidths.length; j < len; j++) {
-//            CTTblGridCol gridCol = tblGrid.addNewGridCol();
-//            gridCol.setW(new BigInteger(String.valueOf(colWidths[j])));
-//        }
+        CTTbl ttbl = table.getCTTbl();
+        CTTblGrid tblGrid = ttbl.getTblGrid() != null ? ttbl.getTblGrid()
+                : ttbl.addNewTblGrid();
+        tblGrid.setGridColArray(new CTTblGridCol[0]);
+        for (int j = 0, len = colWidths.length; j < len; j++) {
+            CTTblGridCol gridCol = tblGrid.addNewGridCol();
+            gridCol.setW(new BigInteger(String.valueOf(colWidths[j])));
+        }
     }
 
     public static void addPic(CustomXWPFDocument document, String filePath, int width, int height, String picAttch) throws Exception {
-        XWPFParagraph paragraph = document.createParagraph();
-        FileInputStream in = new FileInputStream(filePath);
-        String ind = document.addPictureData(in, XWPFDocument.PICTURE_TYPE_JPEG);
-        System.out.println("pic ID=" + ind);
-        document.createPicture(paragraph, document.getAllPictures().size() - 1, width, height, picAttch);
+        byte[] data = Files.readAllBytes(Paths.get(filePath));
+        String blipId = document.addPicture(data, pictureType(data, filePath));
+        log.debug("pic ID={}", blipId);
+        document.createPicture(document.createParagraph(), blipId, width, height, picAttch);
     }
 
+    /**
+     * 插入图片，宽度为600像素，高度按原图比例缩放
+     * <p>
+     * 图片类型和尺寸从文件头读取，不解码像素；内容相同的图片在文档中只保存一份
+     *
+     * @param document 文档
+     * @param file     PNG、JPEG、GIF 或 BMP 图片
+     * @param picAttch 图片后面追加的字符串
+     * @throws Exception
+     */
     public static void addPic(CustomXWPFDocument document, File file, String picAttch) throws Exception {
-        XWPFParagraph paragraph = document.createParagraph();
-        FileInputStream in = new FileInputStream(file);
-        BufferedImage img = javax.imageio.ImageIO.read(in);
-        int width = img.getWidth();
-        int height = img.getHeight();
+        addPic(document, Files.readAllBytes(file.toPath()), picAttch);
+    }
+
+    public static void addPic(CustomXWPFDocument document, byte[] data, String picAttch) throws Exception {
+        ImageHeader header = imageHeader(data);
         int picWidth = 600;
-        int picHeight = picWidth * height / width;
-        in = new FileInputStream(file);
-        String ind = document.addPictureData(in, XWPFDocument.PICTURE_TYPE_JPEG);
-        log.debug("pic ID={},height={},width={}", ind, picHeight, picWidth);
-//        document.createPicture(paragraph, document.getAllPictures().size() - 1, Units.toEMU(picWidth), Units.toEMU(picHeight), picAttch);
-        document.createPicture(paragraph, document.getAllPictures().size() - 1, picWidth, picHeight, picAttch);
+        int picHeight = header.getWidth() > 0 ? (int) ((long) picWidth * header.getHeight() / header.getWidth()) : 0;
+        String blipId = document.addPicture(data, header.getPictureType());
+        log.debug("pic ID={},height={},width={}", blipId, picHeight, picWidth);
+        document.createPicture(document.createParagraph(), blipId, picWidth, picHeight, picAttch);
+    }
+
+    /**
+     * 按磅值插入图片，尺寸不经过像素换算
+     *
+     * @param document 文档
+     * @param data     PNG、JPEG、GIF 或 BMP 图片
+     * @param widthPt  宽（磅）
+     * @param heightPt 高（磅）
+     * @param picAttch 图片后面追加的字符串
+     * @throws Exception
+     */
+    public static void addPic(CustomXWPFDocument document, byte[] data, double widthPt, double heightPt, String picAttch) throws Exception {
+        String blipId = document.addPicture(data, imageHeader(data).getPictureType());
+        document.createPictureEmu(document.createParagraph(), blipId, Units.toEMU(widthPt), Units.toEMU(heightPt), picAttch);
+    }
+
+    /**
+     * 插入浮动图片，图片不占用段落位置，按 anchor 指定的偏移定位
+     *
+     * @param document 文档
+     * @param data     PNG、JPEG、GIF 或 BMP 图片
+     * @param widthPt  宽（磅）
+     * @param heightPt 高（磅）
+     * @param anchor   位置及环绕方式
+     * @throws Exception
+     */
+    public static void addAnchoredPic(CustomXWPFDocument document, byte[] data, double widthPt, double heightPt, PictureAnchor anchor) throws Exception {
+        String blipId = document.addPicture(data, imageHeader(data).getPictureType());
+        document.createAnchoredPicture(document.createParagraph(), blipId, Units.toEMU(widthPt), Units.toEMU(heightPt), anchor);
+    }
+
+    /**
+     * 图片类型优先从文件头读取，无法识别时（如 EMF、WMF、TIFF）按扩展名取得 Word 支持的类型
+     */
+    private static int pictureType(byte[] data, String fileName) throws OfficeException {
+        ImageHeader header = ImageHeader.read(data);
+        if (header != null) {
+            return header.getPictureType();
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        String ext = name.substring(name.lastIndexOf('.') + 1);
+        switch (ext) {
+            case "emf":
+                return Document.PICTURE_TYPE_EMF;
+            case "wmf":
+                return Document.PICTURE_TYPE_WMF;
+            case "pict":
+                return Document.PICTURE_TYPE_PICT;
+            case "jpeg":
+            case "jpg":
+                return Document.PICTURE_TYPE_JPEG;
+            case "png":
+                return Document.PICTURE_TYPE_PNG;
+            case "dib":
+                return Document.PICTURE_TYPE_DIB;
+            case "gif":
+                return Document.PICTURE_TYPE_GIF;
+            case "tiff":
+            case "tif":
+                return Document.PICTURE_TYPE_TIFF;
+            case "eps":
+                return Document.PICTURE_TYPE_EPS;
+            case "bmp":
+                return Document.PICTURE_TYPE_BMP;
+            case "wpg":
+                return Document.PICTURE_TYPE_WPG;
+            default:
+                throw new OfficeException("7006", "图片格式有误");
+        }
+    }
+
+    private static ImageHeader imageHeader(byte[] data) throws OfficeException {
+        ImageHeader header = ImageHeader.read(data);
+        if (header == null) {
+            throw new OfficeException("7006", "图片格式有误");
+        }
+        return header;
     }
 
     public static XWPFRun addTitle(CustomXWPFDocument document, String style, String title) {
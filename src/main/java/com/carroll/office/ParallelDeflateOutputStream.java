@@ -0,0 +1,288 @@
+package com.carroll.office;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 分块并行压缩（与 pigz 相同的做法）：输入按固定大小分块，各块在执行器中独立压缩为原始 deflate 数据，
+ * 以前一块末尾32KB作为预设字典保证压缩率，非最后一块以 SYNC_FLUSH 结束并按字节对齐，
+ * 各块按顺序拼接即为一个完整的 deflate 流
+ * <p>
+ * 写入方（生成XML的线程）与读取方（写出zip的线程）可以不同：读取方通过 {@link #transferTo(OutputStream)} 按顺序取出压缩块，
+ * 执行器尚未开始压缩的块由读取方直接压缩，读取方不依赖执行器的空闲线程；
+ * 等待读取的块数有上限，达到上限时写入方等待读取方取出
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ParallelDeflateOutputStream extends OutputStream {
+
+    static final int BLOCK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    /**
+     * 每个流同时在压缩中的块数上限，超过时在写入线程中直接压缩，避免执行器繁忙时占用过多内存或互相等待
+     */
+    private static final int MAX_PENDING_BLOCKS = 16;
+    /**
+     * 等待读取的块数上限，即每个流在内存中保留的数据不超过 32 * 128KB
+     */
+    private static final int MAX_QUEUED_BLOCKS = 32;
+
+    private static final FutureTask<byte[]> END = completed(new byte[0]);
+
+    private final Executor executor;
+    private final int level;
+    private final BlockingQueue<FutureTask<byte[]>> blocks = new LinkedBlockingQueue<FutureTask<byte[]>>(MAX_QUEUED_BLOCKS);
+    private final Semaphore pending = new Semaphore(MAX_PENDING_BLOCKS);
+    private final CRC32 crc = new CRC32();
+
+    private byte[] buffer = new byte[BLOCK_SIZE];
+    private int count;
+    private byte[] previous;
+    private int previousLength;
+    private long size;
+    private boolean closed;
+    private OutputStream direct;
+    private long compressedSize;
+
+    private volatile boolean cancelled;
+
+    /**
+     * @param executor 压缩块的执行器
+     * @param level    压缩级别，如 {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    ParallelDeflateOutputStream(Executor executor, int level) {
+        this.executor = executor;
+        this.level = level;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            submit(false);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                submit(false);
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * 提交最后一块，之后不能再写入
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            submit(true);
+            enqueue(END);
+        }
+    }
+
+    /**
+     * 写入方出错时调用，读取方会收到该异常
+     */
+    void abort(final Throwable e) {
+        closed = true;
+        FutureTask<byte[]> failed = new FutureTask<byte[]>(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                if (e instanceof Exception) {
+                    throw (Exception) e;
+                }
+                throw new IOException(e);
+            }
+        });
+        failed.run();
+        //出错前的块已无用，丢弃后放入异常，不等待读取方
+        blocks.clear();
+        blocks.offer(failed);
+    }
+
+    /**
+     * 读取方放弃读取时调用：丢弃未读取的块，等待中的写入方随后以异常结束
+     */
+    void cancel() {
+        cancelled = true;
+        blocks.clear();
+    }
+
+    /**
+     * 写入方与读取方在同一线程时调用，之后的块压缩后直接写入 out，不经过队列
+     */
+    void writeThrough(OutputStream out) {
+        this.direct = out;
+    }
+
+    /**
+     * 按顺序等待各压缩块并写出，直到最后一块
+     *
+     * @return 压缩后的字节数
+     */
+    long transferTo(OutputStream out) throws IOException {
+        try {
+            while (true) {
+                FutureTask<byte[]> block = blocks.take();
+                if (block == END) {
+                    break;
+                }
+                //执行器尚未开始压缩时在当前线程压缩，已开始时等待其完成
+                block.run();
+                byte[] data = block.get();
+                out.write(data);
+                compressedSize += data.length;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compressed block");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+        return compressedSize;
+    }
+
+    /**
+     * @return 未压缩数据的CRC32，写入方关闭流后有效
+     */
+    long getCrc() {
+        return crc.getValue();
+    }
+
+    /**
+     * @return 未压缩的字节数，写入方关闭流后有效
+     */
+    long getSize() {
+        return size;
+    }
+
+    private void submit(final boolean last) throws IOException {
+        crc.update(buffer, 0, count);
+        size += count;
+        final byte[] input = buffer;
+        final int length = count;
+        final byte[] dictionary = previous;
+        final int dictionaryLength = previousLength;
+        if (direct != null) {
+            byte[] data = deflate(input, length, dictionary, dictionaryLength, last, level);
+            direct.write(data);
+            compressedSize += data.length;
+        } else if (!last && pending.tryAcquire()) {
+            FutureTask<byte[]> block = new FutureTask<byte[]>(new Callable<byte[]>() {
+                @Override
+                public byte[] call() {
+                    try {
+                        return deflate(input, length, dictionary, dictionaryLength, false, level);
+                    } finally {
+                        pending.release();
+                    }
+                }
+            });
+            enqueue(block);
+            try {
+                executor.execute(block);
+            } catch (RejectedExecutionException e) {
+                //由读取方压缩
+            }
+        } else {
+            //最后一块或压缩跟不上写入时，在当前线程压缩
+            enqueue(completed(deflate(input, length, dictionary, dictionaryLength, last, level)));
+        }
+        previous = input;
+        previousLength = length;
+        buffer = new byte[BLOCK_SIZE];
+        count = 0;
+    }
+
+    /**
+     * 放入队列，队列已满时等待读取方取出
+     */
+    private void enqueue(FutureTask<byte[]> block) throws IOException {
+        if (cancelled) {
+            throw new IOException("Stream cancelled by reader");
+        }
+        try {
+            blocks.put(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for reader");
+        }
+    }
+
+    private static FutureTask<byte[]> completed(final byte[] data) {
+        FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+                return data;
+            }
+        });
+        task.run();
+        return task;
+    }
+
+    /**
+     * 压缩一块为原始 deflate 数据
+     *
+     * @param dictionary 前一块的数据，取末尾32KB作为字典，第一块为null
+     * @param last       是否最后一块，最后一块以 FINISH 结束，其余以 SYNC_FLUSH 结束
+     */
+    static byte[] deflate(byte[] input, int length, byte[] dictionary, int dictionaryLength, boolean last, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null && dictionaryLength > 0) {
+                int n = Math.min(DICTIONARY_SIZE, dictionaryLength);
+                deflater.setDictionary(dictionary, dictionaryLength - n, n);
+            }
+            deflater.setInput(input, 0, length);
+            byte[] out = new byte[length + (length >> 3) + 64];
+            int total = 0;
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (total == out.length) {
+                        out = Arrays.copyOf(out, out.length << 1);
+                    }
+                    total += deflater.deflate(out, total, out.length - total);
+                }
+            } else {
+                int n;
+                do {
+                    if (total == out.length) {
+                        out = Arrays.copyOf(out, out.length << 1);
+                    }
+                    n = deflater.deflate(out, total, out.length - total, Deflater.SYNC_FLUSH);
+                    total += n;
+                } while (total == out.length);
+            }
+            return Arrays.copyOf(out, total);
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 并行导出：以POI生成的只含表头的工作薄为模板，各sheet的数据行在执行器中独立生成XML并分块并行压缩，
+ * 最后按模板中的顺序组装成 .xlsx
+ * <p>
+ * 数据行的格式与 {@link ExportExcelUtils#fillRowData(org.apache.poi.ss.usermodel.Sheet, Iterable, Integer[], int)} 一致：
+ * 所有值按文本写入（内联字符串），行高19磅，使用同一个行样式
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ParallelExport {
+
+    private static final String SHEET_DATA_END = "</sheetData>";
+    /**
+     * 行高380缇，即19磅
+     */
+    private static final String ROW_HEIGHT = "19";
+
+    private ParallelExport() {
+    }
+
+    /**
+     * @param template     模板工作薄（.xlsx）的字节，各sheet已填好表头
+     * @param sheetData    各sheet的数据，顺序与模板中的sheet一致
+     * @param firstRows    各sheet第一行数据的行索引
+     * @param columnCount  列数
+     * @param styleIndex   数据行的样式索引
+     * @param out          输出流，不关闭
+     * @param executor     执行器
+     * @param metrics      监控，为null时不统计；各sheet按写出顺序在写出后记录
+     */
+    static void write(byte[] template, List<? extends Iterable<Object[]>> sheetData, int[] firstRows, int columnCount,
+                      int styleIndex, OutputStream out, Executor executor, MetricsRecorder metrics) throws Exception {
+        Map<String, byte[]> parts = readParts(template);
+        Map<String, SheetTask> sheets = new LinkedHashMap<String, SheetTask>();
+        List<String> sheetParts = new ArrayList<String>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<CompletableFuture<Void>>();
+        try {
+            for (int i = 0; i < sheetData.size(); i++) {
+                String name = "xl/worksheets/sheet" + (i + 1) + ".xml";
+                byte[] xml = parts.get(name);
+                if (xml == null) {
+                    throw new IllegalStateException("Template part " + name + " not found");
+                }
+                ParallelDeflateOutputStream stream = new ParallelDeflateOutputStream(executor, Deflater.DEFAULT_COMPRESSION);
+                SheetTask task = new SheetTask(new String(xml, StandardCharsets.UTF_8), sheetData.get(i), firstRows[i], columnCount, styleIndex, stream);
+                sheets.put(name, task);
+                sheetParts.add(name);
+                tasks.add(CompletableFuture.runAsync(task, executor));
+            }
+
+            ZipStreamWriter zip = new ZipStreamWriter(out);
+            for (Map.Entry<String, byte[]> part : parts.entrySet()) {
+                zip.putEntry(part.getKey());
+                SheetTask sheet = sheets.get(part.getKey());
+                if (sheet != null) {
+                    long compressedSize = sheet.transferTo(zip.entryStream());
+                    zip.closeEntry(sheet.stream.getCrc(), compressedSize, sheet.stream.getSize());
+                    if (metrics != null) {
+                        metrics.sheet(sheetParts.indexOf(part.getKey()), null, sheet.rowCount, sheet.rowCount * columnCount, sheet.elapsedNanos);
+                    }
+                } else {
+                    byte[] data = part.getValue();
+                    byte[] compressed = ParallelDeflateOutputStream.deflate(data, data.length, null, 0, true, Deflater.DEFAULT_COMPRESSION);
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    zip.write(compressed, 0, compressed.length);
+                    zip.closeEntry(crc.getValue(), compressed.length, data.length);
+                }
+            }
+            zip.finish();
+        } finally {
+            //出错时未开始的sheet不再生成，生成中的sheet在下一次写入压缩块时结束
+            for (CompletableFuture<Void> task : tasks) {
+                task.cancel(false);
+            }
+            for (SheetTask sheet : sheets.values()) {
+                sheet.stream.cancel();
+            }
+        }
+    }
+
+    /**
+     * 按zip中的顺序读取各部件
+     */
+    static Map<String, byte[]> readParts(byte[] template) throws IOException {
+        Map<String, byte[]> parts = new LinkedHashMap<String, byte[]>();
+        ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(template));
+        try {
+            ZipEntry entry;
+            byte[] buffer = new byte[8192];
+            while ((entry = zin.getNextEntry()) != null) {
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
+                int n;
+                while ((n = zin.read(buffer)) > 0) {
+                    data.write(buffer, 0, n);
+                }
+                parts.put(entry.getName(), data.toByteArray());
+            }
+        } finally {
+            zin.close();
+        }
+        return parts;
+    }
+
+    /**
+     * 生成一个sheet的XML：模板中 &lt;/sheetData&gt; 之前的内容 + 数据行 + 模板剩余内容
+     */
+    private static final class SheetTask implements Runnable {
+        private final String template;
+        private final Iterable<Object[]> rows;
+        private final int firstRow;
+        private final int columnCount;
+        private final int styleIndex;
+        private final ParallelDeflateOutputStream stream;
+        private final AtomicBoolean started = new AtomicBoolean();
+        /**
+         * 写出zip的线程，即创建任务的线程
+         */
+        private final Thread reader = Thread.currentThread();
+        /**
+         * 生成完成后有效，由写出zip的线程在写出该sheet后读取
+         */
+        private volatile long rowCount;
+        private volatile long elapsedNanos;
+
+        SheetTask(String template, Iterable<Object[]> rows, int firstRow, int columnCount, int styleIndex, ParallelDeflateOutputStream stream) {
+            this.template = template;
+            this.rows = rows;
+            this.firstRow = firstRow;
+            this.columnCount = columnCount;
+            this.styleIndex = styleIndex;
+            this.stream = stream;
+        }
+
+        @Override
+        public void run() {
+            //执行器在提交的线程中直接运行任务时（如 CallerRunsPolicy）不在此生成，否则压缩块达到上限后无人读取，改为写出时生成
+            if (Thread.currentThread() != reader && started.compareAndSet(false, true)) {
+                generate();
+            }
+        }
+
+        /**
+         * 按顺序写出该sheet的压缩数据；执行器尚未开始生成该sheet时（线程都被占用，或调用线程就是执行器的线程），
+         * 在当前线程生成并直接写出，不等待执行器
+         *
+         * @return 压缩后的字节数
+         */
+        long transferTo(OutputStream out) throws IOException {
+            if (started.compareAndSet(false, true)) {
+                stream.writeThrough(out);
+                generate();
+            }
+            return stream.transferTo(out);
+        }
+
+        private void generate() {
+            long start = System.nanoTime();
+            try {
+                int split = template.lastIndexOf(SHEET_DATA_END);
+                if (split < 0) {
+                    throw new IllegalStateException("Template sheet has no " + SHEET_DATA_END);
+                }
+                Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+                //行数在生成前未知，去掉可选的 dimension 元素
+                writer.write(template.substring(0, split).replaceFirst("<dimension [^>]*/>", ""));
+                writeRows(writer);
+                writer.write(template, split, template.length() - split);
+                elapsedNanos = System.nanoTime() - start;
+                writer.close();
+            } catch (Throwable e) {
+                stream.abort(e);
+            }
+        }
+
+        private void writeRows(Writer writer) throws IOException {
+            String[] columns = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = CellReference.convertNumToColString(i);
+            }
+            String cellSuffix = "\" s=\"" + styleIndex + "\" t=\"inlineStr\"><is><t";
+            int rowNum = firstRow + 1;
+            long count = 0;
+            for (Object[] data : rows) {
+                count++;
+                String r = Integer.toString(rowNum++);
+                writer.write("<row r=\"");
+                writer.write(r);
+                writer.write("\" ht=\"" + ROW_HEIGHT + "\" customHeight=\"1\">");
+                for (int i = 0; i < columnCount; i++) {
+                    String text = data[i] == null ? "" : String.valueOf(data[i]);
+                    writer.write("<c r=\"");
+                    writer.write(columns[i]);
+                    writer.write(r);
+                    writer.write(cellSuffix);
+                    if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+                        writer.write(" xml:space=\"preserve\"");
+                    }
+                    writer.write('>');
+                    writeEscaped(writer, text);
+                    writer.write("</t></is></c>");
+                }
+                writer.write("</row>");
+            }
+            rowCount = count;
+        }
+
+        /**
+         * 转义XML特殊字符，XML不允许的控制字符按 Excel 的方式编码为 _xHHHH_，
+         * 文本中原有的 _xHHHH_ 把开头的下划线编码为 _x005F_，读取时不会被解码为字符
+         */
+        private static void writeEscaped(Writer writer, String text) throws IOException {
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                String replacement;
+                if (ch == '<') {
+                    replacement = "&lt;";
+                } else if (ch == '>') {
+                    replacement = "&gt;";
+                } else if (ch == '&') {
+                    replacement = "&amp;";
+                } else if (ch < 0x20 && ch != '\t' && ch != '\n' && ch != '\r' || ch == 0xFFFE || ch == 0xFFFF) {
+                    replacement = String.format("_x%04X_", (int) ch);
+                } else if (ch == '_' && isEscapeSequence(text, i)) {
+                    replacement = "_x005F_";
+                } else {
+                    continue;
+                }
+                writer.write(text, start, i - start);
+                writer.write(replacement);
+                start = i + 1;
+            }
+            writer.write(text, start, text.length() - start);
+        }
+
+        /**
+         * @return text 在 index 处是否为 _xHHHH_
+         */
+        private static boolean isEscapeSequence(String text, int index) {
+            if (index + 6 >= text.length() || text.charAt(index + 1) != 'x' || text.charAt(index + 6) != '_') {
+                return false;
+            }
+            for (int i = index + 2; i < index + 6; i++) {
+                char ch = text.charAt(i);
+                if (!(ch >= '0' && ch <= '9' || ch >= 'A' && ch <= 'F' || ch >= 'a' && ch <= 'f')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.carroll.office;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 多sheet并行读取：.xlsx 在调用线程中加载共享字符串表和样式格式，各sheet的XML在执行器中并行解析；
+ * .xls 的记录流只能顺序读取，退化为单线程读取
+ * <p>
+ * 调用线程按顺序等待各sheet的结果，等待前先在当前线程解析执行器尚未开始的sheet，
+ * 因此执行器可以是有界的、拒绝任务的，调用线程也可以是该执行器自身的线程，不会因等待排在自己之后的任务而死锁
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ParallelSheetReader {
+
+    private ParallelSheetReader() {
+    }
+
+    /**
+     * 任一sheet失败时，未开始的sheet不再解析，解析中的sheet在下一行结束，全部结束后才关闭各sheet的流
+     *
+     * @param executor 执行器，任务被拒绝或未执行时由调用线程解析
+     * @param metrics  监控，为null时不统计；各sheet按顺序在得到结果后记录
+     */
+    static List<List<List<Object>>> read(OPCPackage pkg, int startRowIndex, DecimalFormat df, Executor executor, MetricsRecorder metrics) throws Exception {
+        XSSFReader reader = new XSSFReader(pkg);
+        XSSFStreamingReader.Shared shared = new XSSFStreamingReader.Shared(pkg, reader);
+        List<InputStream> streams = new ArrayList<InputStream>();
+        List<SheetTask> sheetTasks = new ArrayList<SheetTask>();
+        List<FutureTask<List<List<Object>>>> tasks = new ArrayList<FutureTask<List<List<Object>>>>();
+        try {
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            while (sheets.hasNext()) {
+                streams.add(sheets.next());
+            }
+            for (int i = 0; i < streams.size(); i++) {
+                SheetTask sheetTask = new SheetTask(shared, streams.get(i), i, startRowIndex, df);
+                FutureTask<List<List<Object>>> task = new FutureTask<List<List<Object>>>(sheetTask);
+                sheetTasks.add(sheetTask);
+                tasks.add(task);
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    //由调用线程解析
+                }
+            }
+            List<List<List<Object>>> result = new ArrayList<List<List<Object>>>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                FutureTask<List<List<Object>>> task = tasks.get(i);
+                //执行器尚未开始时在当前线程解析，已开始或已完成时不做任何事
+                task.run();
+                result.add(task.get());
+                if (metrics != null) {
+                    SheetTask sheetTask = sheetTasks.get(i);
+                    metrics.sheet(i, null, result.get(i).size(), sheetTask.cells, sheetTask.elapsedNanos);
+                }
+            }
+            return result;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            //流在解析线程中使用，须等解析中的sheet结束后再关闭
+            for (SheetTask sheetTask : sheetTasks) {
+                sheetTask.cancel();
+            }
+            for (SheetTask sheetTask : sheetTasks) {
+                sheetTask.await();
+            }
+            for (InputStream stream : streams) {
+                closeQuietly(stream);
+            }
+        }
+    }
+
+    /**
+     * @param metrics 监控，为null时不统计
+     */
+    static List<List<List<Object>>> read(NPOIFSFileSystem fs, int startRowIndex, DecimalFormat df, MetricsRecorder metrics) throws Exception {
+        final List<List<List<Object>>> result = new ArrayList<List<List<Object>>>();
+        final DecimalFormat format = df != null ? df : new DecimalFormat("0");
+        RowSink sink = new RowSink() {
+            @Override
+            public void accept(int sheetIndex, RawRow row) {
+                while (result.size() <= sheetIndex) {
+                    result.add(new ArrayList<List<Object>>());
+                }
+                result.get(sheetIndex).add(row.toValues(format));
+            }
+        };
+        HSSFEventReader reader = new HSSFEventReader(fs.getRoot(), null, -1, startRowIndex, metrics != null ? metrics.sink(sink) : sink);
+        try {
+            while (reader.step()) {
+                //行在step中写入结果
+            }
+        } finally {
+            reader.close();
+            if (metrics != null) {
+                metrics.sheetDone();
+            }
+        }
+        while (result.size() < reader.getSheetCount()) {
+            result.add(new ArrayList<List<Object>>());
+        }
+        return result;
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            //ignore
+        }
+    }
+
+    private static final class SheetTask implements Callable<List<List<Object>>> {
+        private final XSSFStreamingReader.Shared shared;
+        private final InputStream stream;
+        private final int sheetIndex;
+        private final int startRowIndex;
+        private final DecimalFormat df;
+        /**
+         * 解析完成后有效，由取得结果的线程读取
+         */
+        long cells;
+        long elapsedNanos;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile boolean cancelled;
+
+        SheetTask(XSSFStreamingReader.Shared shared, InputStream stream, int sheetIndex, int startRowIndex, DecimalFormat df) {
+            this.shared = shared;
+            this.stream = stream;
+            this.sheetIndex = sheetIndex;
+            this.startRowIndex = startRowIndex;
+            this.df = df;
+        }
+
+        /**
+         * 未开始的sheet不再解析，解析中的sheet在下一行结束
+         */
+        void cancel() {
+            cancelled = true;
+            if (started.compareAndSet(false, true)) {
+                finished.countDown();
+            }
+        }
+
+        /**
+         * 等待解析结束，期间的中断在结束后恢复
+         */
+        void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public List<List<Object>> call() throws Exception {
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            try {
+                return parse();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        private List<List<Object>> parse() throws Exception {
+            long start = System.nanoTime();
+            //DecimalFormat 非线程安全，每个sheet使用各自的副本
+            final DecimalFormat format = df != null ? (DecimalFormat) df.clone() : new DecimalFormat("0");
+            final List<List<Object>> rows = new ArrayList<List<Object>>();
+            XSSFStreamingReader reader = new XSSFStreamingReader(shared, stream, sheetIndex, startRowIndex, new RowSink() {
+                @Override
+                public void accept(int sheetIndex, RawRow row) {
+                    if (cancelled) {
+                        throw new CancellationException();
+                    }
+                    rows.add(row.toValues(format));
+                    cells += row.size();
+                }
+            });
+            try {
+                while (reader.step()) {
+                    //行在step中写入结果
+                }
+            } finally {
+                reader.close();
+            }
+            elapsedNanos = System.nanoTime() - start;
+            return rows;
+        }
+    }
+}
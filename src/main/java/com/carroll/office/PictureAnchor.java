@@ -0,0 +1,84 @@
+package com.carroll.office;
+
+/**
+ * 浮动图片的位置及环绕方式，偏移单位为EMU（1磅 = 12700 EMU）
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class PictureAnchor {
+    /**
+     * 水平位置的参照物：margin、page、column、character、leftMargin、rightMargin、insideMargin、outsideMargin
+     */
+    private String relativeFromH = "column";
+    private long offsetX;
+    /**
+     * 垂直位置的参照物：margin、page、paragraph、line、topMargin、bottomMargin、insideMargin、outsideMargin
+     */
+    private String relativeFromV = "paragraph";
+    private long offsetY;
+    /**
+     * 是否衬于文字下方，为false时浮于文字上方
+     */
+    private boolean behindText;
+    /**
+     * 文字是否环绕图片（四周型），为false时不环绕
+     */
+    private boolean wrapText;
+
+    public PictureAnchor() {
+    }
+
+    public PictureAnchor(long offsetX, long offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    public String getRelativeFromH() {
+        return relativeFromH;
+    }
+
+    public void setRelativeFromH(String relativeFromH) {
+        this.relativeFromH = relativeFromH;
+    }
+
+    public long getOffsetX() {
+        return offsetX;
+    }
+
+    public void setOffsetX(long offsetX) {
+        this.offsetX = offsetX;
+    }
+
+    public String getRelativeFromV() {
+        return relativeFromV;
+    }
+
+    public void setRelativeFromV(String relativeFromV) {
+        this.relativeFromV = relativeFromV;
+    }
+
+    public long getOffsetY() {
+        return offsetY;
+    }
+
+    public void setOffsetY(long offsetY) {
+        this.offsetY = offsetY;
+    }
+
+    public boolean isBehindText() {
+        return behindText;
+    }
+
+    public void setBehindText(boolean behindText) {
+        this.behindText = behindText;
+    }
+
+    public boolean isWrapText() {
+        return wrapText;
+    }
+
+    public void setWrapText(boolean wrapText) {
+        this.wrapText = wrapText;
+    }
+}
@@ -0,0 +1,114 @@
+package com.carroll.office;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按 {@link ReadOptions} 投影后交给行回调：按表头名称投影时，读到的第一行为表头，据此确定列索引并通知读取器只解析这些列
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ProjectingSink implements RowSink {
+
+    private final ReadFilter filter;
+    private final RowHandler handler;
+    private final DecimalFormat df;
+    private final String[] columnNames;
+    private int[] projection;
+    /**
+     * 列索引 -> 结果中的位置，-1 表示未选中
+     */
+    private int[] positions;
+
+    ProjectingSink(ReadOptions options, ReadFilter filter, RowHandler handler) {
+        this.filter = filter;
+        this.handler = handler;
+        this.df = options.getNumberFormat() != null ? options.getNumberFormat() : new DecimalFormat("0");
+        this.columnNames = options.getColumnNames();
+        if (columnNames == null && options.getColumns() != null) {
+            setProjection(options.getColumns().clone());
+        }
+    }
+
+    /**
+     * 根据读取选项创建读取器使用的过滤条件
+     */
+    static ReadFilter createFilter(ReadOptions options) {
+        if (options.getColumnNames() != null && options.getHeaderRowIndex() >= options.getStartRowIndex()) {
+            throw new IllegalArgumentException("headerRowIndex (" + options.getHeaderRowIndex() + ") must be less than startRowIndex (" + options.getStartRowIndex() + ")");
+        }
+        int headerRow = options.getColumnNames() != null ? options.getHeaderRowIndex() : -1;
+        return new ReadFilter(options.getStartRowIndex(), options.getMaxRows(), headerRow, options.getRowFilter());
+    }
+
+    @Override
+    public void accept(int sheetIndex, RawRow row) throws Exception {
+        if (columnNames != null && projection == null) {
+            resolveHeader(row);
+            return;
+        }
+        if (projection == null) {
+            handler.handle(sheetIndex, row.getRowIndex(), row.toValues(df));
+            return;
+        }
+        List<Object> values = new ArrayList<Object>(projection.length);
+        for (int i = 0; i < projection.length; i++) {
+            values.add(null);
+        }
+        for (int i = 0; i < row.size(); i++) {
+            int column = row.getColumn(i);
+            if (column < positions.length && positions[column] >= 0) {
+                values.set(positions[column], row.getValue(i, df));
+            }
+        }
+        handler.handle(sheetIndex, row.getRowIndex(), values);
+    }
+
+    private void resolveHeader(RawRow row) throws OfficeException {
+        int[] columns = new int[columnNames.length];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < row.size(); i++) {
+            Object value = row.getValue(i, df);
+            if (value == null) {
+                continue;
+            }
+            String title = String.valueOf(value).trim();
+            for (int k = 0; k < columnNames.length; k++) {
+                if (columns[k] < 0 && title.equals(columnNames[k])) {
+                    columns[k] = row.getColumn(i);
+                    break;
+                }
+            }
+        }
+        for (int k = 0; k < columns.length; k++) {
+            if (columns[k] < 0) {
+                throw new OfficeException("7004", "表头中不存在列：" + columnNames[k]);
+            }
+        }
+        setProjection(columns);
+    }
+
+    private void setProjection(int[] columns) {
+        int max = -1;
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("Column index (" + column + ") must not be negative");
+            }
+            max = Math.max(max, column);
+        }
+        int[] map = new int[max + 1];
+        Arrays.fill(map, -1);
+        for (int k = 0; k < columns.length; k++) {
+            if (map[columns[k]] >= 0) {
+                throw new IllegalArgumentException("Column " + columns[k] + " is projected more than once");
+            }
+            map[columns[k]] = k;
+        }
+        this.projection = columns;
+        this.positions = map;
+        filter.setColumns(columns);
+    }
+}
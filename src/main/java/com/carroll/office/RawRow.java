@@ -0,0 +1,150 @@
+package com.carroll.office;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 流式读取时的行缓冲，保存一行中各单元格的原始值，按行复用
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class RawRow {
+
+    static final byte STRING = 1;
+    static final byte NUMERIC = 2;
+    static final byte BOOLEAN = 3;
+    static final byte BLANK = 4;
+    static final byte ERROR = 5;
+
+    private boolean date1904;
+    private int rowIndex;
+    private int size;
+    private int[] columns = new int[16];
+    private byte[] types = new byte[16];
+    private double[] numbers = new double[16];
+    private String[] texts = new String[16];
+    private String[] formats = new String[16];
+
+    void reset(int rowIndex) {
+        this.rowIndex = rowIndex;
+        Arrays.fill(texts, 0, size, null);
+        Arrays.fill(formats, 0, size, null);
+        this.size = 0;
+    }
+
+    void addString(int column, String text) {
+        int i = next(column, STRING);
+        texts[i] = text;
+    }
+
+    void addNumeric(int column, double value, String format) {
+        int i = next(column, NUMERIC);
+        numbers[i] = value;
+        formats[i] = format;
+    }
+
+    void addBoolean(int column, boolean value) {
+        int i = next(column, BOOLEAN);
+        numbers[i] = value ? 1 : 0;
+    }
+
+    void addBlank(int column) {
+        next(column, BLANK);
+    }
+
+    void addError(int column) {
+        next(column, ERROR);
+    }
+
+    private int next(int column, byte type) {
+        if (size == columns.length) {
+            int capacity = size << 1;
+            columns = Arrays.copyOf(columns, capacity);
+            types = Arrays.copyOf(types, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            formats = Arrays.copyOf(formats, capacity);
+        }
+        columns[size] = column;
+        types[size] = type;
+        return size++;
+    }
+
+    void setDate1904(boolean date1904) {
+        this.date1904 = date1904;
+    }
+
+    boolean isDate1904() {
+        return date1904;
+    }
+
+    int getRowIndex() {
+        return rowIndex;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getColumn(int i) {
+        return columns[i];
+    }
+
+    byte getType(int i) {
+        return types[i];
+    }
+
+    double getNumber(int i) {
+        return numbers[i];
+    }
+
+    String getText(int i) {
+        return texts[i];
+    }
+
+    String getFormat(int i) {
+        return formats[i];
+    }
+
+    /**
+     * 转换为与 {@link ExcelUtils#getCellValue(org.apache.poi.ss.usermodel.Cell, DecimalFormat)} 一致的行数据，
+     * 列范围为本行第一个单元格到最后一个单元格，中间缺失的单元格为null
+     */
+    List<Object> toValues(DecimalFormat df) {
+        if (size == 0) {
+            return new ArrayList<Object>(0);
+        }
+        int first = columns[0];
+        int last = columns[0];
+        for (int i = 1; i < size; i++) {
+            first = Math.min(first, columns[i]);
+            last = Math.max(last, columns[i]);
+        }
+        List<Object> values = new ArrayList<Object>(last - first + 1);
+        for (int y = first; y <= last; y++) {
+            values.add(null);
+        }
+        for (int i = 0; i < size; i++) {
+            values.set(columns[i] - first, getValue(i, df));
+        }
+        return values;
+    }
+
+    Object getValue(int i, DecimalFormat df) {
+        switch (types[i]) {
+            case STRING:
+                return texts[i];
+            case NUMERIC:
+                return CellDecoder.DEFAULT.decode(numbers[i], formats[i], date1904, df);
+            case BOOLEAN:
+                return numbers[i] != 0;
+            case BLANK:
+                return "";
+            default:
+                return null;
+        }
+    }
+}
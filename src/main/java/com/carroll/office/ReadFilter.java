@@ -0,0 +1,91 @@
+package com.carroll.office;
+
+import java.util.function.IntPredicate;
+
+/**
+ * 流式读取器使用的行列过滤条件，在解析过程中判断是否需要处理某行、某个单元格
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ReadFilter {
+
+    /**
+     * 跳过该行
+     */
+    static final int SKIP = 0;
+    /**
+     * 读取该行
+     */
+    static final int READ = 1;
+    /**
+     * 行范围已读完，后续行都不再需要
+     */
+    static final int END = 2;
+
+    private final int startRow;
+    private final int endRow;
+    private final int headerRow;
+    private final IntPredicate rowFilter;
+    /**
+     * 各列是否需要，为null时读取所有列
+     */
+    private boolean[] columns;
+
+    /**
+     * @param startRow  相对于sheet第一行的起始行
+     * @param maxRows   最多读取的行数，小于0时不限制
+     * @param headerRow 需要额外读取的表头行（相对于sheet第一行），小于0时没有
+     * @param rowFilter 行过滤器，参数为行在sheet中的行号，可以为null
+     */
+    ReadFilter(int startRow, int maxRows, int headerRow, IntPredicate rowFilter) {
+        this.startRow = startRow;
+        this.endRow = maxRows < 0 ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) startRow + maxRows);
+        this.headerRow = headerRow;
+        this.rowFilter = rowFilter;
+    }
+
+    /**
+     * 只指定起始行，读取其后所有行的所有列
+     */
+    static ReadFilter fromRow(int startRow) {
+        return new ReadFilter(startRow, -1, -1, null);
+    }
+
+    /**
+     * @param relativeRow 相对于sheet第一行的行号
+     * @param rowIndex    行在sheet中的行号
+     * @return {@link #SKIP}、{@link #READ} 或 {@link #END}
+     */
+    int rowState(int relativeRow, int rowIndex) {
+        if (relativeRow == headerRow) {
+            return READ;
+        } else if (relativeRow < startRow) {
+            return SKIP;
+        } else if (relativeRow >= endRow) {
+            return END;
+        } else if (rowFilter != null && !rowFilter.test(rowIndex)) {
+            return SKIP;
+        }
+        return READ;
+    }
+
+    boolean acceptsColumn(int column) {
+        return columns == null || (column < columns.length && columns[column]);
+    }
+
+    /**
+     * 设置需要读取的列，按表头名称投影时在读到表头后设置
+     */
+    void setColumns(int[] projection) {
+        int max = -1;
+        for (int column : projection) {
+            max = Math.max(max, column);
+        }
+        boolean[] wanted = new boolean[max + 1];
+        for (int column : projection) {
+            wanted[column] = true;
+        }
+        this.columns = wanted;
+    }
+}
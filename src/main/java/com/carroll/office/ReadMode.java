@@ -0,0 +1,22 @@
+package com.carroll.office;
+
+/**
+ * 内存预算检查后选定的读取方式
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public enum ReadMode {
+    /**
+     * 预计内存在预算内，以DOM方式（HSSFWorkbook/XSSFWorkbook）读取
+     */
+    DOM,
+    /**
+     * DOM方式超出预算，改用流式读取，取值规则不变
+     */
+    STREAMING,
+    /**
+     * 流式读取也超出预算，拒绝读取
+     */
+    REJECT
+}
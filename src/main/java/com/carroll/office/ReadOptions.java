@@ -0,0 +1,126 @@
+package com.carroll.office;
+
+import java.text.DecimalFormat;
+import java.util.function.IntPredicate;
+
+/**
+ * 读取选项：列投影（按列索引或表头名称）与行范围，未选中的单元格在解析时直接跳过，不做取值和格式化，
+ * 行范围读完后立即停止解析
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class ReadOptions {
+
+    /**
+     * sheet索引
+     */
+    private int sheetIndex;
+
+    /**
+     * 相对于sheet第一行的起始行
+     */
+    private int startRowIndex;
+
+    /**
+     * 行范围的行数：读取相对行号在 [startRowIndex, startRowIndex + maxRows) 内的行，中间缺失的空行和被行过滤器跳过的行也计入，小于0时不限制
+     */
+    private int maxRows = -1;
+
+    /**
+     * 行过滤器，参数为行在sheet中的行号，为null时读取所有行
+     */
+    private IntPredicate rowFilter;
+
+    /**
+     * 按列索引投影，结果中各列按此顺序排列
+     */
+    private int[] columns;
+
+    /**
+     * 按表头名称投影，结果中各列按此顺序排列，设置后 columns 无效
+     */
+    private String[] columnNames;
+
+    /**
+     * 表头所在行（相对于sheet第一行），按表头名称投影时使用，需小于起始行
+     */
+    private int headerRowIndex;
+
+    /**
+     * 常规格式数值的格式化，为null时使用"0"
+     */
+    private DecimalFormat numberFormat;
+
+    public ReadOptions() {
+    }
+
+    public ReadOptions(int sheetIndex, int startRowIndex) {
+        this.sheetIndex = sheetIndex;
+        this.startRowIndex = startRowIndex;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public void setSheetIndex(int sheetIndex) {
+        this.sheetIndex = sheetIndex;
+    }
+
+    public int getStartRowIndex() {
+        return startRowIndex;
+    }
+
+    public void setStartRowIndex(int startRowIndex) {
+        this.startRowIndex = startRowIndex;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public void setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    public IntPredicate getRowFilter() {
+        return rowFilter;
+    }
+
+    public void setRowFilter(IntPredicate rowFilter) {
+        this.rowFilter = rowFilter;
+    }
+
+    public int[] getColumns() {
+        return columns;
+    }
+
+    public void setColumns(int... columns) {
+        this.columns = columns;
+    }
+
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    public void setColumnNames(String... columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    public int getHeaderRowIndex() {
+        return headerRowIndex;
+    }
+
+    public void setHeaderRowIndex(int headerRowIndex) {
+        this.headerRowIndex = headerRowIndex;
+    }
+
+    public DecimalFormat getNumberFormat() {
+        return numberFormat;
+    }
+
+    public void setNumberFormat(DecimalFormat numberFormat) {
+        this.numberFormat = numberFormat;
+    }
+}
@@ -0,0 +1,147 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+/**
+ * 结果集各列的取值方式和单元格写入器，按 {@link ResultSetMetaData} 中的列类型预先选定
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ResultSetColumns {
+
+    private static final int READ_OBJECT = 0;
+    private static final int READ_DATE = 1;
+    private static final int READ_TIMESTAMP = 2;
+    private static final int READ_STRING = 3;
+    private static final int READ_BOOLEAN = 4;
+    private static final int READ_BITS = 5;
+
+    private static final Pattern BIT_STRING = Pattern.compile("[01]+");
+
+    private final ResultSet rs;
+    private final CellStyle style;
+    private final int[] reads;
+    private final CellWriter[] writers;
+
+    /**
+     * @param rs     结果集
+     * @param styles 工作薄的样式缓存，用于创建日期样式
+     * @param style  单元格样式
+     */
+    ResultSetColumns(ResultSet rs, CellStyleRegistry styles, CellStyle style) throws SQLException {
+        this.rs = rs;
+        this.style = style;
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        this.reads = new int[columnCount];
+        this.writers = new CellWriter[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            Class<?> type;
+            switch (metaData.getColumnType(i + 1)) {
+                case Types.BIT:
+                    if (metaData.getPrecision(i + 1) > 1) {
+                        //BIT(n>1) 是位串而不是布尔值，按无符号整数写入
+                        type = Object.class;
+                        reads[i] = READ_BITS;
+                        break;
+                    }
+                    type = Boolean.class;
+                    reads[i] = READ_BOOLEAN;
+                    break;
+                case Types.BOOLEAN:
+                    type = Boolean.class;
+                    reads[i] = READ_BOOLEAN;
+                    break;
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    type = Number.class;
+                    reads[i] = READ_OBJECT;
+                    break;
+                case Types.DATE:
+                    type = Date.class;
+                    reads[i] = READ_DATE;
+                    break;
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    type = Timestamp.class;
+                    reads[i] = READ_TIMESTAMP;
+                    break;
+                default:
+                    //文本、时间（TIME）、大字段等按驱动的文本形式写入
+                    type = String.class;
+                    reads[i] = READ_STRING;
+                    break;
+            }
+            writers[i] = CellWriters.forType(type, styles, style);
+        }
+    }
+
+    /**
+     * 把结果集的当前行写入一行单元格
+     */
+    void write(Row row) throws SQLException {
+        row.setHeight((short) 380);
+        for (int i = 0; i < writers.length; i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellStyle(style);
+            writers[i].write(cell, read(i));
+        }
+    }
+
+    private Object read(int i) throws SQLException {
+        Object value;
+        switch (reads[i]) {
+            case READ_DATE:
+                value = rs.getDate(i + 1);
+                break;
+            case READ_TIMESTAMP:
+                value = rs.getTimestamp(i + 1);
+                break;
+            case READ_STRING:
+                value = rs.getString(i + 1);
+                break;
+            case READ_BOOLEAN:
+                value = rs.getBoolean(i + 1);
+                break;
+            case READ_BITS:
+                value = bits(rs.getObject(i + 1));
+                break;
+            default:
+                value = rs.getObject(i + 1);
+                break;
+        }
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * 位串转为无符号整数：驱动返回字节数组（如 MySQL）或由0和1组成的文本（如 PostgreSQL），其他值原样返回
+     */
+    private static Object bits(Object value) {
+        if (value instanceof byte[]) {
+            return new BigInteger(1, (byte[]) value);
+        }
+        if (value instanceof String && BIT_STRING.matcher((String) value).matches()) {
+            return new BigInteger((String) value, 2);
+        }
+        return value;
+    }
+}
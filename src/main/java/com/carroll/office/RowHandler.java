@@ -0,0 +1,22 @@
+package com.carroll.office;
+
+import java.util.List;
+
+/**
+ * 流式读取Excel时的行回调
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public interface RowHandler {
+
+    /**
+     * 处理一行数据
+     *
+     * @param sheetIndex sheet索引
+     * @param rowIndex   行索引（从0开始）
+     * @param rowData    行数据，取值与 {@link ExcelUtils#getCellValue(org.apache.poi.ss.usermodel.Cell, java.text.DecimalFormat)} 一致
+     * @throws Exception 回调中抛出的异常会中断读取并原样抛出
+     */
+    void handle(int sheetIndex, int rowIndex, List<Object> rowData) throws Exception;
+}
@@ -0,0 +1,18 @@
+package com.carroll.office;
+
+/**
+ * 流式读取时接收解析出的原始行
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+interface RowSink {
+
+    /**
+     * 接收一行，row 会被复用，只在调用期间有效
+     *
+     * @param sheetIndex sheet索引
+     * @param row        原始行
+     */
+    void accept(int sheetIndex, RawRow row) throws Exception;
+}
@@ -0,0 +1,103 @@
+package com.carroll.office;
+
+/**
+ * sheet元数据：名称、已用区域和数据大小，取自 .xlsx 中sheet的 &lt;dimension&gt; 元素或 .xls 中的 DIMENSIONS 记录
+ * <p>
+ * 已用区域由生成文件的程序写入，只作为估算；文件中没有该信息（或为流式写出时默认的 A1）时行列号均为-1，
+ * 可以用 {@link #getSize()} 估算数据量
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class SheetInfo {
+
+    private final int index;
+    private final String name;
+    private final boolean hidden;
+    private final int firstRow;
+    private final int lastRow;
+    private final int firstColumn;
+    private final int lastColumn;
+    private final long size;
+    private final long compressedSize;
+
+    SheetInfo(int index, String name, boolean hidden, int[] dimension, long size, long compressedSize) {
+        this.index = index;
+        this.name = name;
+        this.hidden = hidden;
+        this.firstRow = dimension == null ? -1 : dimension[0];
+        this.lastRow = dimension == null ? -1 : dimension[1];
+        this.firstColumn = dimension == null ? -1 : dimension[2];
+        this.lastColumn = dimension == null ? -1 : dimension[3];
+        this.size = size;
+        this.compressedSize = compressedSize;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isHidden() {
+        return hidden;
+    }
+
+    /**
+     * @return 已用区域的第一行（从0开始），未知时为-1
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * @return 已用区域的最后一行（从0开始），未知时为-1
+     */
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    public int getLastColumn() {
+        return lastColumn;
+    }
+
+    /**
+     * @return 已用区域的行数，未知时为-1
+     */
+    public int getRowCount() {
+        return firstRow < 0 ? -1 : lastRow - firstRow + 1;
+    }
+
+    /**
+     * @return 已用区域的列数，未知时为-1
+     */
+    public int getColumnCount() {
+        return firstColumn < 0 ? -1 : lastColumn - firstColumn + 1;
+    }
+
+    /**
+     * @return sheet数据的字节数：.xlsx 为sheet XML解压后的大小，.xls 为sheet记录流的大小，未知时为-1
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return .xlsx 中sheet XML压缩后的大小，.xls 或未知时为-1
+     */
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    @Override
+    public String toString() {
+        return "SheetInfo{index=" + index + ", name=" + name + ", hidden=" + hidden
+                + ", rows=" + getRowCount() + ", columns=" + getColumnCount() + ", size=" + size + "}";
+    }
+}
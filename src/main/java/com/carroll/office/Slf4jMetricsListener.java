@@ -0,0 +1,22 @@
+package com.carroll.office;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 以日志输出监控数据：PROGRESS 为 debug 级别，其他阶段为 info 级别
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+@Slf4j
+public class Slf4jMetricsListener implements MetricsListener {
+
+    @Override
+    public void onEvent(MetricsEvent event) {
+        if (event.getPhase() == MetricsPhase.PROGRESS) {
+            log.debug("Office metrics: {}", event);
+        } else {
+            log.info("Office metrics: {}", event);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.carroll.office;
+
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * 流式（SXSSF）导出配置
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class StreamingExportConfig {
+
+    /**
+     * 内存中保留的行数，超出的行写入临时文件
+     */
+    private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+    /**
+     * 是否压缩临时文件（gzip），可大幅减少磁盘占用，略增CPU开销
+     */
+    private boolean compressTempFiles;
+
+    /**
+     * 是否使用共享字符串表，默认使用内联字符串
+     */
+    private boolean useSharedStringsTable;
+
+    /**
+     * 分页导出时每个sheet最多的数据行数（不含表头），小于等于0时只受文件格式的行数限制
+     */
+    private int maxRowsPerSheet;
+
+    /**
+     * 是否按值的类型写入单元格（数值、布尔、日期），为false时全部写为文本
+     */
+    private boolean typedCells;
+
+    public StreamingExportConfig() {
+    }
+
+    public StreamingExportConfig(int rowAccessWindowSize, boolean compressTempFiles) {
+        this.rowAccessWindowSize = rowAccessWindowSize;
+        this.compressTempFiles = compressTempFiles;
+    }
+
+    public int getRowAccessWindowSize() {
+        return rowAccessWindowSize;
+    }
+
+    public void setRowAccessWindowSize(int rowAccessWindowSize) {
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    public boolean isCompressTempFiles() {
+        return compressTempFiles;
+    }
+
+    public void setCompressTempFiles(boolean compressTempFiles) {
+        this.compressTempFiles = compressTempFiles;
+    }
+
+    public boolean isUseSharedStringsTable() {
+        return useSharedStringsTable;
+    }
+
+    public void setUseSharedStringsTable(boolean useSharedStringsTable) {
+        this.useSharedStringsTable = useSharedStringsTable;
+    }
+
+    public int getMaxRowsPerSheet() {
+        return maxRowsPerSheet;
+    }
+
+    public void setMaxRowsPerSheet(int maxRowsPerSheet) {
+        this.maxRowsPerSheet = maxRowsPerSheet;
+    }
+
+    public boolean isTypedCells() {
+        return typedCells;
+    }
+
+    public void setTypedCells(boolean typedCells) {
+        this.typedCells = typedCells;
+    }
+}
@@ -0,0 +1,346 @@
+package com.carroll.office;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.POIXMLTypeLoader;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 批量生成Word文档：创建时把 {@link WordTemplate} 拆分为快照，不含占位符的部件（样式、主题、字体、图片等）只压缩一次，
+ * 生成时原样写出压缩数据；含占位符的正文、页眉、页脚只解析一次，每个文档复制解析好的XML后填充，
+ * 不再为每个文档加载整个包
+ * <p>
+ * 值中含有 {@link WordPicture} 的文档需要新增图片部件，改为通过 {@link WordTemplate#fill(Map, OutputStream)} 生成
+ * <p>
+ * 快照创建后不再修改，可在多个线程中同时生成
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+@Slf4j
+public final class WordBatchGenerator {
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String ILLEGAL_NAME_CHARS = "/\\:*?\"<>|";
+
+    private final WordTemplate template;
+    private final List<Part> parts = new ArrayList<Part>();
+    private volatile int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * @param template 模板
+     * @throws IOException
+     */
+    public WordBatchGenerator(WordTemplate template) throws IOException {
+        this.template = template;
+        List<String> names = template.getPartNames();
+        for (Map.Entry<String, byte[]> entry : ParallelExport.readParts(template.getContent()).entrySet()) {
+            int index = names.indexOf(entry.getKey());
+            if (index >= 0 && template.hasPlaceholders(index)) {
+                try {
+                    XmlObject xml = XmlObject.Factory.parse(new ByteArrayInputStream(entry.getValue()), new XmlOptions(POIXMLTypeLoader.DEFAULT_XML_OPTIONS));
+                    parts.add(new Part(entry.getKey(), index, xml, entry.getValue().length));
+                } catch (XmlException e) {
+                    throw new IOException("Invalid template part " + entry.getKey(), e);
+                }
+            } else {
+                parts.add(new Part(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @param maxInFlight 同时生成中的文档数上限，默认为CPU核数的2倍，决定内存占用
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 生成一个文档
+     *
+     * @param data 占位符的值
+     * @param out  输出流，写出后不关闭
+     * @throws IOException
+     * @throws OfficeException 图片格式有误
+     */
+    public void write(Map<String, ?> data, OutputStream out) throws IOException, OfficeException {
+        if (containsPicture(data)) {
+            template.fill(data, out);
+            return;
+        }
+        ZipStreamWriter zip = new ZipStreamWriter(out);
+        for (Part part : parts) {
+            zip.putEntry(part.name);
+            if (part.xml == null) {
+                zip.write(part.compressed, 0, part.compressed.length);
+                zip.closeEntry(part.crc, part.compressed.length, part.size);
+                continue;
+            }
+            XmlObject xml = part.xml.copy();
+            template.fillPart(part.index, container(xml), data);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(part.size + (part.size >> 2));
+            xml.save(buffer, new XmlOptions(POIXMLTypeLoader.DEFAULT_XML_OPTIONS));
+            byte[] bytes = buffer.toByteArray();
+            byte[] compressed = ParallelDeflateOutputStream.deflate(bytes, bytes.length, null, 0, true, Deflater.DEFAULT_COMPRESSION);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            zip.write(compressed, 0, compressed.length);
+            zip.closeEntry(crc.getValue(), compressed.length, bytes.length);
+        }
+        zip.finish();
+    }
+
+    /**
+     * 批量生成，每个文档写入一个文件
+     *
+     * @param data      每个文档的数据，在调用线程中依次读取
+     * @param directory 输出目录
+     * @param nameKey   文件名取 data 中该键的值，为null或值为null时使用文档序号，扩展名为 .docx；
+     *                  值中的路径分隔符、{@code ..} 及文件名中不允许的字符替换为下划线，
+     *                  与本批次中已生成的文件重名时在名称后加上 {@code _文档序号}，不覆盖
+     * @param executor  执行器，不关闭
+     * @return 统计
+     * @throws Exception 任一文档生成失败时不再提交新的文档，等待已提交的文档完成后抛出第一个异常
+     */
+    public BatchResult generate(Iterable<? extends Map<String, ?>> data, final File directory, final String nameKey,
+                                ExecutorService executor) throws Exception {
+        final File root = directory.getCanonicalFile();
+        final Set<String> names = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        return generate(data, new DocumentSink() {
+            @Override
+            public OutputStream open(long index, Map<String, ?> item) throws IOException {
+                Object value = nameKey != null ? item.get(nameKey) : null;
+                String name = value != null ? fileName(String.valueOf(value)) : "";
+                if (name.isEmpty()) {
+                    name = String.valueOf(index);
+                }
+                //文件系统可能不区分大小写，按小写判断重名
+                if (!names.add(name.toLowerCase(Locale.ROOT))) {
+                    name = name + "_" + index;
+                    if (!names.add(name.toLowerCase(Locale.ROOT))) {
+                        throw new IOException("Duplicate document name " + name);
+                    }
+                }
+                File file = new File(root, name + ".docx");
+                if (!root.equals(file.getCanonicalFile().getParentFile())) {
+                    throw new IOException("Document name " + value + " resolves outside " + root);
+                }
+                return new BufferedOutputStream(new FileOutputStream(file));
+            }
+        }, executor);
+    }
+
+    /**
+     * 去掉值中不能出现在文件名中的内容：路径分隔符、{@code ..}、Windows 文件名中不允许的字符和控制字符替换为下划线，
+     * 去掉首尾的空白和末尾的点
+     *
+     * @return 处理后的文件名（不含扩展名），可能为空
+     */
+    private static String fileName(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            builder.append(ch < 0x20 || ch == 0x7F || ILLEGAL_NAME_CHARS.indexOf(ch) >= 0 ? '_' : ch);
+        }
+        String name = builder.toString().replace("..", "_").trim();
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) == '.') {
+            end--;
+        }
+        return name.substring(0, end).trim();
+    }
+
+    /**
+     * 批量生成：在调用线程中读取数据并提交到执行器，同时生成中的文档不超过 {@link #getMaxInFlight()}，
+     * 达到上限时等待，全部完成后返回并输出统计日志
+     *
+     * @param data     每个文档的数据，在调用线程中依次读取
+     * @param sink     每个文档的输出流
+     * @param executor 执行器，不关闭
+     * @return 统计
+     * @throws Exception 任一文档生成失败时不再提交新的文档，等待已提交的文档完成后抛出第一个异常
+     */
+    public BatchResult generate(Iterable<? extends Map<String, ?>> data, final DocumentSink sink, ExecutorService executor) throws Exception {
+        final int permits = maxInFlight;
+        final Semaphore inFlight = new Semaphore(permits);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final AtomicLong bytes = new AtomicLong();
+        long start = System.nanoTime();
+        long documents = 0;
+        try {
+            for (final Map<String, ?> item : data) {
+                inFlight.acquire();
+                if (failure.get() != null) {
+                    inFlight.release();
+                    break;
+                }
+                final long index = documents++;
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                bytes.addAndGet(write(index, item, sink));
+                            } catch (Throwable t) {
+                                failure.compareAndSet(null, t);
+                            } finally {
+                                inFlight.release();
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    failure.compareAndSet(null, e);
+                    break;
+                }
+            }
+        } finally {
+            //等待已提交的文档全部完成
+            inFlight.acquireUninterruptibly(permits);
+            inFlight.release(permits);
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof Exception) {
+            throw (Exception) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new Exception(t);
+        }
+        BatchResult result = new BatchResult(documents, bytes.get(), System.nanoTime() - start);
+        log.info("Word batch generated: {}", result);
+        return result;
+    }
+
+    private long write(long index, Map<String, ?> data, DocumentSink sink) throws IOException, OfficeException {
+        CountingOutputStream out = new CountingOutputStream(sink.open(index, data));
+        try {
+            write(data, out);
+        } finally {
+            out.close();
+        }
+        return out.count;
+    }
+
+    /**
+     * 正文为 w:body，页眉页脚为根元素
+     */
+    private static XmlObject container(XmlObject xml) {
+        XmlCursor cursor = xml.newCursor();
+        try {
+            cursor.toFirstChild();
+            if ("document".equals(cursor.getName().getLocalPart())) {
+                cursor.toChild(W_NS, "body");
+            }
+            return cursor.getObject();
+        } finally {
+            cursor.dispose();
+        }
+    }
+
+    private static boolean containsPicture(Map<String, ?> data) {
+        for (Object value : data.values()) {
+            if (value instanceof WordPicture) {
+                return true;
+            }
+            if (value instanceof Iterable) {
+                for (Object item : (Iterable<?>) value) {
+                    if (item instanceof Map) {
+                        for (Object field : ((Map<?, ?>) item).values()) {
+                            if (field instanceof WordPicture) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 模板中的部件：不含占位符的部件保存压缩后的数据，含占位符的部件保存解析后的XML
+     */
+    private static final class Part {
+        final String name;
+        final int index;
+        final XmlObject xml;
+        final byte[] compressed;
+        final long crc;
+        final int size;
+
+        Part(String name, byte[] data) {
+            this.name = name;
+            this.index = -1;
+            this.xml = null;
+            this.compressed = ParallelDeflateOutputStream.deflate(data, data.length, null, 0, true, Deflater.DEFAULT_COMPRESSION);
+            CRC32 crc32 = new CRC32();
+            crc32.update(data);
+            this.crc = crc32.getValue();
+            this.size = data.length;
+        }
+
+        Part(String name, int index, XmlObject xml, int size) {
+            this.name = name;
+            this.index = index;
+            this.xml = xml;
+            this.compressed = null;
+            this.crc = 0;
+            this.size = size;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
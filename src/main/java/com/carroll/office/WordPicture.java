@@ -0,0 +1,56 @@
+package com.carroll.office;
+
+/**
+ * {@link WordTemplate} 中作为占位符的值时插入图片，支持 PNG、JPEG、GIF、BMP
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class WordPicture {
+    private byte[] data;
+    /**
+     * 宽（磅），不大于0时使用原图尺寸
+     */
+    private double width;
+    /**
+     * 高（磅），不大于0时按宽度等比缩放
+     */
+    private double height;
+
+    public WordPicture() {
+    }
+
+    public WordPicture(byte[] data) {
+        this.data = data;
+    }
+
+    public WordPicture(byte[] data, double width, double height) {
+        this.data = data;
+        this.width = width;
+        this.height = height;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public void setWidth(double width) {
+        this.width = width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public void setHeight(double height) {
+        this.height = height;
+    }
+}
@@ -0,0 +1,180 @@
+package com.carroll.office;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTBorder;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTFonts;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTOnOff;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTR;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTRPr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTRow;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTbl;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTblBorders;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTblGrid;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTblPr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTblWidth;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTc;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTText;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STBorder;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STJc;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STOnOff;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblWidth;
+
+import javax.xml.namespace.QName;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量生成Word表格：表头行和数据行各构造一个行模板（单元格宽度、段落对齐、字体），每行复制模板后只填写文本，
+ * 直接写入 CTTbl，不经过逐个单元格的 XWPF 对象，耗时与行数成线性关系
+ * <p>
+ * 表格属性与 {@link org.apache.poi.xwpf.usermodel.XWPFDocument#createTable()} 一致（自动宽度、单线边框），
+ * 并写入 tblGrid 列宽
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class WordTableWriter implements CustomXWPFDocument.Filler {
+
+    private static final QName XML_SPACE = new QName("http://www.w3.org/XML/1998/namespace", "space");
+
+    private final List<String> keys;
+    private final List<String> headers;
+    private final Iterator<? extends Map<String, ?>> data;
+    private final int[] colWidths;
+    private final Style headerStyle;
+    private final Style bodyStyle;
+
+    /**
+     * @param keys        每列取值的键
+     * @param headers     列标题，少于列数时其余列的标题为空
+     * @param data        数据，逐行读取
+     * @param colWidths   列宽（twip），为null或少于列数时其余列不设置宽度
+     * @param headerStyle 表头样式，可为null
+     * @param bodyStyle   数据样式，可为null
+     */
+    WordTableWriter(List<String> keys, List<String> headers, Iterator<? extends Map<String, ?>> data, int[] colWidths,
+                    Style headerStyle, Style bodyStyle) {
+        this.keys = keys;
+        this.headers = headers;
+        this.data = data;
+        this.colWidths = colWidths;
+        this.headerStyle = headerStyle;
+        this.bodyStyle = bodyStyle;
+    }
+
+    @Override
+    public void fill(CTTbl ctTbl) {
+        int columns = keys.size();
+        writeTableProperties(ctTbl, columns);
+
+        CTRow header = ctTbl.addNewTr();
+        header.set(rowTemplate(columns, headerStyle));
+        CTText[] texts = texts(header);
+        for (int i = 0; i < columns; i++) {
+            texts[i].setStringValue(i < headers.size() && headers.get(i) != null ? headers.get(i) : "");
+        }
+
+        CTRow template = rowTemplate(columns, bodyStyle);
+        while (data.hasNext()) {
+            Map<String, ?> rowData = data.next();
+            CTRow row = ctTbl.addNewTr();
+            row.set(template);
+            texts = texts(row);
+            for (int i = 0; i < columns; i++) {
+                Object value = rowData.get(keys.get(i));
+                texts[i].setStringValue(value != null ? String.valueOf(value) : "");
+            }
+        }
+    }
+
+    private void writeTableProperties(CTTbl ctTbl, int columns) {
+        CTTblPr tblPr = ctTbl.addNewTblPr();
+        CTTblWidth tblW = tblPr.addNewTblW();
+        tblW.setW(BigInteger.ZERO);
+        tblW.setType(STTblWidth.AUTO);
+        CTTblBorders borders = tblPr.addNewTblBorders();
+        for (CTBorder border : new CTBorder[]{borders.addNewTop(), borders.addNewLeft(), borders.addNewBottom(),
+                borders.addNewRight(), borders.addNewInsideH(), borders.addNewInsideV()}) {
+            border.setVal(STBorder.SINGLE);
+        }
+        CTTblGrid grid = ctTbl.addNewTblGrid();
+        for (int i = 0; i < columns; i++) {
+            BigInteger width = width(i);
+            if (width != null) {
+                grid.addNewGridCol().setW(width);
+            } else {
+                grid.addNewGridCol();
+            }
+        }
+    }
+
+    /**
+     * 行模板：每个单元格一个段落、一个文本片段，样式只在模板中设置一次，复制行时随之复制
+     */
+    private CTRow rowTemplate(int columns, Style style) {
+        CTRow row = CTRow.Factory.newInstance();
+        for (int i = 0; i < columns; i++) {
+            CTTc tc = row.addNewTc();
+            BigInteger width = width(i);
+            if (width != null) {
+                CTTblWidth tcW = tc.addNewTcPr().addNewTcW();
+                tcW.setType(STTblWidth.DXA);
+                tcW.setW(width);
+            }
+            CTP p = tc.addNewP();
+            if (style != null && style.getAlignment() != null) {
+                p.addNewPPr().addNewJc().setVal(STJc.Enum.forInt(style.getAlignment().getValue()));
+            }
+            CTR r = p.addNewR();
+            if (style != null) {
+                writeRunProperties(r.addNewRPr(), style);
+            }
+            preserveSpace(r.addNewT());
+        }
+        return row;
+    }
+
+    /**
+     * 保留首尾空格，即 xml:space="preserve"
+     */
+    static void preserveSpace(CTText t) {
+        XmlCursor cursor = t.newCursor();
+        cursor.toNextToken();
+        cursor.insertAttributeWithValue(XML_SPACE, "preserve");
+        cursor.dispose();
+    }
+
+    /**
+     * 与 {@link POIWordUtils#setText} 中 XWPFRun 的 setFontFamily、setFontSize、setBold 写入的属性一致
+     */
+    private static void writeRunProperties(CTRPr rPr, Style style) {
+        if (style.getFontFamily() != null) {
+            CTFonts fonts = rPr.addNewRFonts();
+            fonts.setAscii(style.getFontFamily());
+            fonts.setHAnsi(style.getFontFamily());
+            fonts.setCs(style.getFontFamily());
+            fonts.setEastAsia(style.getFontFamily());
+        }
+        CTOnOff bold = rPr.addNewB();
+        bold.setVal(style.isBold() ? STOnOff.TRUE : STOnOff.FALSE);
+        if (style.getFontSize() > 0) {
+            rPr.addNewSz().setVal(BigInteger.valueOf(style.getFontSize() * 2L));
+        }
+    }
+
+    private BigInteger width(int column) {
+        return colWidths != null && column < colWidths.length ? BigInteger.valueOf(colWidths[column]) : null;
+    }
+
+    private static CTText[] texts(CTRow row) {
+        CTTc[] cells = row.getTcArray();
+        CTText[] texts = new CTText[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            texts[i] = cells[i].getPArray(0).getRArray(0).getTArray(0);
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,703 @@
+package com.carroll.office;
+
+import org.apache.poi.POIXMLDocumentPart;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.util.Units;
+import org.apache.poi.xwpf.usermodel.IBody;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
+import org.apache.poi.xwpf.usermodel.XWPFHeaderFooter;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTR;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTRow;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTbl;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTc;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTText;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Word模板：{@link #compile(InputStream)} 时只解析一次模板，把被拆分到多个文本片段中的 {@code ${key}} 合并，
+ * 每个占位符单独成为一个文本片段，并记录占位符在正文、表格单元格、页眉、页脚中的位置；
+ * 之后每次 {@link #fill(Map)} 按记录的位置直接定位，不再扫描文档
+ * <p>
+ * 占位符的值：
+ * <ul>
+ * <li>{@link WordPicture}：插入图片</li>
+ * <li>其他：替换为 {@code String.valueOf(value)}，null 或不存在时替换为空</li>
+ * </ul>
+ * 表格行中含有 {@code ${items.name}} 形式的占位符时为重复行，{@code items} 的值为 {@code Iterable<Map>} 时，
+ * 每个元素复制一行，{@code name} 从元素中取值，行中其他占位符仍从 data 中取值；值不是 Iterable 时按普通占位符处理。
+ * 重复行只处理直接位于单元格中的段落，不处理单元格中嵌套的表格
+ * <p>
+ * 段落中超链接、简单域、智能标记、修订插入等容器内的片段同样查找占位符，占位符不能跨越容器的边界
+ * <p>
+ * 编译后不再修改，可在多个线程中同时 fill
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class WordTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^${}]+)}");
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    /**
+     * 段落中可以包含片段的容器；w:del、w:moveFrom 中是已删除的文本，不查找
+     */
+    private static final Set<String> RUN_CONTAINERS = new HashSet<String>(Arrays.asList(
+            "hyperlink", "fldSimple", "smartTag", "customXml", "ins", "moveTo", "sdt", "sdtContent", "dir", "bdo"));
+
+    /**
+     * 合并占位符后的模板
+     */
+    private final byte[] content;
+    private final List<Slot> slots;
+    private final List<LoopRow> loops;
+    private final List<String> partNames;
+
+    private WordTemplate(byte[] content, List<Slot> slots, List<LoopRow> loops, List<String> partNames) {
+        this.content = content;
+        this.slots = slots;
+        this.loops = loops;
+        this.partNames = partNames;
+    }
+
+    /**
+     * 解析模板
+     *
+     * @param in .docx 模板
+     * @return 模板
+     * @throws IOException
+     */
+    public static WordTemplate compile(InputStream in) throws IOException {
+        CustomXWPFDocument document = new CustomXWPFDocument(in);
+        try {
+            List<Slot> slots = new ArrayList<Slot>();
+            List<LoopRow> loops = new ArrayList<LoopRow>();
+            List<String> partNames = new ArrayList<String>();
+            List<IBody> parts = parts(document);
+            for (int i = 0; i < parts.size(); i++) {
+                index(i, parts.get(i).getBodyElements(), new int[0], slots, loops);
+                partNames.add(((POIXMLDocumentPart) parts.get(i)).getPackagePart().getPartName().getName().substring(1));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.write(out);
+            return new WordTemplate(out.toByteArray(), Collections.unmodifiableList(slots), Collections.unmodifiableList(loops),
+                    Collections.unmodifiableList(partNames));
+        } finally {
+            document.close();
+        }
+    }
+
+    /**
+     * 用一组数据填充模板，生成新文档
+     *
+     * @param data 占位符的值
+     * @return 填充后的文档，由调用方关闭
+     * @throws IOException
+     * @throws OfficeException 图片格式有误
+     */
+    public CustomXWPFDocument fill(Map<String, ?> data) throws IOException, OfficeException {
+        CustomXWPFDocument document = new CustomXWPFDocument(new ByteArrayInputStream(content));
+        try {
+            List<IBody> parts = parts(document);
+            //先定位所有位置再修改，插入重复行后表格的行下标会变化
+            CTR[] runs = new CTR[slots.size()];
+            for (int i = 0; i < runs.length; i++) {
+                Slot slot = slots.get(i);
+                XWPFParagraph paragraph = (XWPFParagraph) element(parts.get(slot.part), slot.path);
+                runs[i] = runs(paragraph.getCTP()).get(slot.run);
+            }
+            XWPFTable[] tables = new XWPFTable[loops.size()];
+            XWPFTableRow[] rows = new XWPFTableRow[loops.size()];
+            for (int i = 0; i < rows.length; i++) {
+                LoopRow loop = loops.get(i);
+                tables[i] = (XWPFTable) element(parts.get(loop.part), loop.path);
+                rows[i] = tables[i].getRow(loop.row);
+            }
+
+            for (int i = 0; i < runs.length; i++) {
+                Slot slot = slots.get(i);
+                write(document, parts.get(slot.part), runs[i], data.get(slot.key));
+            }
+            //从后往前处理，同一表格中前面的行不受后面插入的行影响
+            for (int i = rows.length - 1; i >= 0; i--) {
+                LoopRow loop = loops.get(i);
+                repeat(document, parts.get(loop.part), tables[i], rows[i], loop, data);
+            }
+            return document;
+        } catch (OfficeException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 用一组数据填充模板并写出
+     *
+     * @param data 占位符的值
+     * @param out  输出流，写出后不关闭
+     * @throws IOException
+     * @throws OfficeException 图片格式有误
+     */
+    public void fill(Map<String, ?> data, OutputStream out) throws IOException, OfficeException {
+        CustomXWPFDocument document = fill(data);
+        try {
+            document.write(out);
+        } finally {
+            document.close();
+        }
+    }
+
+    /**
+     * 直接在部件的XML上填充，不加载整个文档，供 {@link WordBatchGenerator} 使用；值中不能含有图片
+     *
+     * @param part      部件序号，与 {@link #getPartNames()} 的顺序一致
+     * @param container 正文为 w:body，页眉页脚为 w:hdr、w:ftr
+     * @param data      占位符的值
+     */
+    void fillPart(int part, XmlObject container, Map<String, ?> data) throws OfficeException {
+        //与 XWPF 的元素下标一致：正文、页眉页脚、单元格中均为段落、表格、内容控件
+        XmlObject[] elements = children(container);
+        List<Slot> partSlots = new ArrayList<Slot>();
+        List<CTR> runs = new ArrayList<CTR>();
+        for (Slot slot : slots) {
+            if (slot.part == part) {
+                partSlots.add(slot);
+                runs.add(runs(element(elements, slot.path)).get(slot.run));
+            }
+        }
+        List<LoopRow> partLoops = new ArrayList<LoopRow>();
+        List<CTRow> rows = new ArrayList<CTRow>();
+        for (LoopRow loop : loops) {
+            if (loop.part == part) {
+                partLoops.add(loop);
+                rows.add(((CTTbl) element(elements, loop.path)).getTrArray(loop.row));
+            }
+        }
+
+        for (int i = 0; i < runs.size(); i++) {
+            write(null, null, runs.get(i), data.get(partSlots.get(i).key));
+        }
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (repeatRows(null, null, rows.get(i), partLoops.get(i), data) != null) {
+                XmlCursor cursor = rows.get(i).newCursor();
+                cursor.removeXml();
+                cursor.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return 有占位符或重复行的部件
+     */
+    boolean hasPlaceholders(int part) {
+        for (Slot slot : slots) {
+            if (slot.part == part) {
+                return true;
+            }
+        }
+        for (LoopRow loop : loops) {
+            if (loop.part == part) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 各部件在包中的名称（不含开头的 /），顺序与部件序号一致
+     */
+    List<String> getPartNames() {
+        return partNames;
+    }
+
+    /**
+     * @return 合并占位符后的模板
+     */
+    byte[] getContent() {
+        return content;
+    }
+
+    private static XmlObject element(XmlObject[] elements, int[] path) {
+        XmlObject element = elements[path[0]];
+        for (int i = 1; i < path.length; i += 3) {
+            CTTc cell = ((CTTbl) element).getTrArray(path[i]).getTcArray(path[i + 1]);
+            element = children(cell)[path[i + 2]];
+        }
+        return element;
+    }
+
+    private static XmlObject[] children(XmlObject container) {
+        List<XmlObject> children = new ArrayList<XmlObject>();
+        XmlCursor cursor = container.newCursor();
+        try {
+            if (cursor.toFirstChild()) {
+                do {
+                    String name = cursor.getName().getLocalPart();
+                    if ("p".equals(name) || "tbl".equals(name) || "sdt".equals(name)) {
+                        children.add(cursor.getObject());
+                    }
+                } while (cursor.toNextSibling());
+            }
+        } finally {
+            cursor.dispose();
+        }
+        return children.toArray(new XmlObject[0]);
+    }
+
+    /**
+     * 正文、各页眉、各页脚，顺序由文档关系决定，同一模板每次加载的顺序相同
+     */
+    private static List<IBody> parts(CustomXWPFDocument document) {
+        List<IBody> parts = new ArrayList<IBody>();
+        parts.add(document);
+        parts.addAll(document.getHeaderList());
+        parts.addAll(document.getFooterList());
+        return parts;
+    }
+
+    private static void index(int part, List<IBodyElement> elements, int[] parent, List<Slot> slots, List<LoopRow> loops) {
+        for (int i = 0; i < elements.size(); i++) {
+            IBodyElement element = elements.get(i);
+            int[] path = append(parent, i);
+            if (element instanceof XWPFParagraph) {
+                CTP p = ((XWPFParagraph) element).getCTP();
+                normalize(p);
+                List<CTR> runs = runs(p);
+                for (int r = 0; r < runs.size(); r++) {
+                    String key = placeholder(runs.get(r));
+                    if (key != null) {
+                        slots.add(new Slot(part, path, r, key, null));
+                    }
+                }
+            } else if (element instanceof XWPFTable) {
+                List<XWPFTableRow> rows = ((XWPFTable) element).getRows();
+                for (int r = 0; r < rows.size(); r++) {
+                    LoopRow loop = loopRow(part, path, r, rows.get(r));
+                    if (loop != null) {
+                        loops.add(loop);
+                        continue;
+                    }
+                    List<XWPFTableCell> cells = rows.get(r).getTableCells();
+                    for (int c = 0; c < cells.size(); c++) {
+                        index(part, cells.get(c).getBodyElements(), append(path, r, c), slots, loops);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 行中第一个 {@code ${前缀.字段}} 的前缀为重复行的键
+     *
+     * @return 不是重复行时返回null
+     */
+    private static LoopRow loopRow(int part, int[] path, int row, XWPFTableRow tableRow) {
+        List<String> keys = new ArrayList<String>();
+        List<int[]> positions = new ArrayList<int[]>();
+        String loopKey = null;
+        List<XWPFTableCell> cells = tableRow.getTableCells();
+        for (int c = 0; c < cells.size(); c++) {
+            List<XWPFParagraph> paragraphs = cells.get(c).getParagraphs();
+            for (int p = 0; p < paragraphs.size(); p++) {
+                CTP ctp = paragraphs.get(p).getCTP();
+                normalize(ctp);
+                List<CTR> runs = runs(ctp);
+                for (int r = 0; r < runs.size(); r++) {
+                    String key = placeholder(runs.get(r));
+                    if (key == null) {
+                        continue;
+                    }
+                    if (loopKey == null && key.indexOf('.') > 0) {
+                        loopKey = key.substring(0, key.indexOf('.'));
+                    }
+                    keys.add(key);
+                    positions.add(new int[]{c, p, r});
+                }
+            }
+        }
+        if (loopKey == null) {
+            return null;
+        }
+        String prefix = loopKey + ".";
+        List<Slot> slots = new ArrayList<Slot>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            int[] position = positions.get(i);
+            String field = key.startsWith(prefix) ? key.substring(prefix.length()) : null;
+            slots.add(new Slot(part, new int[]{position[0], position[1]}, position[2], key, field));
+        }
+        return new LoopRow(part, path, row, loopKey, slots);
+    }
+
+    /**
+     * 段落中按文档顺序排列的片段，包括容器（超链接、域等）内的片段，占位符按其中的下标定位
+     */
+    private static List<CTR> runs(XmlObject container) {
+        List<CTR> runs = new ArrayList<CTR>();
+        XmlCursor cursor = container.newCursor();
+        try {
+            if (cursor.toFirstChild()) {
+                do {
+                    if (!W_NS.equals(cursor.getName().getNamespaceURI())) {
+                        continue;
+                    }
+                    String name = cursor.getName().getLocalPart();
+                    if ("r".equals(name)) {
+                        runs.add((CTR) cursor.getObject());
+                    } else if (RUN_CONTAINERS.contains(name)) {
+                        runs.addAll(runs(cursor.getObject()));
+                    }
+                } while (cursor.toNextSibling());
+            }
+        } finally {
+            cursor.dispose();
+        }
+        return runs;
+    }
+
+    /**
+     * 分别合并段落及其中各容器直接包含的片段，容器内外的片段不合并
+     */
+    private static void normalize(XmlObject container) {
+        List<CTR> runs = new ArrayList<CTR>();
+        List<XmlObject> nested = new ArrayList<XmlObject>();
+        XmlCursor cursor = container.newCursor();
+        try {
+            if (cursor.toFirstChild()) {
+                do {
+                    if (!W_NS.equals(cursor.getName().getNamespaceURI())) {
+                        continue;
+                    }
+                    String name = cursor.getName().getLocalPart();
+                    if ("r".equals(name)) {
+                        runs.add((CTR) cursor.getObject());
+                    } else if (RUN_CONTAINERS.contains(name)) {
+                        nested.add(cursor.getObject());
+                    }
+                } while (cursor.toNextSibling());
+            }
+        } finally {
+            cursor.dispose();
+        }
+        //先记录再修改，拆分时会插入和删除片段
+        normalize(runs.toArray(new CTR[0]));
+        for (XmlObject child : nested) {
+            normalize(child);
+        }
+    }
+
+    /**
+     * 把同一容器中连续的纯文本片段中的占位符拆分为单独的片段：合并后的文本按原片段边界和占位符边界切分，
+     * 占位符内部的原片段边界忽略，每段沿用其起始位置所在片段的格式
+     */
+    private static void normalize(CTR[] runs) {
+        List<int[]> groups = new ArrayList<int[]>();
+        int start = 0;
+        while (start < runs.length) {
+            if (!isTextOnly(runs[start])) {
+                start++;
+                continue;
+            }
+            int end = start;
+            boolean candidate = false;
+            while (end < runs.length && isTextOnly(runs[end])) {
+                candidate |= text(runs[end]).indexOf('$') >= 0;
+                end++;
+            }
+            if (candidate) {
+                groups.add(new int[]{start, end});
+            }
+            start = end;
+        }
+        for (int[] group : groups) {
+            split(runs, group[0], group[1]);
+        }
+    }
+
+    /**
+     * 在原片段之前按顺序插入切分后的片段（复制起始位置所在的片段后替换文本），再删除原片段
+     */
+    private static void split(CTR[] runs, int start, int end) {
+        int[] offsets = new int[end - start + 1];
+        StringBuilder builder = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            offsets[i - start] = builder.length();
+            builder.append(text(runs[i]));
+        }
+        offsets[end - start] = builder.length();
+        String text = builder.toString();
+
+        TreeSet<Integer> cuts = new TreeSet<Integer>();
+        for (int offset : offsets) {
+            cuts.add(offset);
+        }
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        boolean found = false;
+        while (matcher.find()) {
+            found = true;
+            cuts.subSet(matcher.start(), false, matcher.end(), false).clear();
+            cuts.add(matcher.start());
+            cuts.add(matcher.end());
+        }
+        if (!found) {
+            return;
+        }
+
+        Integer[] points = cuts.toArray(new Integer[0]);
+        int origin = 0;
+        XmlCursor target = runs[start].newCursor();
+        try {
+            for (int i = 0; i + 1 < points.length; i++) {
+                int from = points[i];
+                while (offsets[origin + 1] <= from) {
+                    origin++;
+                }
+                //复制后 target 位于副本之后，即原片段之前
+                XmlCursor source = runs[start + origin].newCursor();
+                source.copyXml(target);
+                source.dispose();
+                target.toPrevSibling();
+                CTR run = (CTR) target.getObject();
+                target.toNextSibling();
+                while (run.sizeOfTArray() > 0) {
+                    run.removeT(0);
+                }
+                CTText t = run.addNewT();
+                t.setStringValue(text.substring(from, points[i + 1]));
+                WordTableWriter.preserveSpace(t);
+            }
+        } finally {
+            target.dispose();
+        }
+        for (int i = start; i < end; i++) {
+            XmlCursor cursor = runs[i].newCursor();
+            cursor.removeXml();
+            cursor.dispose();
+        }
+    }
+
+    /**
+     * 只有格式和文本的片段，含制表符、换行、图片、域等内容的片段不参与合并
+     */
+    private static boolean isTextOnly(CTR run) {
+        XmlCursor cursor = run.newCursor();
+        try {
+            if (!cursor.toFirstChild()) {
+                return true;
+            }
+            do {
+                String name = cursor.getName().getLocalPart();
+                if (!"rPr".equals(name) && !"t".equals(name)) {
+                    return false;
+                }
+            } while (cursor.toNextSibling());
+            return true;
+        } finally {
+            cursor.dispose();
+        }
+    }
+
+    private static String text(CTR run) {
+        CTText[] texts = run.getTArray();
+        if (texts.length == 1) {
+            return texts[0].getStringValue();
+        }
+        StringBuilder builder = new StringBuilder();
+        for (CTText t : texts) {
+            builder.append(t.getStringValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return 片段的文本恰好是一个占位符时返回键，否则返回null
+     */
+    private static String placeholder(CTR run) {
+        if (run.sizeOfTArray() != 1 || !isTextOnly(run)) {
+            return null;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(run.getTArray(0).getStringValue());
+        return matcher.matches() ? matcher.group(1).trim() : null;
+    }
+
+    private static IBodyElement element(IBody body, int[] path) {
+        IBodyElement element = body.getBodyElements().get(path[0]);
+        for (int i = 1; i < path.length; i += 3) {
+            XWPFTableCell cell = ((XWPFTable) element).getRow(path[i]).getCell(path[i + 1]);
+            element = cell.getBodyElements().get(path[i + 2]);
+        }
+        return element;
+    }
+
+    private static void repeat(CustomXWPFDocument document, IBody part, XWPFTable table, XWPFTableRow row,
+                               LoopRow loop, Map<String, ?> data) throws OfficeException {
+        List<CTRow> inserted = repeatRows(document, part, row.getCtRow(), loop, data);
+        if (inserted == null) {
+            return;
+        }
+        //填写完再创建行对象，使其单元格、段落与内容一致
+        int pos = table.getRows().indexOf(row);
+        for (CTRow ctRow : inserted) {
+            table.getRows().add(pos++, new XWPFTableRow(ctRow, table));
+        }
+        table.removeRow(pos);
+    }
+
+    /**
+     * 在模板行之前为每个元素插入一行并填写，模板行保留，由调用方删除
+     *
+     * @return 插入的行；值不是 Iterable 时在模板行中按普通占位符填写，返回null
+     */
+    private static List<CTRow> repeatRows(CustomXWPFDocument document, IBody part, CTRow template,
+                                          LoopRow loop, Map<String, ?> data) throws OfficeException {
+        Object value = data.get(loop.key);
+        if (!(value instanceof Iterable)) {
+            for (Slot slot : loop.cells) {
+                write(document, part, run(template, slot), data.get(slot.key));
+            }
+            return null;
+        }
+        List<CTRow> rows = new ArrayList<CTRow>();
+        XmlCursor source = template.newCursor();
+        XmlCursor target = template.newCursor();
+        try {
+            for (Object item : (Iterable<?>) value) {
+                //复制后 target 位于副本之后，即模板行之前
+                source.copyXml(target);
+                target.toPrevSibling();
+                CTRow ctRow = (CTRow) target.getObject();
+                target.toNextSibling();
+                for (Slot slot : loop.cells) {
+                    Object cellValue;
+                    if (slot.field == null) {
+                        cellValue = data.get(slot.key);
+                    } else {
+                        cellValue = item instanceof Map ? ((Map<?, ?>) item).get(slot.field) : null;
+                    }
+                    write(document, part, run(ctRow, slot), cellValue);
+                }
+                rows.add(ctRow);
+            }
+        } finally {
+            source.dispose();
+            target.dispose();
+        }
+        return rows;
+    }
+
+    private static CTR run(CTRow row, Slot slot) {
+        return runs(row.getTcArray(slot.path[0]).getPArray(slot.path[1])).get(slot.run);
+    }
+
+    private static void write(CustomXWPFDocument document, IBody part, CTR run, Object value) throws OfficeException {
+        if (value instanceof WordPicture) {
+            writePicture(document, part, run, (WordPicture) value);
+        } else {
+            run.getTArray(0).setStringValue(value != null ? String.valueOf(value) : "");
+        }
+    }
+
+    private static void writePicture(CustomXWPFDocument document, IBody part, CTR run, WordPicture picture) throws OfficeException {
+        ImageHeader header = picture.getData() != null ? ImageHeader.read(picture.getData()) : null;
+        if (header == null) {
+            throw new OfficeException("7006", "图片格式有误");
+        }
+        String blipId;
+        try {
+            //图片关系需建在图片所在的部件中
+            if (part instanceof XWPFHeaderFooter) {
+                blipId = ((XWPFHeaderFooter) part).addPictureData(picture.getData(), header.getPictureType());
+            } else {
+                blipId = document.addPicture(picture.getData(), header.getPictureType());
+            }
+        } catch (InvalidFormatException e) {
+            throw new OfficeException("7006", "图片格式有误");
+        }
+        long cx;
+        long cy;
+        if (picture.getWidth() > 0) {
+            cx = Units.toEMU(picture.getWidth());
+            if (picture.getHeight() > 0) {
+                cy = Units.toEMU(picture.getHeight());
+            } else {
+                cy = header.getWidth() > 0 ? cx * header.getHeight() / header.getWidth() : 0;
+            }
+        } else {
+            cx = (long) header.getWidth() * Units.EMU_PER_PIXEL;
+            cy = (long) header.getHeight() * Units.EMU_PER_PIXEL;
+        }
+        run.removeT(0);
+        document.createPicture(run, blipId, cx, cy);
+    }
+
+    private static int[] append(int[] path, int... indexes) {
+        int[] result = Arrays.copyOf(path, path.length + indexes.length);
+        System.arraycopy(indexes, 0, result, path.length, indexes.length);
+        return result;
+    }
+
+    /**
+     * 占位符位置：段落（或重复行中的单元格、段落）及片段在 {@link #runs(XmlObject)} 中的下标
+     */
+    private static final class Slot {
+        final int part;
+        /**
+         * 正文中为 [元素下标, (行, 列, 元素下标)...]，重复行中为 [列, 段落下标]
+         */
+        final int[] path;
+        final int run;
+        final String key;
+        /**
+         * 重复行中从元素取值的字段，从 data 取值时为null
+         */
+        final String field;
+
+        Slot(int part, int[] path, int run, String key, String field) {
+            this.part = part;
+            this.path = path;
+            this.run = run;
+            this.key = key;
+            this.field = field;
+        }
+    }
+
+    /**
+     * 重复行位置：表格及行下标
+     */
+    private static final class LoopRow {
+        final int part;
+        final int[] path;
+        final int row;
+        final String key;
+        final List<Slot> cells;
+
+        LoopRow(int part, int[] path, int row, String key, List<Slot> cells) {
+            this.part = part;
+            this.path = path;
+            this.row = row;
+            this.key = key;
+            this.cells = cells;
+        }
+    }
+}
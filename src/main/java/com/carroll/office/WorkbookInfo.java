@@ -0,0 +1,86 @@
+package com.carroll.office;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 工作薄元数据，由 {@link ExcelUtils#probe(java.io.File)} 读取，不解析单元格数据
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public final class WorkbookInfo {
+
+    private final String fileType;
+    private final long fileSize;
+    private final long uncompressedSize;
+    private final long sharedStringsSize;
+    private final List<SheetInfo> sheets;
+
+    WorkbookInfo(String fileType, long fileSize, long uncompressedSize, long sharedStringsSize, List<SheetInfo> sheets) {
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.uncompressedSize = uncompressedSize;
+        this.sharedStringsSize = sharedStringsSize;
+        this.sheets = Collections.unmodifiableList(sheets);
+    }
+
+    /**
+     * @return 文件版本，".xls" 或 ".xlsx"
+     */
+    public String getFileType() {
+        return fileType;
+    }
+
+    /**
+     * @return 文件字节数，从输入流读取时为读取的字节数
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return .xlsx 中所有部件解压后的字节数之和，.xls 为工作薄记录流的大小
+     */
+    public long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    /**
+     * @return .xlsx 中共享字符串表解压后的字节数，.xls 为全局记录（含共享字符串表）的大小，没有时为0
+     */
+    public long getSharedStringsSize() {
+        return sharedStringsSize;
+    }
+
+    public int getSheetCount() {
+        return sheets.size();
+    }
+
+    public SheetInfo getSheet(int index) {
+        return sheets.get(index);
+    }
+
+    public List<SheetInfo> getSheets() {
+        return sheets;
+    }
+
+    /**
+     * @return 各sheet已用区域的行数之和，任一sheet未知时为-1
+     */
+    public long getTotalRowCount() {
+        long total = 0;
+        for (SheetInfo sheet : sheets) {
+            if (sheet.getRowCount() < 0) {
+                return -1;
+            }
+            total += sheet.getRowCount();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkbookInfo{fileType=" + fileType + ", fileSize=" + fileSize + ", sheets=" + sheets + "}";
+    }
+}
@@ -0,0 +1,497 @@
+package com.carroll.office;
+
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentEntry;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.util.CellReference;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 工作薄元数据探测：只读取sheet列表和各sheet的已用区域，不解析单元格
+ * <p>
+ * .xlsx 读取 workbook.xml、关系文件和每个sheet XML开头的 &lt;dimension&gt; 元素，sheet大小取自zip条目；
+ * .xls 读取全局记录中的 BOUNDSHEET 记录，再按其中的偏移直接定位到各sheet的 DIMENSIONS 记录，跳过其余记录
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class WorkbookProbe {
+
+    private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String OFFICE_DOCUMENT = RELATIONSHIPS_NS + "/officeDocument";
+    private static final String SHARED_STRINGS = RELATIONSHIPS_NS + "/sharedStrings";
+    private static final String PACKAGE_RELS = "_rels/.rels";
+    private static final String DEFAULT_WORKBOOK = "xl/workbook.xml";
+
+    private static final int SID_BOF = 0x0809;
+    private static final int SID_EOF = 0x000A;
+    private static final int SID_FILEPASS = 0x002F;
+    private static final int SID_BOUNDSHEET = 0x0085;
+    private static final int SID_DIMENSIONS = 0x0200;
+
+    private WorkbookProbe() {
+    }
+
+    static WorkbookInfo probeXlsx(File file) throws IOException, XMLStreamException, OfficeException {
+        ZipFile zip = new ZipFile(file);
+        try {
+            String workbookPart = DEFAULT_WORKBOOK;
+            ZipEntry packageRels = zip.getEntry(PACKAGE_RELS);
+            if (packageRels != null) {
+                workbookPart = findWorkbookPart(readRels(zip.getInputStream(packageRels)), workbookPart);
+            }
+            ZipEntry workbookEntry = zip.getEntry(workbookPart);
+            if (workbookEntry == null) {
+                throw new OfficeException("7002", "文件格式有误");
+            }
+            List<String[]> sheets = readSheets(zip.getInputStream(workbookEntry));
+            Map<String, String[]> rels = new HashMap<String, String[]>();
+            ZipEntry workbookRels = zip.getEntry(relsPart(workbookPart));
+            if (workbookRels != null) {
+                rels = readRels(zip.getInputStream(workbookRels));
+            }
+            List<SheetInfo> result = new ArrayList<SheetInfo>(sheets.size());
+            for (int i = 0; i < sheets.size(); i++) {
+                String[] sheet = sheets.get(i);
+                String[] rel = rels.get(sheet[2]);
+                ZipEntry entry = rel == null ? null : zip.getEntry(resolve(workbookPart, rel[1]));
+                int[] dimension = null;
+                long size = -1;
+                long compressedSize = -1;
+                if (entry != null) {
+                    InputStream in = zip.getInputStream(entry);
+                    try {
+                        dimension = readDimension(in);
+                    } finally {
+                        in.close();
+                    }
+                    size = entry.getSize();
+                    compressedSize = entry.getCompressedSize();
+                }
+                result.add(new SheetInfo(i, sheet[0], sheet[1] != null, dimension, size, compressedSize));
+            }
+            long uncompressedSize = 0;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                uncompressedSize += Math.max(0, entries.nextElement().getSize());
+            }
+            String sharedStrings = findPart(rels, workbookPart, SHARED_STRINGS);
+            ZipEntry sharedStringsEntry = sharedStrings == null ? null : zip.getEntry(sharedStrings);
+            long sharedStringsSize = sharedStringsEntry == null ? 0 : Math.max(0, sharedStringsEntry.getSize());
+            return new WorkbookInfo(ExcelUtils.excel2007U, file.length(), uncompressedSize, sharedStringsSize, result);
+        } finally {
+            zip.close();
+        }
+    }
+
+    /**
+     * 输入流只能顺序读取：关系文件和 workbook.xml 缓存在内存中，其余条目按根元素识别出sheet后读取 &lt;dimension&gt;，
+     * 之后的内容直接跳过
+     */
+    static WorkbookInfo probeXlsx(InputStream in) throws IOException, XMLStreamException, OfficeException {
+        CountingInputStream counting = new CountingInputStream(in);
+        ZipInputStream zin = new ZipInputStream(counting);
+        Map<String, byte[]> rels = new HashMap<String, byte[]>();
+        Map<String, List<String[]>> workbooks = new HashMap<String, List<String[]>>();
+        Map<String, int[]> dimensions = new HashMap<String, int[]>();
+        Map<String, long[]> sizes = new HashMap<String, long[]>();
+        byte[] buffer = new byte[8192];
+        ZipEntry entry;
+        while ((entry = zin.getNextEntry()) != null) {
+            String name = entry.getName();
+            if (name.endsWith(".rels")) {
+                rels.put(name, readFully(zin, buffer));
+                continue;
+            }
+            if (name.endsWith(".xml")) {
+                XMLStreamReader xml = XSSFStreamingReader.createXMLStreamReader(zin);
+                try {
+                    String root = nextStartElement(xml);
+                    if ("workbook".equals(root)) {
+                        workbooks.put(name, readSheets(xml));
+                    } else if ("worksheet".equals(root) || "chartsheet".equals(root) || "dialogsheet".equals(root)) {
+                        dimensions.put(name, readDimension(xml));
+                    }
+                } finally {
+                    xml.close();
+                }
+            }
+            while (zin.read(buffer) >= 0) {
+                //跳过条目剩余内容，读完后条目的大小才可用
+            }
+            sizes.put(name, new long[]{entry.getSize(), entry.getCompressedSize()});
+        }
+        while (counting.read(buffer) >= 0) {
+            //中央目录
+        }
+
+        String workbookPart = DEFAULT_WORKBOOK;
+        if (rels.containsKey(PACKAGE_RELS)) {
+            workbookPart = findWorkbookPart(readRels(new ByteArrayInputStream(rels.get(PACKAGE_RELS))), workbookPart);
+        }
+        List<String[]> sheets = workbooks.get(workbookPart);
+        if (sheets == null) {
+            throw new OfficeException("7002", "文件格式有误");
+        }
+        Map<String, String[]> workbookRels = new HashMap<String, String[]>();
+        byte[] relsData = rels.get(relsPart(workbookPart));
+        if (relsData != null) {
+            workbookRels = readRels(new ByteArrayInputStream(relsData));
+        }
+        List<SheetInfo> result = new ArrayList<SheetInfo>(sheets.size());
+        for (int i = 0; i < sheets.size(); i++) {
+            String[] sheet = sheets.get(i);
+            String[] rel = workbookRels.get(sheet[2]);
+            String part = rel == null ? null : resolve(workbookPart, rel[1]);
+            long[] size = part == null ? null : sizes.get(part);
+            result.add(new SheetInfo(i, sheet[0], sheet[1] != null, part == null ? null : dimensions.get(part),
+                    size == null ? -1 : size[0], size == null ? -1 : size[1]));
+        }
+        long uncompressedSize = 0;
+        for (long[] size : sizes.values()) {
+            uncompressedSize += Math.max(0, size[0]);
+        }
+        String sharedStrings = findPart(workbookRels, workbookPart, SHARED_STRINGS);
+        long[] sharedStringsSize = sharedStrings == null ? null : sizes.get(sharedStrings);
+        return new WorkbookInfo(ExcelUtils.excel2007U, counting.count, uncompressedSize,
+                sharedStringsSize == null ? 0 : Math.max(0, sharedStringsSize[0]), result);
+    }
+
+    static WorkbookInfo probeXls(InputStream in) throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        NPOIFSFileSystem fs = new NPOIFSFileSystem(counting);
+        try {
+            return probeXls(fs, counting.count);
+        } finally {
+            fs.close();
+        }
+    }
+
+    static WorkbookInfo probeXls(NPOIFSFileSystem fs, long fileSize) throws IOException {
+        DirectoryNode root = fs.getRoot();
+        String streamName = root.hasEntry("Workbook") ? "Workbook" : "Book";
+        DocumentEntry document = (DocumentEntry) root.getEntry(streamName);
+        long streamSize = document.getSize();
+
+        List<String> names = new ArrayList<String>();
+        List<Boolean> hidden = new ArrayList<Boolean>();
+        List<Long> offsets = new ArrayList<Long>();
+        boolean encrypted = false;
+        long globalsSize = 0;
+        DocumentInputStream in = root.createDocumentInputStream(streamName);
+        try {
+            while (in.available() >= 4) {
+                int sid = in.readUShort();
+                int length = in.readUShort();
+                globalsSize += 4 + length;
+                if (sid == SID_EOF) {
+                    break;
+                } else if (sid == SID_BOUNDSHEET) {
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    offsets.add(readInt(data, 0) & 0xFFFFFFFFL);
+                    hidden.add((data[4] & 0x03) != 0);
+                    names.add(readSheetName(data));
+                } else {
+                    if (sid == SID_FILEPASS) {
+                        encrypted = true;
+                    }
+                    skipFully(in, length);
+                }
+            }
+        } finally {
+            in.close();
+        }
+
+        List<SheetInfo> result = new ArrayList<SheetInfo>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            long offset = offsets.get(i);
+            long end = streamSize;
+            for (Long other : offsets) {
+                if (other > offset && other < end) {
+                    end = other;
+                }
+            }
+            //加密文件中 DIMENSIONS 记录的内容被加密，只返回sheet名称和大小
+            int[] dimension = encrypted ? null : readXlsDimension(root, streamName, offset);
+            result.add(new SheetInfo(i, names.get(i), hidden.get(i), dimension, end - offset, -1));
+        }
+        return new WorkbookInfo(ExcelUtils.excel2003L, fileSize, streamSize, globalsSize, result);
+    }
+
+    /**
+     * 从sheet的 BOF 记录开始查找 DIMENSIONS 记录，到sheet的 EOF 记录为止
+     */
+    private static int[] readXlsDimension(DirectoryNode root, String streamName, long offset) throws IOException {
+        DocumentInputStream in = root.createDocumentInputStream(streamName);
+        try {
+            skipFully(in, offset);
+            if (in.available() < 4 || in.readUShort() != SID_BOF) {
+                return null;
+            }
+            skipFully(in, in.readUShort());
+            while (in.available() >= 4) {
+                int sid = in.readUShort();
+                int length = in.readUShort();
+                if (sid == SID_EOF) {
+                    return null;
+                } else if (sid == SID_DIMENSIONS) {
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    int firstRow;
+                    int lastRowExclusive;
+                    int columnOffset;
+                    if (length >= 14) {
+                        firstRow = readInt(data, 0);
+                        lastRowExclusive = readInt(data, 4);
+                        columnOffset = 8;
+                    } else {
+                        //BIFF5 及更早版本的行号为两个字节
+                        firstRow = readUShort(data, 0);
+                        lastRowExclusive = readUShort(data, 2);
+                        columnOffset = 4;
+                    }
+                    int firstColumn = readUShort(data, columnOffset);
+                    int lastColumnExclusive = readUShort(data, columnOffset + 2);
+                    return new int[]{firstRow, lastRowExclusive - 1, firstColumn, lastColumnExclusive - 1};
+                } else {
+                    skipFully(in, length);
+                }
+            }
+            return null;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String readSheetName(byte[] data) {
+        int length = data[6] & 0xFF;
+        boolean unicode = (data[7] & 0x01) != 0;
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if (unicode) {
+                name.append((char) readUShort(data, 8 + i * 2));
+            } else {
+                name.append((char) (data[8 + i] & 0xFF));
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * @return 关系Id -> {Type, Target}
+     */
+    private static Map<String, String[]> readRels(InputStream in) throws XMLStreamException, IOException {
+        Map<String, String[]> rels = new HashMap<String, String[]>();
+        try {
+            XMLStreamReader xml = XSSFStreamingReader.createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(xml.getLocalName())) {
+                        rels.put(xml.getAttributeValue(null, "Id"),
+                                new String[]{xml.getAttributeValue(null, "Type"), xml.getAttributeValue(null, "Target")});
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        } finally {
+            in.close();
+        }
+        return rels;
+    }
+
+    private static String findWorkbookPart(Map<String, String[]> packageRels, String defaultPart) {
+        String part = findPart(packageRels, "", OFFICE_DOCUMENT);
+        return part == null ? defaultPart : part;
+    }
+
+    /**
+     * @return 源部件的关系中第一个指定类型的目标部件，没有时返回null
+     */
+    private static String findPart(Map<String, String[]> rels, String sourcePart, String type) {
+        for (String[] rel : rels.values()) {
+            if (type.equals(rel[0])) {
+                return resolve(sourcePart, rel[1]);
+            }
+        }
+        return null;
+    }
+
+    private static List<String[]> readSheets(InputStream in) throws XMLStreamException, IOException {
+        try {
+            XMLStreamReader xml = XSSFStreamingReader.createXMLStreamReader(in);
+            try {
+                return readSheets(xml);
+            } finally {
+                xml.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return 按顺序排列的 {name, state, r:id}，state 为null表示可见
+     */
+    private static List<String[]> readSheets(XMLStreamReader xml) throws XMLStreamException {
+        List<String[]> sheets = new ArrayList<String[]>();
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+                String state = xml.getAttributeValue(null, "state");
+                sheets.add(new String[]{xml.getAttributeValue(null, "name"), "visible".equals(state) ? null : state,
+                        xml.getAttributeValue(RELATIONSHIPS_NS, "id")});
+            } else if (event == XMLStreamConstants.END_ELEMENT && "sheets".equals(xml.getLocalName())) {
+                break;
+            }
+        }
+        return sheets;
+    }
+
+    private static int[] readDimension(InputStream in) throws XMLStreamException {
+        XMLStreamReader xml = XSSFStreamingReader.createXMLStreamReader(in);
+        try {
+            return readDimension(xml);
+        } finally {
+            xml.close();
+        }
+    }
+
+    /**
+     * &lt;dimension&gt; 位于 &lt;sheetData&gt; 之前，遇到 &lt;sheetData&gt; 即停止
+     */
+    private static int[] readDimension(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = xml.getLocalName();
+            if ("dimension".equals(name)) {
+                return parseRange(xml.getAttributeValue(null, "ref"));
+            } else if ("sheetData".equals(name)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * SXSSF 等流式写出的文件不回写已用区域，&lt;dimension&gt; 保持默认的 A1，无法与只有一个单元格的sheet区分，按未知处理
+     */
+    private static int[] parseRange(String ref) {
+        if (ref == null || ref.isEmpty() || "A1".equals(ref)) {
+            return null;
+        }
+        int colon = ref.indexOf(':');
+        CellReference first = new CellReference(colon < 0 ? ref : ref.substring(0, colon));
+        CellReference last = colon < 0 ? first : new CellReference(ref.substring(colon + 1));
+        return new int[]{first.getRow(), last.getRow(), first.getCol(), last.getCol()};
+    }
+
+    private static String nextStartElement(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                return xml.getLocalName();
+            }
+        }
+        return null;
+    }
+
+    private static String relsPart(String part) {
+        int slash = part.lastIndexOf('/');
+        return part.substring(0, slash + 1) + "_rels/" + part.substring(slash + 1) + ".rels";
+    }
+
+    /**
+     * 按源部件所在目录解析关系中的目标，结果不以 / 开头，与zip条目名一致
+     */
+    private static String resolve(String sourcePart, String target) {
+        String path = URI.create("/" + sourcePart).resolve(target.replace(" ", "%20")).getPath();
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static byte[] readFully(InputStream in, byte[] buffer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of workbook stream");
+            }
+            n -= skipped;
+        }
+    }
+
+    private static int readUShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return readUShort(data, offset) | readUShort(data, offset + 2) << 16;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
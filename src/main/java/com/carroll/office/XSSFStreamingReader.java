@@ -0,0 +1,393 @@
+package com.carroll.office;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * 基于XSSF事件模型的 .xlsx 流式读取：共享字符串表 + 按需拉取的sheet XML解析（StAX），内存占用与行数无关
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class XSSFStreamingReader implements ExcelRowReader {
+
+    private static final String GENERAL = "General";
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final ReadOnlySharedStringsTable strings;
+    private final String[] formats;
+    private final Iterator<InputStream> sheets;
+    private final Closeable resource;
+    private final int sheetIdx;
+    private final ReadFilter filter;
+    private final RowSink sink;
+    private final RawRow row = new RawRow();
+    private final StringBuilder text = new StringBuilder();
+
+    private int sheetIndex = -1;
+    private InputStream sheetStream;
+    private XMLStreamReader xml;
+    private boolean finished;
+
+    private int firstRow;
+    private int rowIndex;
+    private int column;
+    private String cellType;
+    private int styleIndex;
+    private boolean hasValue;
+    private boolean capture;
+    private boolean skipRow;
+    private boolean skipCell;
+    private boolean skipSheet;
+    private boolean inPhonetic;
+
+    /**
+     * @param pkg           工作薄
+     * @param resource      读取结束时需关闭的资源，可以为null
+     * @param sheetIdx      sheet索引，小于0时读取所有sheet
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param sink          行接收者
+     */
+    XSSFStreamingReader(OPCPackage pkg, Closeable resource, int sheetIdx, int startRowIndex, RowSink sink) throws Exception {
+        this(pkg, resource, sheetIdx, ReadFilter.fromRow(startRowIndex), sink);
+    }
+
+    /**
+     * @param pkg      工作薄
+     * @param resource 读取结束时需关闭的资源，可以为null
+     * @param sheetIdx sheet索引，小于0时读取所有sheet
+     * @param filter   行列过滤条件，对每个sheet分别生效
+     * @param sink     行接收者
+     */
+    XSSFStreamingReader(OPCPackage pkg, Closeable resource, int sheetIdx, ReadFilter filter, RowSink sink) throws Exception {
+        XSSFReader reader = new XSSFReader(pkg);
+        Shared shared = new Shared(pkg, reader);
+        this.strings = shared.strings;
+        this.formats = shared.formats;
+        this.sheets = reader.getSheetsData();
+        this.resource = resource;
+        this.sheetIdx = sheetIdx;
+        this.filter = filter;
+        this.sink = sink;
+        row.setDate1904(shared.date1904);
+    }
+
+    /**
+     * 只读取一个sheet，工作薄级别的数据（共享字符串、样式格式）由多个读取器共享，可在不同线程中并行读取各sheet
+     *
+     * @param shared        工作薄级别的只读数据
+     * @param sheet         sheet XML 输入流，读取结束时关闭
+     * @param sheetIndex    sheet索引
+     * @param startRowIndex 相对于sheet第一行的起始行
+     * @param sink          行接收者
+     */
+    XSSFStreamingReader(Shared shared, InputStream sheet, int sheetIndex, int startRowIndex, RowSink sink) {
+        this.strings = shared.strings;
+        this.formats = shared.formats;
+        this.sheets = Collections.singletonList(sheet).iterator();
+        this.resource = null;
+        this.sheetIdx = sheetIndex;
+        this.sheetIndex = sheetIndex - 1;
+        this.filter = ReadFilter.fromRow(startRowIndex);
+        this.sink = sink;
+        row.setDate1904(shared.date1904);
+    }
+
+    @Override
+    public boolean step() throws Exception {
+        if (finished) {
+            return false;
+        }
+        if (xml == null && !openNextSheet()) {
+            finished = true;
+            if (sheetIdx > sheetIndex) {
+                throw new IllegalArgumentException("Sheet index (" + sheetIdx + ") is out of range (0.." + sheetIndex + ")");
+            }
+            return false;
+        }
+        while (xml.hasNext()) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement(xml.getLocalName());
+                    if (skipSheet) {
+                        return endSheet();
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (capture) {
+                        text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (endElement(xml.getLocalName())) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return endSheet();
+    }
+
+    /**
+     * 当前sheet读完或行范围已读完时关闭sheet，只读取一个sheet时读取结束
+     */
+    private boolean endSheet() throws IOException {
+        closeSheet();
+        if (sheetIdx >= 0) {
+            finished = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        try {
+            closeSheet();
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+
+    private boolean openNextSheet() throws Exception {
+        while (sheets.hasNext()) {
+            InputStream in = sheets.next();
+            sheetIndex++;
+            if (sheetIdx < 0 || sheetIdx == sheetIndex) {
+                sheetStream = in;
+                xml = createXMLStreamReader(in);
+                firstRow = -1;
+                rowIndex = -1;
+                skipRow = false;
+                skipSheet = false;
+                return true;
+            }
+            in.close();
+        }
+        return false;
+    }
+
+    private void closeSheet() throws IOException {
+        try {
+            if (xml != null) {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            xml = null;
+            if (sheetStream != null) {
+                sheetStream.close();
+                sheetStream = null;
+            }
+        }
+    }
+
+    private void startElement(String localName) {
+        if ("c".equals(localName)) {
+            String ref = xml.getAttributeValue(null, "r");
+            column = ref != null ? columnIndex(ref) : column + 1;
+            skipCell = skipRow || !filter.acceptsColumn(column);
+            if (skipCell) {
+                return;
+            }
+            cellType = xml.getAttributeValue(null, "t");
+            String s = xml.getAttributeValue(null, "s");
+            styleIndex = s != null ? Integer.parseInt(s) : 0;
+            hasValue = false;
+            text.setLength(0);
+        } else if ("v".equals(localName) || ("t".equals(localName) && !inPhonetic)) {
+            //跳过的单元格不收集文本
+            capture = !skipCell;
+            hasValue = true;
+        } else if ("rPh".equals(localName)) {
+            inPhonetic = true;
+        } else if ("row".equals(localName)) {
+            String r = xml.getAttributeValue(null, "r");
+            rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+            if (firstRow < 0) {
+                firstRow = rowIndex;
+            }
+            int state = filter.rowState(rowIndex - firstRow, rowIndex);
+            skipRow = state != ReadFilter.READ;
+            skipSheet = state == ReadFilter.END;
+            row.reset(rowIndex);
+            column = -1;
+        }
+    }
+
+    /**
+     * @return 是否输出了一行
+     */
+    private boolean endElement(String localName) throws Exception {
+        if ("v".equals(localName) || "t".equals(localName)) {
+            capture = false;
+        } else if ("rPh".equals(localName)) {
+            inPhonetic = false;
+        } else if ("c".equals(localName)) {
+            if (!skipCell) {
+                endCell();
+            }
+            skipCell = false;
+        } else if ("row".equals(localName) && !skipRow) {
+            sink.accept(sheetIndex, row);
+            return true;
+        }
+        return false;
+    }
+
+    private void endCell() {
+        if (!hasValue) {
+            row.addBlank(column);
+            return;
+        }
+        if ("s".equals(cellType)) {
+            row.addString(column, decodeEscapes(strings.getEntryAt(Integer.parseInt(text.toString().trim()))));
+        } else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+            row.addString(column, decodeEscapes(text.toString()));
+        } else if ("b".equals(cellType)) {
+            row.addBoolean(column, "1".equals(text.toString().trim()));
+        } else if ("e".equals(cellType)) {
+            row.addError(column);
+        } else if (text.length() == 0) {
+            row.addBlank(column);
+        } else {
+            row.addNumeric(column, Double.parseDouble(text.toString()), getFormat(styleIndex));
+        }
+    }
+
+    /**
+     * 还原 _xHHHH_ 形式编码的字符（XML不允许的控制字符等），与 XSSFRichTextString 的取值一致
+     */
+    static String decodeEscapes(String value) {
+        if (value == null || value.indexOf("_x") < 0) {
+            return value;
+        }
+        StringBuilder buf = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            char ch = value.charAt(i);
+            if (ch == '_' && i + 6 < value.length() && value.charAt(i + 1) == 'x' && value.charAt(i + 6) == '_' && isHex(value, i + 2, i + 6)) {
+                buf.append((char) Integer.parseInt(value.substring(i + 2, i + 6), 16));
+                i += 7;
+            } else {
+                buf.append(ch);
+                i++;
+            }
+        }
+        return buf.toString();
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getFormat(int styleIndex) {
+        return styleIndex < formats.length ? formats[styleIndex] : GENERAL;
+    }
+
+    /**
+     * 工作薄级别的只读数据，创建后不再修改，可在多个线程间共享
+     */
+    static final class Shared {
+        final ReadOnlySharedStringsTable strings;
+        /**
+         * 样式索引 -> 数据格式
+         */
+        final String[] formats;
+        final boolean date1904;
+
+        Shared(OPCPackage pkg, XSSFReader reader) throws Exception {
+            this.strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            int count = styles != null ? styles.getNumCellStyles() : 0;
+            this.formats = new String[count];
+            for (int i = 0; i < count; i++) {
+                XSSFCellStyle style = styles.getStyleAt(i);
+                String format = style != null ? style.getDataFormatString() : null;
+                formats[i] = format != null ? format : GENERAL;
+            }
+            this.date1904 = readDate1904(reader);
+        }
+    }
+
+    private static boolean readDate1904(XSSFReader reader) throws Exception {
+        InputStream in = reader.getWorkbookData();
+        try {
+            XMLStreamReader workbook = createXMLStreamReader(in);
+            try {
+                while (workbook.hasNext()) {
+                    if (workbook.next() == XMLStreamConstants.START_ELEMENT) {
+                        String name = workbook.getLocalName();
+                        if ("workbookPr".equals(name)) {
+                            String value = workbook.getAttributeValue(null, "date1904");
+                            return "1".equals(value) || "true".equalsIgnoreCase(value);
+                        } else if ("sheets".equals(name)) {
+                            //workbookPr 位于 sheets 之前
+                            return false;
+                        }
+                    }
+                }
+            } finally {
+                workbook.close();
+            }
+        } finally {
+            in.close();
+        }
+        return false;
+    }
+
+    /**
+     * XMLInputFactory 不保证线程安全，并行读取多个sheet时串行创建解析器
+     */
+    static XMLStreamReader createXMLStreamReader(InputStream in) throws XMLStreamException {
+        synchronized (XML_INPUT_FACTORY) {
+            return XML_INPUT_FACTORY.createXMLStreamReader(in);
+        }
+    }
+
+    /**
+     * 解析单元格引用中的列索引，如 "AB12" 返回 27
+     */
+    static int columnIndex(String ref) {
+        int col = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            col = col * 26 + (ch - 'A' + 1);
+        }
+        return col - 1;
+    }
+}
@@ -0,0 +1,200 @@
+package com.carroll.office;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * 写出已压缩数据的zip：条目数据为外部压缩好的原始 deflate 流，本地文件头不含大小，
+ * 大小和CRC写在数据之后的数据描述符中，因此压缩块可以边完成边写出
+ *
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+final class ZipStreamWriter {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int DATA_DESCRIPTOR = 0x08074b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    /**
+     * bit 3: 大小和CRC在数据描述符中；bit 11: 文件名为UTF-8
+     */
+    private static final int FLAGS = 0x0808;
+    private static final int DEFLATED = 8;
+    private static final int VERSION = 20;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    private final OutputStream out;
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private final int dosTime;
+    private long offset;
+    private Entry current;
+
+    ZipStreamWriter(OutputStream out) {
+        this.out = out;
+        this.dosTime = dosTime(Calendar.getInstance());
+    }
+
+    /**
+     * 开始一个条目，之后通过 {@link #write(byte[], int, int)} 写入压缩数据，以 {@link #closeEntry(long, long, long)} 结束
+     */
+    void putEntry(String name) throws IOException {
+        if (current != null) {
+            throw new IllegalStateException("Entry " + current.name + " is not closed");
+        }
+        current = new Entry(name, offset);
+        byte[] nameBytes = current.nameBytes;
+        ByteArrayOutputStream header = new ByteArrayOutputStream(30 + nameBytes.length);
+        writeInt(header, LOCAL_HEADER);
+        writeShort(header, VERSION);
+        writeShort(header, FLAGS);
+        writeShort(header, DEFLATED);
+        writeInt(header, dosTime);
+        writeInt(header, 0);
+        writeInt(header, 0);
+        writeInt(header, 0);
+        writeShort(header, nameBytes.length);
+        writeShort(header, 0);
+        header.write(nameBytes);
+        writeRaw(header.toByteArray());
+    }
+
+    void write(byte[] data, int off, int len) throws IOException {
+        out.write(data, off, len);
+        offset += len;
+    }
+
+    /**
+     * 以 {@link OutputStream} 形式写入当前条目的压缩数据
+     */
+    OutputStream entryStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                ZipStreamWriter.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ZipStreamWriter.this.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * 结束当前条目，写出数据描述符
+     *
+     * @param crc            未压缩数据的CRC32
+     * @param compressedSize 压缩后的字节数
+     * @param size           未压缩的字节数
+     */
+    void closeEntry(long crc, long compressedSize, long size) throws IOException {
+        if (compressedSize > MAX_32 || size > MAX_32) {
+            throw new IOException("Entry " + current.name + " exceeds 4GB, ZIP64 is not supported");
+        }
+        current.crc = crc;
+        current.compressedSize = compressedSize;
+        current.size = size;
+        ByteArrayOutputStream descriptor = new ByteArrayOutputStream(16);
+        writeInt(descriptor, DATA_DESCRIPTOR);
+        writeInt(descriptor, (int) crc);
+        writeInt(descriptor, (int) compressedSize);
+        writeInt(descriptor, (int) size);
+        writeRaw(descriptor.toByteArray());
+        entries.add(current);
+        current = null;
+    }
+
+    /**
+     * 写出中央目录，不关闭输出流
+     */
+    void finish() throws IOException {
+        if (current != null) {
+            throw new IllegalStateException("Entry " + current.name + " is not closed");
+        }
+        long centralStart = offset;
+        ByteArrayOutputStream central = new ByteArrayOutputStream();
+        for (Entry entry : entries) {
+            writeInt(central, CENTRAL_HEADER);
+            writeShort(central, VERSION);
+            writeShort(central, VERSION);
+            writeShort(central, FLAGS);
+            writeShort(central, DEFLATED);
+            writeInt(central, dosTime);
+            writeInt(central, (int) entry.crc);
+            writeInt(central, (int) entry.compressedSize);
+            writeInt(central, (int) entry.size);
+            writeShort(central, entry.nameBytes.length);
+            writeShort(central, 0);
+            writeShort(central, 0);
+            writeShort(central, 0);
+            writeShort(central, 0);
+            writeInt(central, 0);
+            writeInt(central, (int) entry.offset);
+            central.write(entry.nameBytes);
+        }
+        writeRaw(central.toByteArray());
+        long centralSize = offset - centralStart;
+        if (centralStart > MAX_32 || entries.size() > 0xFFFF) {
+            throw new IOException("Package exceeds 4GB or 65535 entries, ZIP64 is not supported");
+        }
+        ByteArrayOutputStream end = new ByteArrayOutputStream(22);
+        writeInt(end, END_OF_CENTRAL_DIRECTORY);
+        writeShort(end, 0);
+        writeShort(end, 0);
+        writeShort(end, entries.size());
+        writeShort(end, entries.size());
+        writeInt(end, (int) centralSize);
+        writeInt(end, (int) centralStart);
+        writeShort(end, 0);
+        writeRaw(end.toByteArray());
+        out.flush();
+    }
+
+    private void writeRaw(byte[] data) throws IOException {
+        write(data, 0, data.length);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        writeShort(out, value & 0xFFFF);
+        writeShort(out, (value >>> 16) & 0xFFFF);
+    }
+
+    private static int dosTime(Calendar c) {
+        int year = c.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25
+                | (c.get(Calendar.MONTH) + 1) << 21
+                | c.get(Calendar.DAY_OF_MONTH) << 16
+                | c.get(Calendar.HOUR_OF_DAY) << 11
+                | c.get(Calendar.MINUTE) << 5
+                | c.get(Calendar.SECOND) >> 1;
+    }
+
+    private static final class Entry {
+        final String name;
+        final byte[] nameBytes;
+        final long offset;
+        long crc;
+        long compressedSize;
+        long size;
+
+        Entry(String name, long offset) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.offset = offset;
+        }
+    }
+}
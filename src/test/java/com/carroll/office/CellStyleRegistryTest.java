@@ -0,0 +1,77 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class CellStyleRegistryTest {
+
+    /**
+     * 原样式修改后，派生样式按修改后的属性创建
+     */
+    @Test
+    public void derivesFromCurrentBaseProperties() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        CellStyleRegistry styles = new CellStyleRegistry(wb);
+        CellStyle base = wb.createCellStyle();
+        CellStyle decimal = styles.getStyle(base, "0.00");
+        assertFalse(decimal.getWrapText());
+        assertEquals(decimal.getIndex(), styles.getStyle(base, "0.00").getIndex());
+
+        base.setWrapText(true);
+        CellStyle wrapped = styles.getStyle(base, "0.00");
+        assertNotEquals(decimal.getIndex(), wrapped.getIndex());
+        assertTrue(wrapped.getWrapText());
+        assertEquals("0.00", wrapped.getDataFormatString());
+    }
+
+    /**
+     * 缓存的样式被调用方修改后，不再按原规格返回
+     */
+    @Test
+    public void recreatesMutatedStyle() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        CellStyleRegistry styles = new CellStyleRegistry(wb);
+        CellStyleSpec spec = new CellStyleSpec();
+        spec.setFontSize(10);
+        CellStyle style = styles.getStyle(spec);
+        assertEquals(style.getIndex(), styles.getStyle(spec).getIndex());
+
+        style.setWrapText(true);
+        CellStyle fresh = styles.getStyle(spec);
+        assertNotEquals(style.getIndex(), fresh.getIndex());
+        assertFalse(fresh.getWrapText());
+        assertEquals(fresh.getIndex(), styles.getStyle(spec).getIndex());
+    }
+
+    /**
+     * 单独调用的填充方法使用的共享实例不会使工作薄无法回收
+     */
+    @Test
+    public void releasesWorkbookOfSharedRegistry() throws Exception {
+        WeakReference<XSSFWorkbook> ref = fillHeader();
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+    }
+
+    private static WeakReference<XSSFWorkbook> fillHeader() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        ExportExcelUtils.fillTableHeader("标题", wb.createSheet("s1"), new String[]{"A", "B"}, new Integer[]{10, 10});
+        return new WeakReference<XSSFWorkbook>(wb);
+    }
+}
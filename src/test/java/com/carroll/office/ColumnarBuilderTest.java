@@ -0,0 +1,49 @@
+package com.carroll.office;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class ColumnarBuilderTest {
+
+    /**
+     * 单元格乱序或重复时与按行读取的结果一致
+     */
+    @Test
+    public void ordersCellsByColumn() throws Exception {
+        RawRow row = new RawRow();
+        row.reset(0);
+        row.addString(2, "c");
+        row.addString(0, "a");
+        row.addString(2, "c2");
+        row.addString(1, "b");
+        ColumnarBuilder builder = new ColumnarBuilder(null);
+        builder.accept(0, row);
+        ColumnarResult result = builder.build();
+        assertEquals(Arrays.<Object>asList("a", "b", "c2"), result.getRow(0));
+        assertEquals(row.toValues(new DecimalFormat("0")), result.getRow(0));
+    }
+
+    /**
+     * 声明为文本的列中日期格式的数值按日期文本保存
+     */
+    @Test
+    public void formatsDatesInStringColumn() throws Exception {
+        RawRow row = new RawRow();
+        row.reset(0);
+        row.addNumeric(0, 43831, "yyyy-mm-dd");
+        row.addNumeric(1, 12.5, "General");
+        ColumnarBuilder builder = new ColumnarBuilder(new ColumnType[]{ColumnType.STRING, ColumnType.STRING});
+        builder.accept(0, row);
+        ColumnarResult result = builder.build();
+        assertEquals(row.getValue(0, new DecimalFormat("0")), result.getValue(0, 0));
+        assertEquals("12.5", result.getValue(0, 1));
+    }
+}
@@ -0,0 +1,158 @@
+package com.carroll.office;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Types;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class ExportExcelUtilsTest {
+
+    /**
+     * 调用方创建的SXSSF工作薄写出后由调用方释放
+     */
+    @Test
+    public void leavesCallerWorkbookUndisposed() throws Exception {
+        SXSSFWorkbook wb = new SXSSFWorkbook(10);
+        Sheet sheet = wb.createSheet("s1");
+        for (int i = 0; i < 100; i++) {
+            sheet.createRow(i).createCell(0).setCellValue(i);
+        }
+        ExportExcelUtils.writeExport(wb, new ByteArrayOutputStream(), false);
+        //临时文件仍在，由调用方删除
+        assertTrue(wb.dispose());
+    }
+
+    /**
+     * 没有数据时不解析属性，属性名有误也不报错
+     */
+    @Test
+    public void addsNoColumnsForEmptyListWithUnknownGetter() throws Exception {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        Map<String, Integer> position = new HashMap<String, Integer>();
+        position.put("seqNum", 1);
+        position.put("rownumStart", 3);
+        ExportExcelUtils.addCols(wb, wb.createSheet("s1"), Collections.emptyList(), String.class.getName(), position,
+                new String[]{"", "getNoSuchValue"}, null, null, new Integer[]{10, 10}, wb.createCellStyle());
+        assertEquals(Integer.valueOf(1), position.get("seqNum"));
+        assertEquals(Integer.valueOf(3), position.get("rownumStart"));
+    }
+
+    /**
+     * 按列类型写入：数值、布尔、日期写为对应类型的单元格，文本和空值按文本写入
+     */
+    @Test
+    public void fillsResultSetByColumnType() throws Exception {
+        Connection conn = DriverManager.getConnection("jdbc:h2:mem:");
+        try {
+            Statement stmt = conn.createStatement();
+            stmt.execute("create table t (n int, d decimal(10, 2), s varchar(20), b boolean, dt date, ts timestamp)");
+            stmt.execute("insert into t values (7, 1.25, 'abc', true, date '2026-10-18', timestamp '2026-10-18 08:30:00')");
+            stmt.execute("insert into t values (null, null, null, null, null, null)");
+            XSSFWorkbook wb = new XSSFWorkbook();
+            Sheet sheet = wb.createSheet("s1");
+            ResultSet rs = stmt.executeQuery("select * from t order by n nulls last");
+            assertEquals(2, ExportExcelUtils.fillResultSetData(sheet, rs, new Integer[]{10, 10, 10, 10, 10, 10}, 0));
+
+            Row row = sheet.getRow(0);
+            assertEquals(7, row.getCell(0).getNumericCellValue(), 0);
+            assertEquals(1.25, row.getCell(1).getNumericCellValue(), 0);
+            assertEquals("abc", row.getCell(2).getStringCellValue());
+            assertEquals(Cell.CELL_TYPE_BOOLEAN, row.getCell(3).getCellType());
+            assertTrue(row.getCell(3).getBooleanCellValue());
+            assertTrue(DateUtil.isCellDateFormatted(row.getCell(4)));
+            assertEquals("2026-10-18", new SimpleDateFormat("yyyy-MM-dd").format(row.getCell(4).getDateCellValue()));
+            assertEquals("2026-10-18 08:30", new SimpleDateFormat("yyyy-MM-dd HH:mm").format(row.getCell(5).getDateCellValue()));
+            for (Cell cell : sheet.getRow(1)) {
+                assertEquals(Cell.CELL_TYPE_STRING, cell.getCellType());
+                assertEquals("", cell.getStringCellValue());
+            }
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * BIT(n>1) 按无符号整数写入，不截断为布尔值
+     */
+    @Test
+    public void fillsMultiBitColumnAsNumber() throws Exception {
+        Connection conn = DriverManager.getConnection("jdbc:h2:mem:");
+        try {
+            //H2 没有多位的 BIT 类型，用二进制列模拟驱动返回的字节数组，元数据报告为 BIT(16)
+            ResultSet rs = bitColumn(conn.createStatement().executeQuery("select X'0102' as flags"), 16);
+            XSSFWorkbook wb = new XSSFWorkbook();
+            Sheet sheet = wb.createSheet("s1");
+            ExportExcelUtils.fillResultSetData(sheet, rs, new Integer[]{10}, 0);
+            assertEquals(Cell.CELL_TYPE_NUMERIC, sheet.getRow(0).getCell(0).getCellType());
+            assertEquals(258, sheet.getRow(0).getCell(0).getNumericCellValue(), 0);
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * 结果集的元数据把所有列报告为指定位数的 BIT
+     */
+    private static ResultSet bitColumn(final ResultSet rs, final int precision) throws Exception {
+        final ResultSetMetaData metaData = rs.getMetaData();
+        final ResultSetMetaData bitMetaData = proxy(ResultSetMetaData.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("getColumnType".equals(method.getName())) {
+                    return Types.BIT;
+                }
+                if ("getPrecision".equals(method.getName())) {
+                    return precision;
+                }
+                return invokeOn(metaData, method, args);
+            }
+        });
+        return proxy(ResultSet.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("getMetaData".equals(method.getName())) {
+                    return bitMetaData;
+                }
+                return invokeOn(rs, method, args);
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.carroll.office;
+
+import org.apache.poi.xwpf.usermodel.Document;
+import org.apache.poi.xwpf.usermodel.XWPFPictureData;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import javax.xml.namespace.QName;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class POIWordUtilsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 文件头无法识别的格式按扩展名确定图片类型
+     */
+    @Test
+    public void addsPictureByExtension() throws Exception {
+        File emf = folder.newFile("chart.emf");
+        Files.write(emf.toPath(), new byte[]{1, 0, 0, 0, 0x6C, 0, 0, 0});
+        CustomXWPFDocument document = new CustomXWPFDocument();
+        POIWordUtils.addPic(document, emf.getPath(), 100, 50, "");
+        XWPFPictureData picture = document.getAllPictures().get(0);
+        assertEquals(Document.PICTURE_TYPE_EMF, picture.getPictureType());
+    }
+
+    /**
+     * 重新打开的文档中同一图片插入多次时，新插入的图形id不与已有的重复
+     */
+    @Test
+    public void continuesDrawingIdsOfExistingDocument() throws Exception {
+        byte[] png = png();
+        CustomXWPFDocument document = new CustomXWPFDocument();
+        POIWordUtils.addPic(document, png, "");
+        POIWordUtils.addPic(document, png, "");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        document.write(out);
+
+        CustomXWPFDocument reopened = new CustomXWPFDocument(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(1, reopened.getAllPictures().size());
+        POIWordUtils.addPic(reopened, png, "");
+        Set<String> ids = new HashSet<String>();
+        XmlObject[] docPrs = reopened.getDocument().selectPath(
+                "declare namespace wp='http://schemas.openxmlformats.org/drawingml/2006/wordprocessingDrawing' .//wp:docPr");
+        for (XmlObject docPr : docPrs) {
+            XmlCursor cursor = docPr.newCursor();
+            ids.add(cursor.getAttributeText(new QName("id")));
+            cursor.dispose();
+        }
+        assertEquals(3, docPrs.length);
+        assertEquals(3, ids.size());
+    }
+
+    private static byte[] png() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package com.carroll.office;
+
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class ParallelExportTest {
+
+    /**
+     * 文本中原有的 _xHHHH_ 读取后不变，控制字符读取后还原
+     */
+    @Test
+    public void keepsLiteralEscapeSequence() throws Exception {
+        List<Object[]> rows = Collections.singletonList(new Object[]{"_x0041_", "a_x00_b", "tab\u0001"});
+        XSSFSheet sheet = export(Collections.singletonList(rows), new String[]{"s1"}, directExecutor()).getSheetAt(0);
+        int last = sheet.getLastRowNum();
+        assertEquals("_x0041_", sheet.getRow(last).getCell(0).getStringCellValue());
+        assertEquals("a_x00_b", sheet.getRow(last).getCell(1).getStringCellValue());
+        assertEquals("tab\u0001", sheet.getRow(last).getCell(2).getStringCellValue());
+    }
+
+    /**
+     * 执行器不运行任务或在提交的线程中直接运行任务时，由调用线程生成并压缩，压缩块数超过队列上限也不会互相等待
+     */
+    @Test
+    public void exportsWhenExecutorDoesNotRunTasksAsynchronously() throws Exception {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        for (int i = 0; i < 25000; i++) {
+            rows.add(new Object[]{"row" + i, String.valueOf(i), "第" + i + "行"});
+        }
+        Executor discarding = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+            }
+        };
+        for (Executor executor : Arrays.asList(discarding, directExecutor())) {
+            XSSFWorkbook wb = export(Arrays.<Iterable<Object[]>>asList(rows, rows), new String[]{"s1", "s2"}, executor);
+            for (int i = 0; i < 2; i++) {
+                XSSFSheet sheet = wb.getSheetAt(i);
+                assertEquals("row24999", sheet.getRow(sheet.getLastRowNum()).getCell(0).getStringCellValue());
+                assertEquals("第0行", sheet.getRow(sheet.getLastRowNum() - 24999).getCell(2).getStringCellValue());
+            }
+        }
+    }
+
+    /**
+     * 开启监控时每个sheet在写出后记录一次，最后记录写出的字节数
+     */
+    @Test
+    public void recordsMetricsPerSheet() throws Exception {
+        List<Object[]> rows = Collections.singletonList(new Object[]{"a", "b", "c"});
+        final List<MetricsEvent> events = new ArrayList<MetricsEvent>();
+        OfficeMetrics.setListener(new MetricsListener() {
+            @Override
+            public void onEvent(MetricsEvent event) {
+                events.add(event);
+            }
+        });
+        try {
+            export(Arrays.<Iterable<Object[]>>asList(rows, rows), new String[]{"s1", "s2"}, directExecutor());
+        } finally {
+            OfficeMetrics.setListener(null);
+        }
+        List<MetricsPhase> phases = new ArrayList<MetricsPhase>();
+        for (MetricsEvent event : events) {
+            phases.add(event.getPhase());
+        }
+        assertEquals(Arrays.asList(MetricsPhase.SHEET, MetricsPhase.SHEET, MetricsPhase.SERIALIZE, MetricsPhase.WRITE), phases);
+        assertEquals(1, events.get(1).getSheetIndex());
+        assertEquals(1, events.get(1).getRows());
+        assertEquals(3, events.get(1).getCells());
+        assertEquals(2, events.get(2).getRows());
+        assertTrue(events.get(3).getBytes() > 0);
+    }
+
+    private static XSSFWorkbook export(List<? extends Iterable<Object[]>> data, String[] sheetNames, Executor executor) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportExcelUtils.exportParallel("标题", new String[]{"A", "B", "C"}, new Integer[]{10, 10, 10}, data, sheetNames, out, executor, false);
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static Executor directExecutor() {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+    }
+}
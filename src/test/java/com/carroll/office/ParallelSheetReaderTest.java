@@ -0,0 +1,51 @@
+package com.carroll.office;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class ParallelSheetReaderTest {
+
+    /**
+     * 在单线程执行器自身的线程中并行读取，排在后面的sheet由调用线程解析，不会互相等待
+     */
+    @Test(timeout = 30000)
+    public void readsFromWorkerOfSingleThreadExecutor() throws Exception {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        for (int i = 0; i < 3; i++) {
+            wb.createSheet("s" + i).createRow(0).createCell(0).setCellValue("v" + i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        wb.write(out);
+        final byte[] data = out.toByteArray();
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<List<List<Object>>> sheets = executor.submit(new Callable<List<List<List<Object>>>>() {
+                @Override
+                public List<List<List<Object>>> call() throws Exception {
+                    return ExcelUtils.readSheetsParallel(new ByteArrayInputStream(data), "a.xlsx", 0, null, executor);
+                }
+            }).get(20, TimeUnit.SECONDS);
+            assertEquals(3, sheets.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals("v" + i, sheets.get(i).get(0).get(0));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
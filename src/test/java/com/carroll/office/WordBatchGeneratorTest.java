@@ -0,0 +1,114 @@
+package com.carroll.office;
+
+import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFFooter;
+import org.apache.poi.xwpf.usermodel.XWPFHeader;
+import org.apache.poi.xwpf.usermodel.XWPFHeaderFooter;
+import org.junit.Test;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTHdrFtr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTSdtBlock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class WordBatchGeneratorTest {
+
+    /**
+     * 页眉页脚中的内容控件（如页码）位于占位符之前时，直接填充XML与加载文档填充的结果一致
+     */
+    @Test
+    public void fillsHeaderAndFooterAfterContentControl() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("正文 ${name}");
+        XWPFHeaderFooterPolicy policy = document.createHeaderFooterPolicy();
+        XWPFHeader header = policy.createHeader(XWPFHeaderFooterPolicy.DEFAULT);
+        XWPFFooter footer = policy.createFooter(XWPFHeaderFooterPolicy.DEFAULT);
+        addContentControlThenPlaceholder(header, "页眉 ${no}");
+        addContentControlThenPlaceholder(footer, "页脚 ${name}");
+        ByteArrayOutputStream templateOut = new ByteArrayOutputStream();
+        document.write(templateOut);
+
+        WordTemplate template = WordTemplate.compile(new ByteArrayInputStream(templateOut.toByteArray()));
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put("name", "张三");
+        data.put("no", "HT-001");
+
+        ByteArrayOutputStream batchOut = new ByteArrayOutputStream();
+        new WordBatchGenerator(template).write(data, batchOut);
+        ByteArrayOutputStream fillOut = new ByteArrayOutputStream();
+        template.fill(data, fillOut);
+
+        XWPFDocument batch = new XWPFDocument(new ByteArrayInputStream(batchOut.toByteArray()));
+        XWPFDocument filled = new XWPFDocument(new ByteArrayInputStream(fillOut.toByteArray()));
+        assertEquals("正文 张三", batch.getParagraphArray(0).getText());
+        assertEquals(filled.getHeaderList().get(0).getText(), batch.getHeaderList().get(0).getText());
+        assertEquals(filled.getFooterList().get(0).getText(), batch.getFooterList().get(0).getText());
+        assertEquals("页眉 HT-001", batch.getHeaderList().get(0).getParagraphs().get(1).getText());
+        assertEquals("页脚 张三", batch.getFooterList().get(0).getParagraphs().get(1).getText());
+    }
+
+    /**
+     * 文件名中的路径分隔符和 .. 被替换，不会写到目录之外；重名的文档加上序号，不覆盖
+     */
+    @Test
+    public void sanitisesDocumentFileNames() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("${no}");
+        ByteArrayOutputStream templateOut = new ByteArrayOutputStream();
+        document.write(templateOut);
+        WordTemplate template = WordTemplate.compile(new ByteArrayInputStream(templateOut.toByteArray()));
+
+        File root = Files.createTempDirectory("batch").toFile();
+        File directory = new File(root, "out");
+        assertTrue(directory.mkdir());
+        List<Map<String, Object>> data = new ArrayList<Map<String, Object>>();
+        for (String no : Arrays.asList("HT/2026/001", "../../x", "a", "a", "")) {
+            data.add(Collections.<String, Object>singletonMap("no", no));
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(5, new WordBatchGenerator(template).generate(data, directory, "no", executor).getDocuments());
+        } finally {
+            executor.shutdown();
+        }
+        String[] names = directory.list();
+        Arrays.sort(names);
+        assertEquals(Arrays.asList("4.docx", "HT_2026_001.docx", "____x.docx", "a.docx", "a_3.docx"), Arrays.asList(names));
+        assertEquals(1, root.list().length);
+        for (String name : names) {
+            assertTrue(new File(directory, name).delete());
+        }
+        assertTrue(directory.delete() && root.delete());
+    }
+
+    /**
+     * 在页眉页脚原有段落之后追加页码内容控件和含占位符的段落
+     */
+    private static void addContentControlThenPlaceholder(XWPFHeaderFooter part, String text) {
+        CTHdrFtr hdrFtr = part._getHdrFtr();
+        CTSdtBlock sdt = hdrFtr.addNewSdt();
+        sdt.addNewSdtPr();
+        sdt.addNewSdtContent().addNewP().addNewR().addNewT().setStringValue("1");
+        CTP p = hdrFtr.addNewP();
+        p.addNewR().addNewT().setStringValue(text);
+    }
+}
@@ -0,0 +1,218 @@
+package com.carroll.office;
+
+import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFHeader;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.Test;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTHyperlink;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTSimpleField;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTText;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: carroll.he
+ * @date 2026/10/18
+ */
+public class WordTemplateTest {
+
+    /**
+     * 被拆分到多个片段中的占位符合并后填充，各段保留起始位置所在片段的格式
+     */
+    @Test
+    public void fillsPlaceholderSplitAcrossRuns() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        XWPFParagraph paragraph = document.createParagraph();
+        paragraph.createRun().setText("合同 ${na");
+        XWPFRun bold = paragraph.createRun();
+        bold.setBold(true);
+        bold.setText("me} 编号${no}");
+
+        XWPFParagraph filled = fill(document, data("name", "张三", "no", "HT-001")).getParagraphArray(0);
+        assertEquals("合同 张三 编号HT-001", filled.getText());
+        //"${name}" 起始于第一个片段，沿用其格式；" 编号" 起始于加粗的片段
+        int checked = 0;
+        for (XWPFRun run : filled.getRuns()) {
+            if ("张三".equals(run.text())) {
+                assertFalse(run.isBold());
+                checked++;
+            } else if (" 编号".equals(run.text())) {
+                assertTrue(run.isBold());
+                checked++;
+            }
+        }
+        assertEquals(2, checked);
+    }
+
+    /**
+     * 重复行按元素复制，行中其他占位符从 data 取值；空集合时删除模板行，值不是集合时按普通占位符填写
+     */
+    @Test
+    public void repeatsTableRows() throws Exception {
+        Map<String, Object> first = data("name", "螺栓", "qty", 10);
+        Map<String, Object> second = data("name", "螺母", "qty", 20);
+
+        XWPFTable table = fill(tableTemplate(), data("items", Arrays.asList(first, second), "unit", "个")).getTableArray(0);
+        assertEquals(3, table.getNumberOfRows());
+        assertEquals("名称", table.getRow(0).getCell(0).getText());
+        assertRow(table, 1, "螺栓", "10个");
+        assertRow(table, 2, "螺母", "20个");
+
+        table = fill(tableTemplate(), data("items", Collections.emptyList(), "unit", "个")).getTableArray(0);
+        assertEquals(1, table.getNumberOfRows());
+
+        table = fill(tableTemplate(), data("items", "无", "items.name", "合计", "unit", "个")).getTableArray(0);
+        assertEquals(2, table.getNumberOfRows());
+        assertRow(table, 1, "合计", "个");
+    }
+
+    /**
+     * 页眉页脚中的占位符与正文一样填充
+     */
+    @Test
+    public void fillsHeaderAndFooter() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("${name}");
+        XWPFHeaderFooterPolicy policy = document.createHeaderFooterPolicy();
+        policy.createHeader(XWPFHeaderFooterPolicy.DEFAULT).createParagraph().createRun().setText("页眉 ${no}");
+        policy.createFooter(XWPFHeaderFooterPolicy.DEFAULT).createParagraph().createRun().setText("${name} 第1页");
+
+        XWPFDocument filled = fill(document, data("name", "张三", "no", "HT-001"));
+        assertEquals("张三", filled.getParagraphArray(0).getText());
+        assertEquals("页眉 HT-001", filled.getHeaderList().get(0).getText().trim());
+        assertEquals("张三 第1页", filled.getFooterList().get(0).getText().trim());
+    }
+
+    /**
+     * 图片值替换占位符所在片段，页眉中的图片关系建在页眉部件中
+     */
+    @Test
+    public void insertsPictures() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("${logo}");
+        XWPFHeaderFooterPolicy policy = document.createHeaderFooterPolicy();
+        policy.createHeader(XWPFHeaderFooterPolicy.DEFAULT).createParagraph().createRun().setText("${logo}");
+
+        XWPFDocument filled = fill(document, data("logo", new WordPicture(png(4, 2), 40, 0)));
+        assertEquals(1, filled.getAllPictures().size());
+        assertEquals("", filled.getParagraphArray(0).getText());
+        assertEquals(1, filled.getParagraphArray(0).getRuns().get(0).getEmbeddedPictures().size());
+        XWPFHeader header = filled.getHeaderList().get(0);
+        assertEquals(1, header.getAllPictures().size());
+        //新建的页眉自带一个空段落，占位符在其后的段落中
+        List<XWPFParagraph> paragraphs = header.getParagraphs();
+        assertEquals(1, paragraphs.get(paragraphs.size() - 1).getRuns().get(0).getEmbeddedPictures().size());
+    }
+
+    /**
+     * 图片数据不是支持的格式时抛出异常
+     */
+    @Test(expected = OfficeException.class)
+    public void rejectsUnknownPicture() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        document.createParagraph().createRun().setText("${logo}");
+        fill(document, data("logo", new WordPicture(new byte[]{1, 2, 3})));
+    }
+
+    /**
+     * 超链接、简单域、修订插入中的占位符（含被拆分为多个片段的）与段落中直接的占位符一样填充
+     */
+    @Test
+    public void fillsPlaceholdersInsideRunContainers() throws Exception {
+        XWPFDocument document = new XWPFDocument();
+        CTP p = document.createParagraph().getCTP();
+        p.addNewR().addNewT().setStringValue("链接 ");
+        CTHyperlink hyperlink = p.addNewHyperlink();
+        hyperlink.addNewR().addNewT().setStringValue("${na");
+        hyperlink.addNewR().addNewT().setStringValue("me}");
+        CTSimpleField field = p.addNewFldSimple();
+        field.setInstr(" MERGEFIELD no ");
+        field.addNewR().addNewT().setStringValue("${no}");
+        p.addNewIns().addNewR().addNewT().setStringValue(" ${name}");
+        ByteArrayOutputStream templateOut = new ByteArrayOutputStream();
+        document.write(templateOut);
+
+        WordTemplate template = WordTemplate.compile(new ByteArrayInputStream(templateOut.toByteArray()));
+        Map<String, Object> data = data("name", "张三", "no", "HT-001");
+
+        ByteArrayOutputStream batchOut = new ByteArrayOutputStream();
+        new WordBatchGenerator(template).write(data, batchOut);
+        ByteArrayOutputStream fillOut = new ByteArrayOutputStream();
+        template.fill(data, fillOut);
+        for (ByteArrayOutputStream out : Arrays.asList(batchOut, fillOut)) {
+            CTP filled = new XWPFDocument(new ByteArrayInputStream(out.toByteArray())).getParagraphArray(0).getCTP();
+            assertEquals("链接 张三HT-001 张三", texts(filled));
+        }
+    }
+
+    /**
+     * 表头行 + 含 ${items.name}、${items.qty}${unit} 的重复行
+     */
+    private static XWPFDocument tableTemplate() {
+        XWPFDocument document = new XWPFDocument();
+        XWPFTable table = document.createTable(2, 2);
+        table.getRow(0).getCell(0).setText("名称");
+        table.getRow(0).getCell(1).setText("数量");
+        table.getRow(1).getCell(0).setText("${items.name}");
+        XWPFParagraph qty = table.getRow(1).getCell(1).getParagraphs().get(0);
+        qty.createRun().setText("${items.qty}");
+        qty.createRun().setText("${unit}");
+        return document;
+    }
+
+    private static void assertRow(XWPFTable table, int row, String name, String qty) {
+        assertEquals(name, table.getRow(row).getCell(0).getText());
+        assertEquals(qty, table.getRow(row).getCell(1).getText());
+    }
+
+    private static XWPFDocument fill(XWPFDocument document, Map<String, ?> data) throws Exception {
+        ByteArrayOutputStream templateOut = new ByteArrayOutputStream();
+        document.write(templateOut);
+        WordTemplate template = WordTemplate.compile(new ByteArrayInputStream(templateOut.toByteArray()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.fill(data, out);
+        return new XWPFDocument(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static Map<String, Object> data(Object... keyValues) {
+        Map<String, Object> data = new HashMap<String, Object>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            data.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return data;
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 段落中所有 w:t 的文本，包括超链接、域等容器中的
+     */
+    private static String texts(CTP p) {
+        StringBuilder builder = new StringBuilder();
+        for (XmlObject t : p.selectPath("declare namespace w='http://schemas.openxmlformats.org/wordprocessingml/2006/main' .//w:t")) {
+            builder.append(((CTText) t).getStringValue());
+        }
+        return builder.toString();
+    }
+}